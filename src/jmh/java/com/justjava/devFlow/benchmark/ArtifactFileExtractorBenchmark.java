@@ -0,0 +1,25 @@
+package com.justjava.devFlow.benchmark;
+
+import com.justjava.devFlow.extraction.ExtractedFile;
+import com.justjava.devFlow.extraction.ExtractionCache;
+import com.justjava.devFlow.extraction.ExtractionEngine;
+import com.justjava.devFlow.util.ArtifactFileExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+
+public class ArtifactFileExtractorBenchmark extends ExtractionBenchmark {
+
+    private final ArtifactFileExtractor extractor = new ArtifactFileExtractor(null,
+            ExtractionEngine.withStandardFormats(ExtractionCache.disabled(), Long.MAX_VALUE));
+
+    @Override
+    protected String generate(int sizeBytes, long seed) {
+        return SyntheticOutputs.unifiedArtifact(sizeBytes, seed);
+    }
+
+    @Benchmark
+    public List<ExtractedFile> extractFiles() {
+        return extractor.extractFilesFromUnifiedFormat(input);
+    }
+}
@@ -0,0 +1,33 @@
+package com.justjava.devFlow.benchmark;
+
+import com.justjava.devFlow.extraction.ExtractedFile;
+import com.justjava.devFlow.extraction.ExtractionCache;
+import com.justjava.devFlow.extraction.ExtractionEngine;
+import com.justjava.devFlow.util.ArtifactFileExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.List;
+
+/**
+ * Artifacts shaped to make a regex marker scanner backtrack. The scanner should stay linear:
+ * going from 1 MB to 10 MB should take about ten times as long for every shape.
+ */
+public class BacktrackingArtifactBenchmark extends ExtractionBenchmark {
+
+    @Param({"comment", "hash-lines", "open-fences", "labels", "dense"})
+    public String shape;
+
+    private final ArtifactFileExtractor extractor = new ArtifactFileExtractor(null,
+            ExtractionEngine.withStandardFormats(ExtractionCache.disabled(), Long.MAX_VALUE));
+
+    @Override
+    protected String generate(int sizeBytes, long seed) {
+        return SyntheticOutputs.backtrackingArtifact(shape, sizeBytes);
+    }
+
+    @Benchmark
+    public List<ExtractedFile> extractFiles() {
+        return extractor.extractFilesFromUnifiedFormat(input);
+    }
+}
@@ -0,0 +1,25 @@
+package com.justjava.devFlow.benchmark;
+
+import com.justjava.devFlow.extraction.ExtractedFile;
+import com.justjava.devFlow.extraction.ExtractionCache;
+import com.justjava.devFlow.extraction.ExtractionEngine;
+import com.justjava.devFlow.util.CodeDetailsExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+
+public class CodeDetailsExtractorBenchmark extends ExtractionBenchmark {
+
+    private final CodeDetailsExtractor extractor = new CodeDetailsExtractor(null,
+            ExtractionEngine.withStandardFormats(ExtractionCache.disabled(), Long.MAX_VALUE));
+
+    @Override
+    protected String generate(int sizeBytes, long seed) {
+        return SyntheticOutputs.codeDetailsHtml(sizeBytes, seed);
+    }
+
+    @Benchmark
+    public List<ExtractedFile> extractCodeFiles() {
+        return extractor.extractCodeFiles(input);
+    }
+}
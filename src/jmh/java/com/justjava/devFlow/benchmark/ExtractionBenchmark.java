@@ -0,0 +1,58 @@
+package com.justjava.devFlow.benchmark;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common setup for the extraction engine benchmarks: one synthetic input per size, throughput
+ * plus sampled latency (p50 to p99.99), and stdout silenced so the engines' progress logging
+ * isn't what gets measured.
+ *
+ * Run with {@code mvn -Pjmh test-compile exec:exec}; the gc profiler (allocation rate per
+ * operation) is on by default and results go to target/jmh-result.json. Pass other JMH options
+ * through jmh.args, e.g. {@code -Djmh.args="ArtifactFileExtractor -p sizeKb=1024 -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public abstract class ExtractionBenchmark {
+
+    /** Input size: 10 KB (one story) up to 50 MB (a whole generated project) */
+    @Param({"10", "1024", "10240", "51200"})
+    public int sizeKb;
+
+    protected String input;
+
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void generateInput() {
+        input = generate(sizeKb * 1024, 42L);
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreStdout() {
+        System.setOut(stdout);
+    }
+
+    protected abstract String generate(int sizeBytes, long seed);
+}
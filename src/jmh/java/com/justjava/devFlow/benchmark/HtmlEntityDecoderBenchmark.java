@@ -0,0 +1,37 @@
+package com.justjava.devFlow.benchmark;
+
+import com.justjava.devFlow.extraction.HtmlEntityDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Entity decoding of escaped code: the table-driven decoder with its reused builder against the
+ * replace chain it replaced. Allocation per MB of input is the gc profiler's
+ * {@code gc.alloc.rate.norm} (bytes per operation) divided by sizeKb / 1024. The decoder should
+ * allocate only the decoded String (more for non-Latin-1 text, which the JDK first tries to
+ * compact); the replace chain allocates a copy per entity kind it replaces.
+ */
+public class HtmlEntityDecoderBenchmark extends ExtractionBenchmark {
+
+    private final HtmlEntityDecoder decoder = new HtmlEntityDecoder();
+
+    @Override
+    protected String generate(int sizeBytes, long seed) {
+        return SyntheticOutputs.escapedCode(sizeBytes, seed);
+    }
+
+    @Benchmark
+    public String decode() {
+        return decoder.decode(input);
+    }
+
+    @Benchmark
+    public String replaceChain() {
+        return input
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&nbsp;", " ");
+    }
+}
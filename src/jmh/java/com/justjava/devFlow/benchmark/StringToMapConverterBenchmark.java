@@ -0,0 +1,23 @@
+package com.justjava.devFlow.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.justjava.devFlow.flowableutil.StringToMapConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Map;
+
+public class StringToMapConverterBenchmark extends ExtractionBenchmark {
+
+    private final StringToMapConverter converter = new StringToMapConverter(new ObjectMapper());
+
+    @Override
+    protected String generate(int sizeBytes, long seed) {
+        return SyntheticOutputs.storiesJson(sizeBytes, seed);
+    }
+
+    @Benchmark
+    public Map<String, Object> convert() throws JsonProcessingException {
+        return converter.convert(input);
+    }
+}
@@ -0,0 +1,209 @@
+package com.justjava.devFlow.benchmark;
+
+import java.util.Random;
+
+/**
+ * Deterministic generators for AI outputs in the shapes the extraction engines receive: the
+ * markdown artifact read by ArtifactFileExtractor, the rendered HTML read by CodeDetailsExtractor
+ * and the stories JSON read by StringToMapConverter. Each output is grown to roughly the
+ * requested size by repeating varied sections, the way a long generation repeats per class.
+ */
+final class SyntheticOutputs {
+
+    private static final String[] LAYERS = {"domain", "application", "infrastructure", "presentation"};
+    private static final String[] NOUNS = {"Document", "Invoice", "Customer", "Order", "Approval", "Ledger"};
+    private static final String[] PROSE = {
+            "This component keeps the aggregate consistent and exposes only the operations the story needs.",
+            "Validation happens before persistence so that invalid requests never reach the repository.",
+            "The controller maps the request to a command and renders the result with a Thymeleaf fragment.",
+            "Errors are translated into problem details with a stable error code for the client.",
+    };
+
+    private SyntheticOutputs() {
+    }
+
+    /**
+     * Markdown artifact with every file marker form: {@code **File Path:**} labels, HTML comments,
+     * {@code #} and {@code //} comments, with prose and fenced code between them
+     */
+    static String unifiedArtifact(int sizeBytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder out = new StringBuilder(sizeBytes + 4096);
+        out.append("# Generated implementation\n\n").append(PROSE[0]).append("\n\n");
+        for (int i = 0; out.length() < sizeBytes; i++) {
+            String layer = LAYERS[random.nextInt(LAYERS.length)];
+            String name = NOUNS[random.nextInt(NOUNS.length)] + i;
+            out.append("## ").append(name).append(" (").append(layer).append(")\n\n")
+                    .append(PROSE[random.nextInt(PROSE.length)]).append("\n\n");
+            switch (random.nextInt(4)) {
+                case 0 -> out.append("**File Path:** `src/main/java/com/acme/").append(layer).append('/')
+                        .append(name).append(".java`\n\n```java\n").append(javaClass(layer, name, random)).append("```\n\n");
+                case 1 -> out.append("<!-- src/main/resources/templates/").append(name.toLowerCase())
+                        .append(".html -->\n```html\n").append(template(name, random)).append("```\n\n");
+                case 2 -> out.append("# src/main/resources/config/").append(name.toLowerCase())
+                        .append(".yml\n```yaml\n").append(yaml(name, random)).append("```\n\n");
+                default -> out.append("// src/test/java/com/acme/").append(layer).append('/').append(name)
+                        .append("Test.java\n```java\n").append(javaTest(layer, name)).append("```\n\n");
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Markdown rendered to HTML: Java main and test classes, one full page, fragments, SQL and YAML
+     * blocks with escaped entities, plus paragraphs with inline code tags
+     */
+    static String codeDetailsHtml(int sizeBytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder out = new StringBuilder(sizeBytes + 4096);
+        out.append("<h1>Code details</h1>\n<p>").append(PROSE[1]).append("</p>\n")
+                .append("<pre><code>&lt;!DOCTYPE html&gt;\n")
+                .append(escape("<html>\n<body>\n" + template("Documents", random) + "</body>\n</html>\n"))
+                .append("</code></pre>\n");
+        for (int i = 0; out.length() < sizeBytes; i++) {
+            String layer = LAYERS[random.nextInt(LAYERS.length)];
+            String name = NOUNS[random.nextInt(NOUNS.length)] + i;
+            out.append("<h2>").append(name).append("</h2>\n<p>").append(PROSE[random.nextInt(PROSE.length)])
+                    .append(" See <code>").append(name).append("Service</code> and <code>")
+                    .append(layer).append("</code>.</p>\n");
+            switch (random.nextInt(5)) {
+                case 0, 1 -> out.append("<pre><code class=\"language-java\">")
+                        .append(escape(javaClass(layer, name, random))).append("</code></pre>\n");
+                case 2 -> out.append("<pre><code class=\"language-java\">")
+                        .append(escape(javaTest(layer, name))).append("</code></pre>\n");
+                case 3 -> out.append("<pre><code>&lt;!-- ").append(name.toLowerCase()).append(".html --&gt;\n")
+                        .append(escape(template(name, random))).append("</code></pre>\n");
+                default -> out.append(random.nextBoolean()
+                        ? "<pre><code class=\"language-sql\">-- " + name + "\n" + escape(sql(name)) + "</code></pre>\n"
+                        : "<pre><code class=\"language-yaml\">" + escape(yaml(name, random)) + "</code></pre>\n");
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Escaped code as it appears inside the code blocks of the code details HTML: Java classes and
+     * templates, with the decimal and hex references some renderers use for quotes and dashes
+     */
+    static String escapedCode(int sizeBytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder out = new StringBuilder(sizeBytes + 4096);
+        for (int i = 0; out.length() < sizeBytes; i++) {
+            String layer = LAYERS[random.nextInt(LAYERS.length)];
+            String name = NOUNS[random.nextInt(NOUNS.length)] + i;
+            out.append(escape(random.nextBoolean() ? javaClass(layer, name, random) : template(name, random)))
+                    .append("// it&#39;s generated &#x2014; don&#x27;t edit\n");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Markdown artifact built to trigger regex backtracking in a marker scanner, repeated to
+     * roughly the requested size:
+     * - comment: one long path with many extension candidates but no closing "-->"
+     * - hash-lines: lines of deep directories without a file name
+     * - open-fences: code fences that are never closed within their section
+     * - labels: backticks without a file extension after the label
+     * - dense: line-start paths and comment markers packed together
+     */
+    static String backtrackingArtifact(String shape, int sizeBytes) {
+        return switch (shape) {
+            case "comment" -> "<!-- src/" + "a.b-".repeat(sizeBytes / 4) + "\n";
+            case "hash-lines" -> ("# " + "dir/".repeat(100) + "\n").repeat(Math.max(1, sizeBytes / 403));
+            case "open-fences" -> "**File Path:** `src/A.java`\n" + "```lang ".repeat(sizeBytes / 8);
+            case "labels" -> "**File Path:** `no extension here".repeat(Math.max(1, sizeBytes / 33));
+            case "dense" -> "a/b.c//d/e.f#g/h.i<!--j/k.l-->\n".repeat(Math.max(1, sizeBytes / 31));
+            default -> throw new IllegalArgumentException("Unknown artifact shape " + shape);
+        };
+    }
+
+    /**
+     * Stories JSON as the model writes it, including the comments and single quotes the lenient
+     * parser accepts
+     */
+    static String storiesJson(int sizeBytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder out = new StringBuilder(sizeBytes + 4096);
+        out.append("// Stories generated from the requirement\n{\n  \"projectName\": \"acme-documents\",\n  \"stories\": [\n");
+        for (int i = 0; out.length() < sizeBytes; i++) {
+            String noun = NOUNS[random.nextInt(NOUNS.length)];
+            if (i > 0) {
+                out.append(",\n");
+            }
+            out.append("    {\n      \"id\": \"US-").append(i).append("\",\n")
+                    .append("      \"title\": 'Manage ").append(noun).append(" records',\n")
+                    .append("      \"asA\": \"back office user\",\n")
+                    .append("      \"iWant\": \"to create, review and approve ").append(noun.toLowerCase()).append("s\",\n")
+                    .append("      \"soThat\": \"").append(PROSE[random.nextInt(PROSE.length)]).append("\",\n")
+                    .append("      \"priority\": \"").append(random.nextBoolean() ? "HIGH" : "MEDIUM").append("\",\n")
+                    .append("      \"storyPoints\": ").append(1 + random.nextInt(13)).append(",\n")
+                    .append("      \"acceptanceCriteria\": [\n");
+            int criteria = 2 + random.nextInt(4);
+            for (int c = 0; c < criteria; c++) {
+                out.append("        \"Given a ").append(noun.toLowerCase()).append(" in state ").append(c)
+                        .append(", when it is submitted, then it moves to state ").append(c + 1).append('"')
+                        .append(c < criteria - 1 ? ",\n" : "\n");
+            }
+            out.append("      ]\n    }");
+        }
+        out.append("\n  ]\n}\n");
+        return out.toString();
+    }
+
+    private static String javaClass(String layer, String name, Random random) {
+        StringBuilder out = new StringBuilder()
+                .append("package com.acme.").append(layer).append(";\n\n")
+                .append("import java.util.List;\nimport java.util.Map;\n\n")
+                .append("public class ").append(name).append(" {\n\n")
+                .append("    private final Map<String, List<String>> index = new java.util.HashMap<>();\n");
+        int methods = 2 + random.nextInt(6);
+        for (int m = 0; m < methods; m++) {
+            out.append("\n    // keeps entries for step ").append(m).append('\n')
+                    .append("    public List<String> step").append(m).append("(String key) {\n")
+                    .append("        if (key == null || key.isBlank()) {\n")
+                    .append("            throw new IllegalArgumentException(\"key is required\");\n")
+                    .append("        }\n")
+                    .append("        return index.getOrDefault(key, List.of());\n    }\n");
+        }
+        return out.append("}\n").toString();
+    }
+
+    private static String javaTest(String layer, String name) {
+        return "package com.acme." + layer + ";\n\n"
+                + "import org.junit.jupiter.api.Test;\n\n"
+                + "import static org.junit.jupiter.api.Assertions.assertTrue;\n\n"
+                + "class " + name + "Test {\n\n"
+                + "    @Test\n    void rejectsBlankKeys() {\n"
+                + "        assertTrue(new " + name + "().step0(\"a\").isEmpty());\n    }\n}\n";
+    }
+
+    private static String template(String name, Random random) {
+        StringBuilder out = new StringBuilder("<div th:fragment=\"").append(name.toLowerCase()).append("\">\n")
+                .append("  <table class=\"table\">\n");
+        int rows = 2 + random.nextInt(6);
+        for (int r = 0; r < rows; r++) {
+            out.append("    <tr th:each=\"item : ${items}\"><td th:text=\"${item.name}\">").append(name)
+                    .append("</td><td>&amp; ").append(r).append("</td></tr>\n");
+        }
+        return out.append("  </table>\n</div>\n").toString();
+    }
+
+    private static String yaml(String name, Random random) {
+        StringBuilder out = new StringBuilder("openapi: 3.0.0\ninfo:\n  title: ").append(name).append(" API\npaths:\n");
+        int paths = 1 + random.nextInt(4);
+        for (int p = 0; p < paths; p++) {
+            out.append("  /").append(name.toLowerCase()).append("/").append(p).append(":\n")
+                    .append("    get:\n      responses:\n        '200':\n          description: OK\n");
+        }
+        return out.toString();
+    }
+
+    private static String sql(String name) {
+        return "CREATE TABLE " + name.toLowerCase() + " (\n  id BIGSERIAL PRIMARY KEY,\n"
+                + "  name VARCHAR(255) NOT NULL,\n  created_at TIMESTAMP DEFAULT now()\n);\n";
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -3,15 +3,24 @@ package com.justjava.devFlow.controller;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import com.justjava.devFlow.util.DiagramFormat;
+import com.justjava.devFlow.util.DiagramRenderCache;
+import com.justjava.devFlow.util.DiagramRenderExecutor;
 import com.justjava.devFlow.util.PlantUmlService;
+import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/diagrams")
@@ -42,28 +51,32 @@ public class ThymeleafDiagramController {
 
     /**
      * HTMX endpoint to generate diagram and return img tag
-     * Uses fallback generation with auto-correction
+     * Uses fallback generation with auto-correction; the image is loaded from its render URL
      */
     @PostMapping("/generate-diagram-htmx")
     @ResponseBody
-    public String generateDiagramHtmx(@RequestParam("plantUmlSource") String plantUmlSource) {
+    public String generateDiagramHtmx(@RequestParam("plantUmlSource") String plantUmlSource,
+                                      @RequestParam(value = "format", required = false) String format) {
+        DiagramFormat diagramFormat = diagramFormat(format);
         try {
             //System.out.println("The plantUmlSource==" + plantUmlSource);
 
             // Use the enhanced fallback method that auto-corrects if needed
-            byte[] pngData = plantUmlService.generatePngWithFallback(plantUmlSource);
-            String base64Image = java.util.Base64.getEncoder().encodeToString(pngData);
+            PlantUmlService.PublishedDiagram diagram = plantUmlService.publishWithFallback(plantUmlSource);
 
-            return "<img src='data:image/png;base64," + base64Image +
+            return "<img src='" + renderUrl(diagram, diagramFormat) +
                     "' alt='Generated Diagram' class='img-fluid border rounded' " +
                     "style='max-width: 100%; height: auto;'>";
 
+        } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+            // Answered with 429/503 (413 for a source too long) by renderUnavailable
+            throw e;
         } catch (Exception e) {
             String errorMessage = e.getMessage();
             System.err.println("Error generating diagram: " + errorMessage);
 
             // Try auto-correction as a last resort
-            return attemptAutoCorrectionFallback(plantUmlSource, errorMessage);
+            return attemptAutoCorrectionFallback(plantUmlSource, diagramFormat, errorMessage);
         }
     }
 
@@ -112,6 +125,9 @@ public class ThymeleafDiagramController {
                     "showTempMessage('PlantUML syntax auto-corrected!', 'success');" +
                     "</script>";
 
+        } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+            // Answered with 429/503 (413 for a source too long) by renderUnavailable
+            throw e;
         } catch (Exception e) {
             return "<div class='alert alert-danger'>Auto-correction failed: " +
                     e.getMessage() + "</div>";
@@ -119,33 +135,96 @@ public class ThymeleafDiagramController {
     }
 
     /**
-     * Enhanced download endpoint with fallback generation
+     * Enhanced download endpoint with fallback generation, streamed to the response like
+     * {@link #renderDiagram}. The ETag is the hash of the source, so a client that already has the
+     * image gets a 304 without the diagram being parsed or rendered.
      */
     @PostMapping("/download-diagram-htmx")
-    public ResponseEntity<byte[]> downloadDiagramHtmx(@RequestParam("plantUmlSource") String plantUmlSource,
-                                                      @RequestParam(value = "filename", required = false) String filename) {
-        try {
-            System.out.println("Download request - plantUmlSource length: " + plantUmlSource.length());
+    public void downloadDiagramHtmx(@RequestParam("plantUmlSource") String plantUmlSource,
+                                    @RequestParam(value = "filename", required = false) String filename,
+                                    @RequestParam(value = "format", required = false) String format,
+                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                    HttpServletResponse response) throws IOException {
+        System.out.println("Download request - plantUmlSource length: " + plantUmlSource.length());
+
+        DiagramFormat diagramFormat = diagramFormat(format);
+        String eTag = "\"" + plantUmlService.withFallbackKey(plantUmlSource, diagramFormat) + "\"";
+        if (eTagMatches(ifNoneMatch, eTag)) {
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.empty().cachePrivate().mustRevalidate().getHeaderValue());
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
 
+        try {
             // Use fallback generation for downloads too
-            byte[] pngData = plantUmlService.generatePngWithFallback(plantUmlSource);
-
-            // Generate filename if not provided
-            String actualFilename = generateFilename(filename);
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_PNG)
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + actualFilename + "\"")
-                    .header(HttpHeaders.CACHE_CONTROL, "no-cache")
-                    .header("X-Diagram-Size", String.valueOf(pngData.length))
-                    .body(pngData);
+            PlantUmlService.PublishedDiagram diagram = plantUmlService.publishWithFallback(plantUmlSource);
+            PlantUmlService.ImageSink sink = responseSink(response, diagramFormat, generateFilename(filename, diagramFormat));
+            if (!plantUmlService.writePublished(diagram.hash(), diagramFormat, 1, contentLength -> {
+                response.setHeader(HttpHeaders.ETAG, eTag);
+                return sink.open(contentLength);
+            })) {
+                throw new IOException("Diagram " + diagram.hash() + " is no longer published");
+            }
 
+        } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+            if (response.isCommitted()) {
+                System.err.println("⚠️ Streamed download cut short: " + e.getMessage());
+                return;
+            }
+            // Answered with 429/503 (413 for a source too long) by renderUnavailable
+            throw e;
         } catch (Exception e) {
             System.err.println("Download failed: " + e.getMessage());
-            return ResponseEntity.badRequest()
-                    .contentType(MediaType.TEXT_PLAIN)
-                    .body(("Download failed: " + e.getMessage()).getBytes());
+            if (response.isCommitted()) {
+                // Part of the image is out already, the client sees a truncated image
+                return;
+            }
+            response.reset();
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getOutputStream().write(("Download failed: " + e.getMessage()).getBytes());
+        }
+    }
+
+    /**
+     * Image of a published diagram (see PlantUmlService.publish) in a format and, for PNG, a scale
+     * of up to 4, written straight to the response: from the render cache, or streamed while it
+     * renders. The hash names the source, so the image of a URL never changes: the ETag lets
+     * browsers revalidate their copy with a 304, which needs neither the source nor a render.
+     */
+    @GetMapping("/render/{hash:[0-9a-f]{64}}.{extension:[a-z]+}")
+    public void renderDiagram(@PathVariable("hash") String hash, @PathVariable("extension") String extension,
+                              @RequestParam(value = "scale", defaultValue = "1") int scale,
+                              @RequestParam(value = "download", required = false) String download,
+                              WebRequest webRequest, HttpServletResponse response) throws IOException {
+        DiagramFormat format = DiagramFormat.fromExtension(extension);
+        if (format == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Unknown diagram format " + extension);
+            return;
+        }
+        if (!format.supportsScale(scale)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Scale " + scale + " is not supported for " + extension);
+            return;
+        }
+        if (webRequest.checkNotModified("\"" + DiagramRenderCache.key(format.cacheName(scale), hash) + "\"")) {
+            return;
+        }
+
+        boolean published;
+        try {
+            published = plantUmlService.writePublished(hash, format, scale,
+                    responseSink(response, format, download != null ? generateFilename(download, format) : null));
+        } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+            if (response.isCommitted()) {
+                // Part of the image is out already, the client sees a truncated image
+                System.err.println("⚠️ Streamed diagram " + hash + " cut short: " + e.getMessage());
+                return;
+            }
+            throw e;
+        }
+        if (!published) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Unknown diagram " + hash + "." + extension);
         }
     }
 
@@ -154,12 +233,14 @@ public class ThymeleafDiagramController {
      */
     @PostMapping("/download-diagram-info")
     @ResponseBody
-    public String downloadDiagramInfo(@RequestParam("plantUmlSource") String plantUmlSource) {
+    public String downloadDiagramInfo(@RequestParam("plantUmlSource") String plantUmlSource,
+                                      @RequestParam(value = "format", required = false) String format) {
+        DiagramFormat diagramFormat = diagramFormat(format);
         try {
-            // Validate first
-            boolean isValid = plantUmlService.validateSyntax(plantUmlSource);
+            // Validate and publish in one parse; the image renders when it is downloaded
+            PlantUmlService.DiagramResult result = plantUmlService.validateAndPublish(plantUmlSource);
 
-            if (!isValid) {
+            if (!result.valid()) {
                 return "<div class='alert alert-warning'>" +
                         "<strong>⚠ Syntax issues detected</strong><br>" +
                         "<small>Diagram may not generate correctly.</small><br>" +
@@ -178,16 +259,18 @@ public class ThymeleafDiagramController {
                         "</div>";
             }
 
-            byte[] pngData = plantUmlService.generatePng(plantUmlSource);
-            String base64Image = java.util.Base64.getEncoder().encodeToString(pngData);
+            PlantUmlService.PublishedDiagram diagram = result.published();
 
             return "<div class='alert alert-success'>" +
                     "<strong>✓ Diagram ready for download</strong><br>" +
-                    "<small>Size: " + pngData.length + " bytes • Syntax: Valid</small><br>" +
+                    "<small>" + result.description() + " • Syntax: Valid</small><br>" +
                     "<button class='btn btn-sm btn-outline-primary mt-2' onclick='triggerDownload(\"" +
-                    base64Image + "\")'>Click to Download PNG</button>" +
+                    renderUrl(diagram, diagramFormat) + "\")'>Click to Download " + diagramFormat + "</button>" +
                     "</div>";
 
+        } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+            // Answered with 429/503 (413 for a source too long) by renderUnavailable
+            throw e;
         } catch (Exception e) {
             return "<div class='alert alert-danger'>" +
                     "<strong>Download preparation failed</strong><br>" +
@@ -223,6 +306,55 @@ public class ThymeleafDiagramController {
         }
     }
 
+    /**
+     * Render cache statistics (lookups, hit ratio and size) and the load of the render pool
+     */
+    @GetMapping("/render-cache-stats")
+    @ResponseBody
+    public Map<String, Object> renderCacheStats() {
+        DiagramRenderCache renderCache = plantUmlService.getRenderCache();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", renderCache.getHits());
+        stats.put("misses", renderCache.getMisses());
+        stats.put("hitRatio", renderCache.getHitRatio());
+        stats.put("entries", renderCache.getEntryCount());
+        stats.put("sizeBytes", renderCache.getSizeBytes());
+        stats.put("parsedSources", renderCache.getParsedCount());
+        DiagramRenderExecutor renderExecutor = plantUmlService.getRenderExecutor();
+        stats.put("activeRenders", renderExecutor.getActiveCount());
+        stats.put("queuedRenders", renderExecutor.getQueuedCount());
+        stats.put("rejectedRenders", renderExecutor.getRejectedCount());
+        stats.put("timedOutRenders", renderExecutor.getTimedOutCount());
+        stats.put("overrunningRenders", renderExecutor.getOverrunningCount());
+        return stats;
+    }
+
+    /**
+     * Renders refused by the saturated render pool get a 429, renders that timed out (or that a
+     * pool stalled by timed-out renders refused) a 503, both with a Retry-After; sources too long
+     * to render a 413. Each with an alert fragment HTMX swaps in like any other result.
+     */
+    @ExceptionHandler(DiagramRenderExecutor.RenderUnavailableException.class)
+    public ResponseEntity<String> renderUnavailable(DiagramRenderExecutor.RenderUnavailableException e) {
+        System.err.println("⚠️ Diagram render unavailable: " + e.getMessage());
+        ResponseEntity.BodyBuilder response = switch (e.getReason()) {
+            case SATURATED -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "2");
+            case STALLED, TIMED_OUT -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10");
+            case TOO_LARGE -> ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE);
+        };
+        String title = switch (e.getReason()) {
+            case SATURATED, STALLED -> "Diagram renderer is busy";
+            case TIMED_OUT -> "Diagram took too long to render";
+            case TOO_LARGE -> "Diagram is too large to render";
+        };
+        return response
+                .contentType(MediaType.TEXT_HTML)
+                .body("<div class='alert alert-warning'>" +
+                        "<strong>⏳ " + title + "</strong><br>" +
+                        "<small>" + e.getMessage() + "</small>" +
+                        "</div>");
+    }
+
     /**
      * Handle file upload for PlantUML files
      */
@@ -236,11 +368,18 @@ public class ThymeleafDiagramController {
 
             String content = new String(file.getBytes(), StandardCharsets.UTF_8);
 
-            // Validate the uploaded content
-            boolean isValid = plantUmlService.validateSyntax(content);
-            String validationStatus = isValid ?
-                    "<small class='text-success'>✓ Valid syntax</small>" :
-                    "<small class='text-warning'>⚠ May need auto-correction</small>";
+            // Validate the uploaded content; a busy renderer shouldn't fail the upload itself
+            String validationStatus;
+            try {
+                boolean isValid = plantUmlService.validateSyntax(content);
+                validationStatus = isValid ?
+                        "<small class='text-success'>✓ Valid syntax</small>" :
+                        "<small class='text-warning'>⚠ May need auto-correction</small>";
+            } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+                validationStatus = e.getReason() == DiagramRenderExecutor.RenderUnavailableException.Reason.TOO_LARGE
+                        ? "<small class='text-warning'>⚠ Too large to render</small>"
+                        : "<small class='text-warning'>⏳ Not validated yet, the renderer is busy</small>";
+            }
 
             // Return the content to be placed in the textarea
             return "<script>" +
@@ -256,22 +395,42 @@ public class ThymeleafDiagramController {
         }
     }
 
+    /**
+     * Writes an image into the response: the headers once the image starts (with its length when
+     * it comes from the render cache), then the bytes as PlantUML renders them
+     *
+     * @param attachmentName file name to download the image as, or null to show it inline
+     */
+    private static PlantUmlService.ImageSink responseSink(HttpServletResponse response, DiagramFormat format,
+                                                         String attachmentName) {
+        return contentLength -> {
+            response.setContentType(format.getContentType());
+            if (contentLength >= 0) {
+                response.setContentLength(contentLength);
+            }
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.empty().cachePrivate().mustRevalidate().getHeaderValue());
+            if (attachmentName != null) {
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + attachmentName + "\"");
+            }
+            return response.getOutputStream();
+        };
+    }
+
     /**
      * Attempt auto-correction as fallback when generation fails
      */
-    private String attemptAutoCorrectionFallback(String plantUmlSource, String originalError) {
+    private String attemptAutoCorrectionFallback(String plantUmlSource, DiagramFormat format, String originalError) {
         try {
             System.out.println("Attempting auto-correction as fallback...");
 
             String corrected = plantUmlService.autoCorrectPlantUml(plantUmlSource);
-            byte[] pngData = plantUmlService.generatePng(corrected);
-            String base64Image = java.util.Base64.getEncoder().encodeToString(pngData);
+            PlantUmlService.PublishedDiagram diagram = plantUmlService.publish(corrected);
 
             return "<div class='alert alert-warning'>" +
                     "<strong>⚠ Diagram generated with auto-correction</strong><br>" +
                     "<small>Original error: " + originalError + "</small>" +
                     "</div>" +
-                    "<img src='data:image/png;base64," + base64Image +
+                    "<img src='" + renderUrl(diagram, format) +
                     "' alt='Auto-corrected Diagram' class='img-fluid border rounded mt-2' " +
                     "style='max-width: 100%; height: auto;'>" +
                     "<div class='mt-2'>" +
@@ -281,6 +440,9 @@ public class ThymeleafDiagramController {
                     "</button>" +
                     "</div>";
 
+        } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+            // Answered with 429/503 (413 for a source too long) by renderUnavailable
+            throw e;
         } catch (Exception correctionError) {
             return "<div class='alert alert-danger'>" +
                     "<strong>❌ Generation failed even with auto-correction</strong><br>" +
@@ -299,20 +461,55 @@ public class ThymeleafDiagramController {
     /**
      * Generate proper filename
      */
-    private String generateFilename(String requestedFilename) {
+    private String generateFilename(String requestedFilename, DiagramFormat format) {
         String filename = requestedFilename != null ? requestedFilename : "diagram";
 
         // Remove invalid characters
         filename = filename.replaceAll("[^a-zA-Z0-9.-]", "_");
 
-        // Ensure .png extension
-        if (!filename.toLowerCase().endsWith(".png")) {
-            filename += ".png";
+        // Ensure the extension of the format
+        String extension = "." + format.getExtension();
+        if (!filename.toLowerCase().endsWith(extension)) {
+            filename += extension;
         }
 
         return filename;
     }
 
+    /**
+     * URL of the image of a published diagram in the given format
+     */
+    private static String renderUrl(PlantUmlService.PublishedDiagram diagram, DiagramFormat format) {
+        return "/diagrams/render/" + diagram.hash() + "." + format.getExtension();
+    }
+
+    /**
+     * The requested output format, PNG if none or an unknown one was requested
+     */
+    private static DiagramFormat diagramFormat(String format) {
+        DiagramFormat diagramFormat = format != null ? DiagramFormat.fromExtension(format) : null;
+        return diagramFormat != null ? diagramFormat : DiagramFormat.PNG;
+    }
+
+    /**
+     * Whether an If-None-Match header (a list of possibly weak ETags, or *) names the ETag
+     */
+    private static boolean eTagMatches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String escapeJavaScriptString(String input) {
         if (input == null) {
             return "''";
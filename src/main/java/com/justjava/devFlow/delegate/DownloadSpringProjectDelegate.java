@@ -28,6 +28,8 @@ public class DownloadSpringProjectDelegate implements JavaDelegate {
         String githubToken = (String) execution.getVariable("githubToken");
         String repositoryDescription = (String) execution.getVariable("repositoryDescription");
         boolean isPrivateRepo = getBooleanVariable(execution, "isPrivateRepo", true);
+        // ✅ Optional push target ("github", "local"); the configured default when not set
+        String pushTarget = (String) execution.getVariable("pushTarget");
 
         try {
             // ✅ Use SpringBootProjectGitHubService to download and push to GitHub
@@ -41,7 +43,8 @@ public class DownloadSpringProjectDelegate implements JavaDelegate {
                             githubUsername,
                             githubToken,
                             repositoryDescription != null ? repositoryDescription : "Spring Boot project: " + artifactId,
-                            isPrivateRepo
+                            isPrivateRepo,
+                            pushTarget
                     );
 
             // ✅ Set process variables with GitHub results
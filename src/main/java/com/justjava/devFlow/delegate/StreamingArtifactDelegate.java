@@ -0,0 +1,334 @@
+package com.justjava.devFlow.delegate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.justjava.devFlow.extraction.ExtractedFile;
+import com.justjava.devFlow.extraction.IncrementalArtifactExtractor;
+import com.justjava.devFlow.push.PushJob;
+import com.justjava.devFlow.push.PushJobHandler;
+import com.justjava.devFlow.push.PushOutbox;
+import com.justjava.devFlow.push.StreamingFileSource;
+import com.justjava.devFlow.util.SpringBootProjectGitHubService;
+import org.flowable.common.engine.api.delegate.Expression;
+import org.flowable.engine.delegate.DelegateExecution;
+import org.flowable.engine.delegate.JavaDelegate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Delegate that calls the AI service like the HTTP tasks do, but reads the response while it is
+ * still being generated: files are extracted as soon as they are complete and pushed to the
+ * GitHub repository while the rest of the response is streaming in, so generation, extraction
+ * and push overlap. The full response is stored in the response variable as before.
+ *
+ * Fields (as on the HTTP task): requestUrl, requestBody, requestTimeout, responseVariableName.
+ * Files are only pushed when the process has the GitHub variables (githubUsername, githubToken);
+ * repositoryName defaults to the projectName. On a triggerable service task that pushes, the
+ * request is queued in the push outbox: the worker streams and pushes outside the Flowable
+ * transaction and triggers the execution with the response and push variables.
+ *
+ * A failed push fails the task (or the outbox attempt, which is retried). A response without any
+ * file doesn't: the task completes with the response and extractionStatus=FAILED, which the
+ * process routes back for review.
+ */
+@Component
+public class StreamingArtifactDelegate implements JavaDelegate, PushJobHandler {
+
+    private static final String JOB_KIND = "streamed-artifacts";
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    // Extracted files waiting for the upload before the stream is read further. Their contents are
+    // copies (the response is a StringBuilder still being appended to, so no views into it), which
+    // makes this bound, with the uploads in flight, what limits the memory held in file contents
+    private static final int STREAMED_FILES_BUFFER = 32;
+
+    private final SpringBootProjectGitHubService projectGitHubService;
+    private final PushOutbox pushOutbox;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    private Expression requestUrl;
+    private Expression requestBody;
+    private Expression requestTimeout;
+    private Expression responseVariableName;
+
+    public StreamingArtifactDelegate(SpringBootProjectGitHubService projectGitHubService, PushOutbox pushOutbox,
+                                     ObjectMapper objectMapper) {
+        this.projectGitHubService = projectGitHubService;
+        this.pushOutbox = pushOutbox;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public void execute(DelegateExecution execution) {
+        StreamRequest request = new StreamRequest(
+                String.valueOf(requestUrl.getValue(execution)),
+                requestBody != null ? String.valueOf(requestBody.getValue(execution)) : "",
+                requestTimeout != null
+                        ? Long.parseLong(String.valueOf(requestTimeout.getValue(execution)).trim())
+                        : Duration.ofMinutes(30).toMillis(),
+                responseVariableName != null ? String.valueOf(responseVariableName.getValue(execution)) : "artifact");
+        StreamingPush push = StreamingPush.from(execution, projectGitHubService);
+
+        // Triggerable task: the outbox worker streams and pushes, then triggers the execution
+        if (push.isEnabled() && pushOutbox.shouldQueue(execution)) {
+            try {
+                pushOutbox.enqueue(execution, JOB_KIND, objectMapper.writeValueAsString(request),
+                        push.repositoryName, push.repositoryDescription, push.isPrivateRepo,
+                        push.githubUsername, push.pushTarget);
+            } catch (JsonProcessingException e) {
+                handleError("Failed to queue AI request to " + request.url() + ": " + e.getMessage(), e);
+            }
+            execution.setVariable("extractionStatus", "QUEUED");
+            return;
+        }
+
+        try {
+            execution.setVariables(stream(request, push));
+        } catch (IOException | RuntimeException e) {
+            handleError("Failed to stream AI response from " + request.url() + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleError("Interrupted while streaming AI response from " + request.url(), e);
+        }
+        pushOutbox.completeInline(execution);
+    }
+
+    @Override
+    public String getJobKind() {
+        return JOB_KIND;
+    }
+
+    /**
+     * Runs a queued request from the outbox: streams the response and pushes its files
+     */
+    @Override
+    public Map<String, Object> process(PushJob job, String githubToken) throws Exception {
+        StreamRequest request = objectMapper.readValue(job.getPayload(), StreamRequest.class);
+        StreamingPush push = new StreamingPush(projectGitHubService, job.getRepositoryName(),
+                job.getRepositoryDescription(), job.isPrivateRepository(), job.getOwner(), githubToken,
+                job.getPushTarget());
+        return stream(request, push);
+    }
+
+    @Override
+    public Map<String, Object> failureVariables(String errorMessage) {
+        return StreamingPush.failureVariables(errorMessage);
+    }
+
+    /**
+     * Streams the AI response into the extractor, pushing files as they complete; returns the
+     * response variable and, when pushing, the variables describing the push
+     */
+    private Map<String, Object> stream(StreamRequest request, StreamingPush push)
+            throws IOException, InterruptedException {
+
+        System.out.println("🚀 Streaming AI response from " + request.url() + " into '"
+                + request.responseVariable() + "'...");
+        IncrementalArtifactExtractor extractor = new IncrementalArtifactExtractor(push::accept);
+
+        try {
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(request.url()))
+                    .timeout(Duration.ofMillis(request.timeoutMillis()))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(request.body()))
+                    .build();
+            HttpResponse<InputStream> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() / 100 != 2) {
+                String error;
+                try (InputStream errorBody = response.body()) {
+                    error = new String(errorBody.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                throw new IOException("AI request failed with HTTP " + response.statusCode() + ": " + error);
+            }
+
+            try (Reader reader = new InputStreamReader(response.body(), StandardCharsets.UTF_8)) {
+                char[] buffer = new char[READ_BUFFER_SIZE];
+                // Stop reading once the push failed, complete() reports why
+                for (int read = reader.read(buffer); read >= 0 && !push.isStopped(); read = reader.read(buffer)) {
+                    extractor.append(buffer, 0, read);
+                }
+            }
+            extractor.finish();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            push.fail(e);
+            throw e;
+        }
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put(request.responseVariable(), extractor.getText());
+        System.out.println("📝 Streamed " + extractor.getLength() + " characters, "
+                + extractor.getFilesExtracted() + " files extracted");
+
+        if (push.isEnabled()) {
+            variables.putAll(push.complete(extractor.getFilesExtracted()));
+        }
+        return variables;
+    }
+
+    private void handleError(String errorMessage, Exception e) {
+        System.err.println("❌ " + errorMessage);
+        e.printStackTrace();
+        throw new RuntimeException(errorMessage, e);
+    }
+
+    /**
+     * The AI call of a task, stored as the payload of its outbox job
+     */
+    record StreamRequest(String url, String body, long timeoutMillis, String responseVariable) {}
+
+    /**
+     * Push of the streamed files; started with the first file so the repository is only created
+     * when the response has files
+     */
+    private static final class StreamingPush {
+
+        private final SpringBootProjectGitHubService projectGitHubService;
+        private final String repositoryName;
+        private final String repositoryDescription;
+        private final boolean isPrivateRepo;
+        private final String githubUsername;
+        private final String githubToken;
+        private final String pushTarget;
+        private final long startNanos = System.nanoTime();
+        private final StreamingFileSource files = new StreamingFileSource(STREAMED_FILES_BUFFER);
+        private FutureTask<SpringBootProjectGitHubService.GitHubRepositoryResult> task;
+        private long firstFileMillis = -1;
+
+        private StreamingPush(SpringBootProjectGitHubService projectGitHubService, String repositoryName,
+                              String repositoryDescription, boolean isPrivateRepo, String githubUsername,
+                              String githubToken, String pushTarget) {
+            this.projectGitHubService = projectGitHubService;
+            this.repositoryName = repositoryName;
+            this.repositoryDescription = repositoryDescription;
+            this.isPrivateRepo = isPrivateRepo;
+            this.githubUsername = githubUsername;
+            this.githubToken = githubToken;
+            this.pushTarget = pushTarget;
+        }
+
+        static StreamingPush from(DelegateExecution execution, SpringBootProjectGitHubService projectGitHubService) {
+            String repositoryName = (String) execution.getVariable("repositoryName");
+            if (repositoryName == null && execution.getVariable("projectName") != null) {
+                repositoryName = String.valueOf(execution.getVariable("projectName"));
+            }
+            String repositoryDescription = (String) execution.getVariable("repositoryDescription");
+            Object isPrivateRepo = execution.getVariable("isPrivateRepo");
+            return new StreamingPush(projectGitHubService,
+                    repositoryName != null ? repositoryName.replaceAll("\\s", "") : null,
+                    repositoryDescription != null ? repositoryDescription : "Generated from Flowable artifacts",
+                    isPrivateRepo == null || Boolean.parseBoolean(String.valueOf(isPrivateRepo)),
+                    (String) execution.getVariable("githubUsername"),
+                    (String) execution.getVariable("githubToken"),
+                    (String) execution.getVariable("pushTarget"));
+        }
+
+        boolean isEnabled() {
+            return !isBlank(repositoryName) && !isBlank(githubUsername) && !isBlank(githubToken);
+        }
+
+        void accept(ExtractedFile file) {
+            if (firstFileMillis < 0) {
+                firstFileMillis = (System.nanoTime() - startNanos) / 1_000_000;
+                System.out.println("⚡ First file after " + firstFileMillis + " ms: " + file.getFilePath());
+            }
+            if (!isEnabled()) {
+                return;
+            }
+            if (task == null) {
+                task = new FutureTask<>(() -> {
+                    try {
+                        return projectGitHubService.pushFilesToGitHubRepository(
+                                files, repositoryName, repositoryDescription, isPrivateRepo,
+                                githubUsername, githubToken, false, pushTarget);
+                    } finally {
+                        files.abandon();
+                    }
+                });
+                Thread.ofVirtual().name("artifact-push-" + repositoryName).start(task);
+            }
+            try {
+                // Blocks while the upload is behind; false once the push stopped, see isStopped()
+                files.add(new SpringBootProjectGitHubService.GitHubFile(file.getFilePath(), file.getContentView()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing " + file.getFilePath() + " for the push", e);
+            }
+        }
+
+        /**
+         * Whether the push ended before all files were produced, i.e. it failed
+         */
+        boolean isStopped() {
+            return task != null && task.isDone();
+        }
+
+        void fail(Exception cause) throws InterruptedException {
+            files.fail(cause);
+        }
+
+        /**
+         * Waits for the push of the last files and returns the variables describing it; fails if
+         * the push failed
+         */
+        Map<String, Object> complete(int filesExtracted) throws IOException, InterruptedException {
+            files.close();
+            if (task == null) {
+                return failureVariables("No files were extracted from the artifact");
+            }
+            try {
+                SpringBootProjectGitHubService.GitHubRepositoryResult result = task.get();
+                System.out.println("🎉 Pushed " + result.getFilesCount() + " streamed files to " + result.getRepositoryUrl()
+                        + " (" + (System.nanoTime() - startNanos) / 1_000_000 + " ms after the request)");
+
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("githubRepositoryUrl", result.getRepositoryUrl());
+                variables.put("githubRepositoryName", result.getRepositoryName());
+                variables.put("filesExtracted", filesExtracted);
+                variables.put("filesPushed", result.getFilesCount());
+                variables.put("firstFileMillis", firstFileMillis);
+                variables.put("extractionStatus", "SUCCESS");
+                variables.put("artifactPushComplete", true);
+                return variables;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw new IOException("Failed to push streamed files to GitHub: " + cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                task.cancel(true);
+                throw e;
+            }
+        }
+
+        private static Map<String, Object> failureVariables(String errorMessage) {
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("extractionStatus", "FAILED");
+            variables.put("errorMessage", errorMessage);
+            variables.put("artifactPushComplete", false);
+            variables.put("githubRepositoryUrl", null);
+            variables.put("githubRepositoryName", null);
+            variables.put("filesExtracted", 0);
+            variables.put("filesPushed", 0);
+            return variables;
+        }
+
+        private static boolean isBlank(String value) {
+            return value == null || value.trim().isEmpty();
+        }
+    }
+}
@@ -1,22 +1,37 @@
 package com.justjava.devFlow.delegate;
 
+import com.justjava.devFlow.extraction.ExtractionException;
+import com.justjava.devFlow.extraction.GitHubPushException;
+import com.justjava.devFlow.extraction.GitHubPushResult;
+import com.justjava.devFlow.push.PushJob;
+import com.justjava.devFlow.push.PushJobHandler;
+import com.justjava.devFlow.push.PushOutbox;
 import com.justjava.devFlow.util.ArtifactFileExtractor;
 import org.flowable.engine.delegate.DelegateExecution;
 import org.flowable.engine.delegate.JavaDelegate;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Delegate that extracts generated Thymeleaf and Controller artifacts
  * from process variable "artifact" and pushes them to a GitHub repository.
  * The repository name and GitHub credentials are retrieved from process variables.
+ * On a triggerable service task the push is queued in the push outbox instead, and the
+ * execution continues once the outbox worker has pushed the files.
  */
 @Component
-public class WriteGeneratedArtifactsDelegate implements JavaDelegate {
+public class WriteGeneratedArtifactsDelegate implements JavaDelegate, PushJobHandler {
+
+    private static final String JOB_KIND = "artifacts";
 
     private final ArtifactFileExtractor artifactFileExtractor;
+    private final PushOutbox pushOutbox;
 
-    public WriteGeneratedArtifactsDelegate(ArtifactFileExtractor artifactFileExtractor) {
+    public WriteGeneratedArtifactsDelegate(ArtifactFileExtractor artifactFileExtractor, PushOutbox pushOutbox) {
         this.artifactFileExtractor = artifactFileExtractor;
+        this.pushOutbox = pushOutbox;
     }
 
     @Override
@@ -39,6 +54,7 @@ public class WriteGeneratedArtifactsDelegate implements JavaDelegate {
             String githubToken = (String) execution.getVariable("githubToken");
             String repositoryDescription = (String) execution.getVariable("repositoryDescription");
             boolean isPrivateRepo = getBooleanVariable(execution, "isPrivateRepo", true);
+            String pushTarget = (String) execution.getVariable("pushTarget");
 
             // Validate required process variables
             validateProcessVariables(artifact, repositoryName, githubUsername, githubToken);
@@ -47,15 +63,25 @@ public class WriteGeneratedArtifactsDelegate implements JavaDelegate {
             System.out.println("👤 GitHub user: " + githubUsername);
             System.out.println("📝 Artifact length: " + (artifact != null ? artifact.length() : 0) + " characters");
 
+            // Triggerable task: queue the push, the outbox worker triggers the execution when it's done
+            if (pushOutbox.shouldQueue(execution)) {
+                pushOutbox.enqueue(execution, JOB_KIND, artifact, repositoryName,
+                        repositoryDescription != null ? repositoryDescription : "Generated from Flowable artifacts",
+                        isPrivateRepo, githubUsername, pushTarget);
+                execution.setVariable("extractionStatus", "QUEUED");
+                return;
+            }
+
             // Extract files from artifact and push to GitHub
-            ArtifactFileExtractor.GitHubPushResult result =
+            GitHubPushResult result =
                     artifactFileExtractor.extractAndPushToGitHub(
                             artifact,
                             repositoryName,
                             githubUsername,
                             githubToken,
                             repositoryDescription != null ? repositoryDescription : "Generated from Flowable artifacts",
-                            isPrivateRepo
+                            isPrivateRepo,
+                            pushTarget
                     );
 
             // Debug: Log successful extraction
@@ -64,24 +90,67 @@ public class WriteGeneratedArtifactsDelegate implements JavaDelegate {
             System.out.println("🌐 Repository URL: " + result.getRepositoryUrl());
 
             // Set process variables with results
-            execution.setVariable("githubRepositoryUrl", result.getRepositoryUrl());
-            execution.setVariable("githubRepositoryName", result.getRepositoryName());
-            execution.setVariable("filesExtracted", result.getFilesExtracted());
-            execution.setVariable("filesPushed", result.getFilesPushed());
-            execution.setVariable("extractionStatus", "SUCCESS");
-            execution.setVariable("artifactPushComplete", true);
+            execution.setVariables(resultVariables(result));
+            pushOutbox.completeInline(execution);
 
             System.out.println("🎉 Successfully processed artifacts and pushed to GitHub repository: " + result.getRepositoryUrl());
 
-        } catch (ArtifactFileExtractor.FileExtractionException e) {
+        } catch (ExtractionException e) {
             handleError(execution, "Failed to extract files from artifact: " + e.getMessage(), e);
-        } catch (ArtifactFileExtractor.GitHubPushException e) {
+        } catch (GitHubPushException e) {
             handleError(execution, "Failed to push files to GitHub: " + e.getMessage(), e);
         } catch (Exception e) {
             handleError(execution, "Unexpected error during artifact processing: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public String getJobKind() {
+        return JOB_KIND;
+    }
+
+    /**
+     * Runs a queued push from the outbox
+     */
+    @Override
+    public Map<String, Object> process(PushJob job, String githubToken) throws Exception {
+        GitHubPushResult result = artifactFileExtractor.extractAndPushToGitHub(
+                job.getPayload(),
+                job.getRepositoryName(),
+                job.getOwner(),
+                githubToken,
+                job.getRepositoryDescription(),
+                job.isPrivateRepository(),
+                job.getPushTarget()
+        );
+        System.out.println("✅ Pushed " + result.getFilesPushed() + " files to " + result.getRepositoryUrl());
+        return resultVariables(result);
+    }
+
+    private Map<String, Object> resultVariables(GitHubPushResult result) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("githubRepositoryUrl", result.getRepositoryUrl());
+        variables.put("githubRepositoryName", result.getRepositoryName());
+        variables.put("filesExtracted", result.getFilesExtracted());
+        variables.put("filesPushed", result.getFilesPushed());
+        variables.put("extractionStatus", "SUCCESS");
+        variables.put("artifactPushComplete", true);
+        return variables;
+    }
+
+    @Override
+    public Map<String, Object> failureVariables(String errorMessage) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("extractionStatus", "FAILED");
+        variables.put("errorMessage", errorMessage);
+        variables.put("artifactPushComplete", false);
+        variables.put("githubRepositoryUrl", null);
+        variables.put("githubRepositoryName", null);
+        variables.put("filesExtracted", 0);
+        variables.put("filesPushed", 0);
+        return variables;
+    }
+
     /**
      * Validates required process variables
      */
@@ -132,13 +201,7 @@ public class WriteGeneratedArtifactsDelegate implements JavaDelegate {
         }
 
         // Set error state in process variables
-        execution.setVariable("extractionStatus", "FAILED");
-        execution.setVariable("errorMessage", errorMessage);
-        execution.setVariable("artifactPushComplete", false);
-        execution.setVariable("githubRepositoryUrl", null);
-        execution.setVariable("githubRepositoryName", null);
-        execution.setVariable("filesExtracted", 0);
-        execution.setVariable("filesPushed", 0);
+        execution.setVariables(failureVariables(errorMessage));
 
         throw new RuntimeException(errorMessage, e);
     }
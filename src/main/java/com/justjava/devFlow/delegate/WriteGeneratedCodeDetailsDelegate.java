@@ -1,22 +1,37 @@
 package com.justjava.devFlow.delegate;
 
+import com.justjava.devFlow.extraction.ExtractionException;
+import com.justjava.devFlow.extraction.GitHubPushException;
+import com.justjava.devFlow.extraction.GitHubPushResult;
+import com.justjava.devFlow.push.PushJob;
+import com.justjava.devFlow.push.PushJobHandler;
+import com.justjava.devFlow.push.PushOutbox;
 import com.justjava.devFlow.util.CodeDetailsExtractor;
 import org.flowable.engine.delegate.DelegateExecution;
 import org.flowable.engine.delegate.JavaDelegate;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Delegate that extracts generated code components from process variable
  * "storyDevelopmentDetail" and pushes them to a GitHub repository.
  * The repository name and GitHub credentials are retrieved from process variables.
+ * On a triggerable service task the push is queued in the push outbox instead, and the
+ * execution continues once the outbox worker has pushed the files.
  */
 @Component
-public class WriteGeneratedCodeDetailsDelegate implements JavaDelegate {
+public class WriteGeneratedCodeDetailsDelegate implements JavaDelegate, PushJobHandler {
+
+    private static final String JOB_KIND = "code-details";
 
     private final CodeDetailsExtractor codeDetailsExtractor;
+    private final PushOutbox pushOutbox;
 
-    public WriteGeneratedCodeDetailsDelegate(CodeDetailsExtractor codeDetailsExtractor) {
+    public WriteGeneratedCodeDetailsDelegate(CodeDetailsExtractor codeDetailsExtractor, PushOutbox pushOutbox) {
         this.codeDetailsExtractor = codeDetailsExtractor;
+        this.pushOutbox = pushOutbox;
     }
 
     @Override
@@ -31,6 +46,7 @@ public class WriteGeneratedCodeDetailsDelegate implements JavaDelegate {
             String githubToken = (String) execution.getVariable("githubToken");
             String repositoryDescription = (String) execution.getVariable("repositoryDescription");
             boolean isPrivateRepo = getBooleanVariable(execution, "isPrivateRepo", true);
+            String pushTarget = (String) execution.getVariable("pushTarget");
 
             // Validate required process variables
             validateProcessVariables(storyDevelopmentDetail, repositoryName, githubUsername, githubToken);
@@ -40,15 +56,25 @@ public class WriteGeneratedCodeDetailsDelegate implements JavaDelegate {
             System.out.println("Story development details length: " +
                     (storyDevelopmentDetail != null ? storyDevelopmentDetail.length() : 0) + " characters");
 
+            // Triggerable task: queue the push, the outbox worker triggers the execution when it's done
+            if (pushOutbox.shouldQueue(execution)) {
+                pushOutbox.enqueue(execution, JOB_KIND, storyDevelopmentDetail, repositoryName,
+                        repositoryDescription != null ? repositoryDescription : "Code components from story development",
+                        isPrivateRepo, githubUsername, pushTarget);
+                execution.setVariable("extractionStatus", "QUEUED");
+                return;
+            }
+
             // Extract code files from story development details and push to GitHub
-            CodeDetailsExtractor.GitHubPushResult result =
+            GitHubPushResult result =
                     codeDetailsExtractor.extractAndPushToGitHub(
                             storyDevelopmentDetail,
                             repositoryName,
                             githubUsername,
                             githubToken,
                             repositoryDescription != null ? repositoryDescription : "Code components from story development",
-                            isPrivateRepo
+                            isPrivateRepo,
+                            pushTarget
                     );
 
             // Log successful extraction with detailed breakdown
@@ -57,33 +83,84 @@ public class WriteGeneratedCodeDetailsDelegate implements JavaDelegate {
             System.out.println(" Repository URL: " + result.getRepositoryUrl());
             System.out.println(" File type breakdown: " + result.getFileTypeBreakdown());
 
-            // Set process variables with comprehensive results
-            execution.setVariable("githubRepositoryUrl", result.getRepositoryUrl());
-            execution.setVariable("githubRepositoryName", result.getRepositoryName());
-            execution.setVariable("filesExtracted", result.getFilesExtracted());
-            execution.setVariable("filesPushed", result.getFilesPushed());
-            execution.setVariable("extractionStatus", "SUCCESS");
-            execution.setVariable("codeDetailsPushComplete", true);
-
-            // Set detailed file type breakdown
-            execution.setVariable("javaMainFiles", result.getFileTypeBreakdown().javaMainFiles);
-            execution.setVariable("javaTestFiles", result.getFileTypeBreakdown().javaTestFiles);
-            execution.setVariable("htmlFiles", result.getFileTypeBreakdown().htmlFiles);
-            execution.setVariable("sqlFiles", result.getFileTypeBreakdown().sqlFiles);
-            execution.setVariable("yamlFiles", result.getFileTypeBreakdown().yamlFiles);
-            execution.setVariable("otherFiles", result.getFileTypeBreakdown().otherFiles);
+            // Set process variables with comprehensive results and the file type breakdown
+            execution.setVariables(resultVariables(result));
+            pushOutbox.completeInline(execution);
 
             System.out.println("🎉 Successfully processed code details and pushed to GitHub repository: " + result.getRepositoryUrl());
 
-        } catch (CodeDetailsExtractor.CodeExtractionException e) {
+        } catch (ExtractionException e) {
             handleError(execution, "Failed to extract code files from story development details: " + e.getMessage(), e);
-        } catch (CodeDetailsExtractor.GitHubPushException e) {
+        } catch (GitHubPushException e) {
             handleError(execution, "Failed to push code files to GitHub: " + e.getMessage(), e);
         } catch (Exception e) {
             handleError(execution, "Unexpected error during code details processing: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public String getJobKind() {
+        return JOB_KIND;
+    }
+
+    /**
+     * Runs a queued push from the outbox
+     */
+    @Override
+    public Map<String, Object> process(PushJob job, String githubToken) throws Exception {
+        GitHubPushResult result = codeDetailsExtractor.extractAndPushToGitHub(
+                job.getPayload(),
+                job.getRepositoryName(),
+                job.getOwner(),
+                githubToken,
+                job.getRepositoryDescription(),
+                job.isPrivateRepository(),
+                job.getPushTarget()
+        );
+        System.out.println(" Successfully pushed " + result.getFilesPushed() + " files to " + result.getRepositoryUrl());
+        return resultVariables(result);
+    }
+
+    private Map<String, Object> resultVariables(GitHubPushResult result) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("githubRepositoryUrl", result.getRepositoryUrl());
+        variables.put("githubRepositoryName", result.getRepositoryName());
+        variables.put("filesExtracted", result.getFilesExtracted());
+        variables.put("filesPushed", result.getFilesPushed());
+        variables.put("extractionStatus", "SUCCESS");
+        variables.put("codeDetailsPushComplete", true);
+
+        // Detailed file type breakdown
+        variables.put("javaMainFiles", result.getFileTypeBreakdown().javaMainFiles);
+        variables.put("javaTestFiles", result.getFileTypeBreakdown().javaTestFiles);
+        variables.put("htmlFiles", result.getFileTypeBreakdown().htmlFiles);
+        variables.put("sqlFiles", result.getFileTypeBreakdown().sqlFiles);
+        variables.put("yamlFiles", result.getFileTypeBreakdown().yamlFiles);
+        variables.put("otherFiles", result.getFileTypeBreakdown().otherFiles);
+        return variables;
+    }
+
+    @Override
+    public Map<String, Object> failureVariables(String errorMessage) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("extractionStatus", "FAILED");
+        variables.put("errorMessage", errorMessage);
+        variables.put("codeDetailsPushComplete", false);
+        variables.put("githubRepositoryUrl", null);
+        variables.put("githubRepositoryName", null);
+        variables.put("filesExtracted", 0);
+        variables.put("filesPushed", 0);
+
+        // Reset file type breakdown variables
+        variables.put("javaMainFiles", 0);
+        variables.put("javaTestFiles", 0);
+        variables.put("htmlFiles", 0);
+        variables.put("sqlFiles", 0);
+        variables.put("yamlFiles", 0);
+        variables.put("otherFiles", 0);
+        return variables;
+    }
+
     /**
      * Validates required process variables
      */
@@ -134,21 +211,7 @@ public class WriteGeneratedCodeDetailsDelegate implements JavaDelegate {
         }
 
         // Set error state in process variables
-        execution.setVariable("extractionStatus", "FAILED");
-        execution.setVariable("errorMessage", errorMessage);
-        execution.setVariable("codeDetailsPushComplete", false);
-        execution.setVariable("githubRepositoryUrl", null);
-        execution.setVariable("githubRepositoryName", null);
-        execution.setVariable("filesExtracted", 0);
-        execution.setVariable("filesPushed", 0);
-
-        // Reset file type breakdown variables
-        execution.setVariable("javaMainFiles", 0);
-        execution.setVariable("javaTestFiles", 0);
-        execution.setVariable("htmlFiles", 0);
-        execution.setVariable("sqlFiles", 0);
-        execution.setVariable("yamlFiles", 0);
-        execution.setVariable("otherFiles", 0);
+        execution.setVariables(failureVariables(errorMessage));
 
         throw new RuntimeException(errorMessage, e);
     }
@@ -0,0 +1,39 @@
+package com.justjava.devFlow.extraction;
+
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file found in a generated document. The content may be a view into the document; it is only
+ * copied when {@link #getContent()} is called.
+ */
+public class ExtractedFile {
+    private final String filePath;
+    private final CharSequence content;
+    private final FileType fileType;
+
+    public ExtractedFile(String filePath, CharSequence content, FileType fileType) {
+        this.filePath = filePath;
+        this.content = content;
+        this.fileType = fileType;
+    }
+
+    public String getFilePath() { return filePath; }
+    /** Copies the content out of the document; use {@link #getContentView()} to avoid the copy */
+    public String getContent() { return content.toString(); }
+    public CharSequence getContentView() { return content; }
+    public FileType getFileType() { return fileType; }
+
+    /**
+     * Files to push; the contents stay views and are encoded while they are written
+     */
+    public static List<GitHubFile> toGitHubFiles(List<ExtractedFile> files) {
+        List<GitHubFile> githubFiles = new ArrayList<>(files.size());
+        for (ExtractedFile file : files) {
+            githubFiles.add(new GitHubFile(file.getFilePath(), file.getContentView()));
+        }
+        return githubFiles;
+    }
+}
@@ -0,0 +1,149 @@
+package com.justjava.devFlow.extraction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Memoized extraction results of the {@link ExtractionEngine}.
+ *
+ * The same artifact or code details document is extracted again on completion, on review and on
+ * re-pushes; results are kept under the SHA-256 of the document content, so an unchanged document
+ * is only parsed once whichever process variable it comes from. Entries are weighed by the bytes
+ * they keep reachable and evicted least recently used once they exceed the size cap. Cached
+ * results are shared between callers and must not be modified.
+ */
+@Component
+public class ExtractionCache {
+
+    private static final int HASH_BUFFER_SIZE = 8 * 1024;
+
+    private final boolean enabled;
+    private final long maxSizeBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ExtractionCache(
+            @Value("${app.extraction.cache.enabled:true}") boolean enabled,
+            @Value("${app.extraction.cache.max-size-mb:64}") long maxSizeMb) {
+        this.enabled = enabled;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * A cache that never holds anything (e.g. to measure the extraction itself)
+     */
+    public static ExtractionCache disabled() {
+        return new ExtractionCache(false, 0);
+    }
+
+    /**
+     * The result of {@code extractor} for the document, extracted only if no result for the same
+     * kind and content is cached
+     *
+     * @param kind    separates the results of different extractions (formats) of the same document
+     * @param weigher bytes the result keeps reachable, including any part of the document
+     */
+    public <T> T get(String kind, String document, Function<String, T> extractor, ToLongFunction<T> weigher) {
+        if (!enabled || document == null) {
+            return extractor.apply(document);
+        }
+
+        String key = kind + ":" + contentHash(document);
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            @SuppressWarnings("unchecked")
+            T result = (T) cached.result();
+            System.out.println("♻️ Reusing " + kind + " extraction of unchanged document (" + document.length() + " characters)");
+            return result;
+        }
+
+        misses.incrementAndGet();
+        T result = extractor.apply(document);
+        put(key, new Entry(result, weigher.applyAsLong(result)));
+        return result;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getSizeBytes() {
+        synchronized (entries) {
+            return sizeBytes;
+        }
+    }
+
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        if (entry.weight() > maxSizeBytes) {
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            sizeBytes += entry.weight() - (previous != null ? previous.weight() : 0);
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (sizeBytes > maxSizeBytes && eldest.hasNext()) {
+                sizeBytes -= eldest.next().getValue().weight();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * SHA-256 of the UTF-16 chars, digested in chunks so the document is not copied into a byte array
+     */
+    static String contentHash(CharSequence document) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        int filled = 0;
+        int length = document.length();
+        for (int i = 0; i < length; i++) {
+            char c = document.charAt(i);
+            buffer[filled++] = (byte) (c >> 8);
+            buffer[filled++] = (byte) c;
+            if (filled == buffer.length) {
+                digest.update(buffer, 0, filled);
+                filled = 0;
+            }
+        }
+        digest.update(buffer, 0, filled);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Bytes kept reachable by a text of this length (two per char) */
+    static long textWeight(long length) {
+        return 2 * length;
+    }
+
+    private record Entry(Object result, long weight) {}
+}
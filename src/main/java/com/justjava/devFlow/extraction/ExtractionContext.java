@@ -0,0 +1,54 @@
+package com.justjava.devFlow.extraction;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a format needs while it extracts one document: the shared path classifier, and the time
+ * budget of the extraction, which also stops it once it has been cancelled
+ */
+public final class ExtractionContext {
+
+    private final PathClassifier classifier;
+    private final long deadline;
+    private final long budgetNanos;
+    private final int documentLength;
+    /** Why the extraction was cancelled, null while it runs */
+    private volatile Throwable cancelCause;
+
+    ExtractionContext(PathClassifier classifier, long budgetNanos, int documentLength) {
+        this.classifier = classifier;
+        this.deadline = System.nanoTime() + budgetNanos;
+        this.budgetNanos = budgetNanos;
+        this.documentLength = documentLength;
+    }
+
+    public FileType classify(String path) {
+        return classifier.classify(path);
+    }
+
+    /**
+     * Fails the extraction once its time budget is used up or it has been cancelled
+     */
+    public void checkTimeBudget() {
+        Throwable cause = cancelCause;
+        if (cause != null) {
+            throw new ExtractionException("File extraction was cancelled on a document of "
+                    + documentLength + " characters: " + cause.getMessage(), cause);
+        }
+        if (System.nanoTime() - deadline > 0) {
+            throw new ExtractionException("File extraction exceeded its time budget of "
+                    + TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " ms on a document of "
+                    + documentLength + " characters");
+        }
+    }
+
+    /**
+     * Stops the formats still extracting with this context at their next budget check; the first
+     * cause is kept
+     */
+    synchronized void cancel(Throwable cause) {
+        if (cancelCause == null) {
+            cancelCause = cause;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.justjava.devFlow.extraction;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts the files of a generated document with the {@link ExtractionFormat} plugins.
+ *
+ * Only the requested formats that apply to the document are run; when a document mixes several,
+ * they scan it in parallel on a fork-join pool and their files are merged in the requested
+ * order (a path found by an earlier format is not taken again from a later one). Results are
+ * memoized in the {@link ExtractionCache} and the whole extraction is bounded by the configured
+ * time budget; when one format fails, the others are cancelled and the extraction fails with it.
+ */
+@Component
+public class ExtractionEngine {
+
+    private final Map<String, ExtractionFormat> formats = new LinkedHashMap<>();
+    private final ExtractionCache extractionCache;
+    private final PathClassifier classifier = PathClassifier.standard();
+    private final long timeBudgetNanos;
+    private final ForkJoinPool pool;
+
+    public ExtractionEngine(List<ExtractionFormat> formats, ExtractionCache extractionCache,
+                            @Value("${app.extraction.time-budget-ms:5000}") long timeBudgetMillis,
+                            @Value("${app.extraction.parallelism:0}") int parallelism) {
+        for (ExtractionFormat format : formats) {
+            this.formats.put(format.getName(), format);
+        }
+        this.extractionCache = extractionCache;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * An engine with the built-in formats, e.g. for tests and benchmarks
+     */
+    public static ExtractionEngine withStandardFormats(ExtractionCache extractionCache, long timeBudgetMillis) {
+        return new ExtractionEngine(
+                List.of(new FileMarkerFormat(), new FencedMarkdownFormat(), new HtmlCodeBlockFormat()),
+                extractionCache, timeBudgetMillis, 0);
+    }
+
+    /**
+     * The files of the document in the given formats, with their type breakdown. The result may
+     * come from the cache and must not be modified.
+     */
+    public Extraction extract(String document, String... formatNames) {
+        return extractionCache.get(String.join("+", formatNames), document,
+                text -> parse(text, formatNames), extraction -> extraction.weight(document));
+    }
+
+    private Extraction parse(String document, String... formatNames) {
+        List<ExtractionFormat> applicable = new ArrayList<>();
+        for (String name : formatNames) {
+            ExtractionFormat format = formats.get(name);
+            if (format == null) {
+                throw new IllegalArgumentException("Unknown extraction format '" + name + "', available: " + formats.keySet());
+            }
+            if (format.appliesTo(document)) {
+                applicable.add(format);
+            }
+        }
+
+        ExtractionContext context = new ExtractionContext(classifier, timeBudgetNanos, document.length());
+        List<ExtractedFile> files;
+        if (applicable.size() <= 1) {
+            files = applicable.isEmpty() ? new ArrayList<>() : applicable.get(0).extract(document, context);
+        } else {
+            // The first format runs on the calling thread while the pool runs the others
+            List<ForkJoinTask<List<ExtractedFile>>> others = new ArrayList<>();
+            for (ExtractionFormat format : applicable.subList(1, applicable.size())) {
+                others.add(pool.submit(() -> {
+                    try {
+                        return format.extract(document, context);
+                    } catch (RuntimeException | Error e) {
+                        // Stops the format on the calling thread too, before it gets to the join
+                        context.cancel(e);
+                        throw e;
+                    }
+                }));
+            }
+            try {
+                files = new ArrayList<>(applicable.get(0).extract(document, context));
+                Set<String> paths = new HashSet<>();
+                for (ExtractedFile file : files) {
+                    paths.add(file.getFilePath());
+                }
+                for (ForkJoinTask<List<ExtractedFile>> task : others) {
+                    for (ExtractedFile file : task.join()) {
+                        if (paths.add(file.getFilePath())) {
+                            files.add(file);
+                        }
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                // One format failed (or ran out of time): the result is lost, so stop the others,
+                // the queued ones before they start and the running ones at their next budget check
+                context.cancel(e);
+                for (ForkJoinTask<List<ExtractedFile>> task : others) {
+                    task.cancel(false);
+                }
+                throw e;
+            }
+        }
+        return new Extraction(Collections.unmodifiableList(files), FileTypeBreakdown.of(files));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Files of a document with their type breakdown
+     */
+    public record Extraction(List<ExtractedFile> files, FileTypeBreakdown fileTypeBreakdown) {
+
+        /**
+         * Bytes the result keeps reachable: its copied contents, and the whole document when any
+         * content is a view into it
+         */
+        long weight(String document) {
+            long chars = 0;
+            boolean viewsDocument = false;
+            for (ExtractedFile file : files) {
+                chars += file.getFilePath().length();
+                if (file.getContentView() instanceof String content) {
+                    chars += content.length();
+                } else {
+                    viewsDocument = true;
+                }
+            }
+            return ExtractionCache.textWeight(chars + (viewsDocument ? document.length() : 0));
+        }
+    }
+}
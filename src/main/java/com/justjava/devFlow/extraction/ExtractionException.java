@@ -0,0 +1,10 @@
+package com.justjava.devFlow.extraction;
+
+/**
+ * No files could be extracted from a document, or the extraction was stopped (time budget used
+ * up, or cancelled). Unchecked, as it is thrown from inside format scans and cached extractions.
+ */
+public class ExtractionException extends RuntimeException {
+    public ExtractionException(String message) { super(message); }
+    public ExtractionException(String message, Throwable cause) { super(message, cause); }
+}
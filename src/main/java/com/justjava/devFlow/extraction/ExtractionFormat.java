@@ -0,0 +1,28 @@
+package com.justjava.devFlow.extraction;
+
+import java.util.List;
+
+/**
+ * A way generated documents mark their files, e.g. file path markers or HTML code blocks.
+ * Implementations are Spring beans and are run by {@link ExtractionEngine}; a new format is
+ * added by adding a bean, without touching the other formats.
+ */
+public interface ExtractionFormat {
+
+    /**
+     * Name used to select this format
+     */
+    String getName();
+
+    /**
+     * Cheap check whether the document can contain files in this format; formats that don't
+     * apply are not run over the document
+     */
+    boolean appliesTo(String document);
+
+    /**
+     * The files of the document in this format, in document order. Long scans call
+     * {@link ExtractionContext#checkTimeBudget()} regularly.
+     */
+    List<ExtractedFile> extract(String document, ExtractionContext context);
+}
@@ -0,0 +1,69 @@
+package com.justjava.devFlow.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Markdown code fences that name their file in the info string:
+ * - ```java src/main/java/.../Foo.java
+ * - ```java:src/main/java/.../Foo.java
+ * - ```java title="src/main/java/.../Foo.java"
+ *
+ * Fences are paired in one forward scan; fences without a path in their info string are skipped
+ * over (their content is left to the other formats). These fences are also one of the
+ * {@link FileMarkerFormat} markers, which is the grammar artifacts are extracted with; this
+ * format takes the fences alone.
+ */
+@Component
+public class FencedMarkdownFormat implements ExtractionFormat {
+
+    public static final String NAME = "fenced-markdown";
+
+    private static final String FENCE = "```";
+    /** Fences paired between time budget checks */
+    private static final int CHECK_INTERVAL = 1024;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean appliesTo(String document) {
+        return document.contains(FENCE);
+    }
+
+    @Override
+    public List<ExtractedFile> extract(String document, ExtractionContext context) {
+        List<ExtractedFile> files = new ArrayList<>();
+        TokenFinder fences = new TokenFinder(document, FENCE);
+        TokenFinder newlines = new TokenFinder(document, "\n");
+        int pairs = 0;
+        for (int open = fences.next(0); open >= 0; ) {
+            if (++pairs % CHECK_INTERVAL == 0) {
+                context.checkTimeBudget();
+            }
+            int lineEnd = newlines.next(open + FENCE.length());
+            if (lineEnd < 0) {
+                break;
+            }
+            int close = fences.next(lineEnd + 1);
+            if (close < 0) {
+                break;
+            }
+            String path = FileMarkerScanner.infoStringPath(document, open + FENCE.length(), lineEnd);
+            if (path != null) {
+                CharSequence content = FileMarkerFormat.trimmed(document, lineEnd + 1, close);
+                if (!FileMarkerFormat.isBlank(content)) {
+                    FileType type = context.classify(path);
+                    files.add(new ExtractedFile(path, content, type));
+                    System.out.println("✅ Extracted fenced file: " + path + " (" + type + ")");
+                }
+            }
+            open = fences.next(close + FENCE.length());
+        }
+        return files;
+    }
+}
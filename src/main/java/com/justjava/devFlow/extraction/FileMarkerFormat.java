@@ -0,0 +1,186 @@
+package com.justjava.devFlow.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Files introduced by a path marker, as in the unified artifact format:
+ * - **File Path:** `path`
+ * - &lt;!-- src/... --&gt;
+ * - # src/...
+ * - // src/...
+ * - Inline `src/main/...`
+ * - ```java src/... (a code fence naming its file)
+ *
+ * A file runs to the next marker; its content is the first code fence in that section, or else
+ * everything after the marker line. A fence that names its file ends the section before it, so a
+ * named fence under another marker is that file alone, not also part of the file before. The markers are found by a single forward scan in linear
+ * time (no regex backtracking).
+ */
+@Component
+public class FileMarkerFormat implements ExtractionFormat {
+
+    public static final String NAME = "file-markers";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean appliesTo(String document) {
+        // Every marker form but the label names a path with a directory
+        return document.indexOf('/') >= 0 || document.contains(FileMarkerScanner.FILE_PATH_LABEL);
+    }
+
+    @Override
+    public List<ExtractedFile> extract(String artifact, ExtractionContext context) {
+        List<ExtractedFile> extractedFiles = new ArrayList<>();
+        System.out.println("🔍 Scanning artifact for file markers...");
+
+        List<FileMarkerScanner.FileMarker> markers = FileMarkerScanner.findAll(artifact, context::checkTimeBudget);
+
+        TokenFinder fences = new TokenFinder(artifact, "```");
+        TokenFinder fenceCloses = new TokenFinder(artifact, "```");
+        TokenFinder newlines = new TokenFinder(artifact, "\n");
+        for (int i = 0; i < markers.size(); i++) {
+            context.checkTimeBudget();
+            FileMarkerScanner.FileMarker current = markers.get(i);
+            int end = (i + 1 < markers.size()) ? markers.get(i + 1).index() : artifact.length();
+
+            CharSequence content = extractFileContent(artifact, current, end, fences, fenceCloses, newlines);
+            FileType type = context.classify(current.path());
+
+            if (content != null && !isBlank(content)) {
+                extractedFiles.add(new ExtractedFile(current.path(), content, type));
+                System.out.println("✅ Extracted: " + current.path() + " (" + type + ")");
+            }
+        }
+
+        System.out.println("📦 Total files extracted: " + extractedFiles.size());
+        return extractedFiles;
+    }
+
+    /**
+     * Extract file content (between code fences or directly under marker)
+     */
+    static CharSequence extractFileContent(CharSequence artifact, FileMarkerScanner.FileMarker marker, int end,
+                                           TokenFinder fences, TokenFinder fenceCloses, TokenFinder newlines) {
+        if (marker.isFence()) {
+            // The fence's content, or everything after the info string when it isn't closed
+            CharSequence content = namedFenceContent(artifact, marker.contentStart(), end, fenceCloses);
+            return content != null ? content : trimmed(artifact, Math.min(marker.contentStart(), end), end);
+        }
+
+        int start = marker.index();
+        // Code fence block (```java, ```html, etc.)
+        for (int open = fences.next(start); open >= 0 && open + 3 <= end; open = fences.next(open + 1)) {
+            CharSequence content = fencedContent(artifact, open, end, fenceCloses, false);
+            if (content != null) {
+                return content;
+            }
+        }
+
+        // Otherwise extract everything after first newline
+        int newline = newlines.next(start);
+        if (newline >= 0 && newline < end) {
+            return trimmed(artifact, newline + 1, end);
+        }
+
+        return null;
+    }
+
+    /**
+     * Content of the marker's code fence when it is closed before {@code end}, otherwise null
+     */
+    static CharSequence closedFenceContent(CharSequence artifact, FileMarkerScanner.FileMarker marker, int end,
+                                           TokenFinder fences, TokenFinder fenceCloses) {
+        if (marker.isFence()) {
+            return namedFenceContent(artifact, marker.contentStart(), end, fenceCloses);
+        }
+        int open = fences.next(marker.index());
+        return open >= 0 && open + 3 <= end ? fencedContent(artifact, open, end, fenceCloses, true) : null;
+    }
+
+    /**
+     * Content of a fence naming its file, from {@code contentStart} to its close when that is
+     * before {@code end}, otherwise null
+     */
+    private static CharSequence namedFenceContent(CharSequence artifact, int contentStart, int end,
+                                                  TokenFinder fenceCloses) {
+        int close = fenceCloses.next(contentStart);
+        return close >= 0 && close + 3 <= end ? trimmed(artifact, contentStart, close) : null;
+    }
+
+    /**
+     * Content of the code fence opening at {@code open} when it is closed before {@code end}.
+     * Unless {@code closedOnly}, an empty block right after the language yields its last letter
+     * or space instead.
+     */
+    static CharSequence fencedContent(CharSequence artifact, int open, int end, TokenFinder fenceCloses,
+                                      boolean closedOnly) {
+        int language = open + 3;
+        while (language < end && FileMarkerScanner.isAsciiLetter(artifact.charAt(language))) {
+            language++;
+        }
+        int body = Math.min(skipSpace(artifact, language), end);
+        int close = fenceCloses.next(body + 1);
+        if (close >= 0 && close + 3 <= end) {
+            return trimmed(artifact, body, close);
+        }
+        if (!closedOnly && body > open + 3 && body + 3 <= end && startsWith(artifact, "```", body)) {
+            // An empty block right after the language: the last letter or space is the content
+            return trimmed(artifact, body - 1, body);
+        }
+        return null;
+    }
+
+    /**
+     * artifact[start, end) without leading and trailing characters up to ' ' (as String.trim).
+     * A String artifact is not copied: the content is a view into it. A StringBuilder that is
+     * still being appended to is copied, since it may reallocate under a reader on another thread.
+     */
+    static CharSequence trimmed(CharSequence artifact, int start, int end) {
+        while (start < end && artifact.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && artifact.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return artifact instanceof String
+                ? CharBuffer.wrap(artifact, start, end)
+                : artifact.subSequence(start, end).toString();
+    }
+
+    static boolean isBlank(CharSequence content) {
+        for (int i = 0; i < content.length(); i++) {
+            if (!Character.isWhitespace(content.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpace(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && FileMarkerScanner.isSpace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(CharSequence text, String token, int from) {
+        if (from + token.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (text.charAt(from + i) != token.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
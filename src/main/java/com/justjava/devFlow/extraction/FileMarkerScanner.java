@@ -0,0 +1,317 @@
+package com.justjava.devFlow.extraction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forward scan for the file markers of the unified artifact format:
+ * - **File Path:** `path`
+ * - &lt;!-- src/... --&gt;
+ * - # src/... and // src/...
+ * - a code fence naming its file in the info string: ```java src/..., ```java:src/...
+ *
+ * At each position at most one marker form can start ('*', '<', '#', '/', '`' or a path at the
+ * start of a line); after a marker the scan resumes at its end, for a fence at the end of its
+ * info string line. Plain paths at line starts are skipped
+ * over but are not markers. Every lookup only moves forward, so a scan is linear in the text.
+ *
+ * The text may still be growing (a StringBuilder fed from a streamed response): with
+ * {@code complete == false} the scan stops before any position whose outcome depends on text
+ * that hasn't arrived yet, and resumes there once more text has been appended.
+ */
+final class FileMarkerScanner {
+
+    static final String FILE_PATH_LABEL = "**File Path:**";
+    /** Characters scanned between calls of the interval check */
+    private static final int CHECK_INTERVAL = 64 * 1024;
+
+    /**
+     * @param contentStart for a fence marker where its content starts (after the info string
+     *                     line), otherwise -1
+     */
+    record FileMarker(String path, int index, int contentStart) {
+
+        boolean isFence() {
+            return contentStart >= 0;
+        }
+    }
+
+    private final CharSequence text;
+    private final TokenFinder backticks;
+    private final TokenFinder newlines;
+    private final Runnable intervalCheck;
+    private int position;
+    private int nextCheck = CHECK_INTERVAL;
+    /** Set when the current decision looked at the end of the text */
+    private boolean reachedEnd;
+
+    /**
+     * @param intervalCheck run every 64K scanned characters (e.g. to enforce a time budget)
+     */
+    FileMarkerScanner(CharSequence text, Runnable intervalCheck) {
+        this.text = text;
+        this.backticks = new TokenFinder(text, "`");
+        this.newlines = new TokenFinder(text, "\n");
+        this.intervalCheck = intervalCheck;
+    }
+
+    /**
+     * All markers of a complete text
+     */
+    static List<FileMarker> findAll(String text, Runnable intervalCheck) {
+        FileMarkerScanner scanner = new FileMarkerScanner(text, intervalCheck);
+        List<FileMarker> markers = new ArrayList<>();
+        for (FileMarker marker = scanner.next(true); marker != null; marker = scanner.next(true)) {
+            markers.add(marker);
+        }
+        return markers;
+    }
+
+    /**
+     * The next marker, or null at the end of the text. Unless the text is complete, null also
+     * means the scan is waiting for more text at {@link #position()}.
+     */
+    FileMarker next(boolean complete) {
+        int length = text.length();
+        while (position < length) {
+            if (position >= nextCheck) {
+                intervalCheck.run();
+                nextCheck = position + CHECK_INTERVAL;
+            }
+
+            reachedEnd = false;
+            char c = text.charAt(position);
+            int markerEnd = -1;
+            int contentStart = -1;
+            String path = null;
+            if (c == '*' && startsWith(FILE_PATH_LABEL, position)) {
+                // **File Path:** `dir/File.ext`
+                int open = skipSpace(position + FILE_PATH_LABEL.length());
+                int close = -1;
+                if (open < length && text.charAt(open) == '`') {
+                    close = backticks.next(open + 1);
+                    reachedEnd |= close < 0;
+                }
+                if (close > open + 1 && hasExtension(open + 1, close)) {
+                    path = text.subSequence(open + 1, close).toString();
+                    markerEnd = close + 1;
+                }
+            } else if (c == '<' && startsWith("<!--", position)) {
+                // <!-- src/... -->
+                int pathStart = skipSpace(position + 4);
+                int pathEnd = matchPath(pathStart, true);
+                if (pathEnd >= 0) {
+                    path = text.subSequence(pathStart, pathEnd).toString();
+                    markerEnd = skipSpace(pathEnd) + 3;
+                }
+            } else if (c == '#' || c == '/' && startsWith("//", position)) {
+                // # src/... and // src/...
+                int pathStart = skipSpace(position + (c == '#' ? 1 : 2));
+                int pathEnd = matchPath(pathStart, false);
+                if (pathEnd >= 0) {
+                    path = text.subSequence(pathStart, pathEnd).toString();
+                    markerEnd = pathEnd;
+                }
+            } else if (c == '`' && startsWith("```", position)) {
+                // ```java src/... : the file is the fence's content
+                int lineEnd = newlines.next(position + 3);
+                reachedEnd |= lineEnd < 0;
+                path = lineEnd < 0 ? null : infoStringPath(text, position + 3, lineEnd);
+                if (path != null) {
+                    markerEnd = lineEnd;
+                    contentStart = lineEnd + 1;
+                }
+            } else if (isPathChar(c) && isLineStart(position)) {
+                // Plain src/... at the start of a line: consumed, but not a marker
+                markerEnd = matchPath(position, false);
+            }
+
+            if (reachedEnd && !complete) {
+                return null;
+            }
+            if (markerEnd < 0) {
+                position++;
+                continue;
+            }
+            int index = position;
+            position = markerEnd;
+            if (path != null) {
+                return new FileMarker(path.trim(), index, contentStart);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Where the scan continues; no marker starts between the last returned marker and here
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * The first word of a fence's info string text[start, end) (split at whitespace, ':', '=' and
+     * quotes) that is a relative path with a directory and a lowercase extension, or null
+     */
+    static String infoStringPath(CharSequence text, int start, int end) {
+        int wordStart = -1;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : ' ';
+            if (c == '`') {
+                // Inline code, not an info string
+                return null;
+            }
+            boolean separator = Character.isWhitespace(c) || c == ':' || c == '=' || c == '"' || c == '\'';
+            if (!separator && wordStart < 0) {
+                wordStart = i;
+            } else if (separator && wordStart >= 0) {
+                if (isInfoStringPath(text, wordStart, i)) {
+                    return text.subSequence(wordStart, i).toString();
+                }
+                wordStart = -1;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isInfoStringPath(CharSequence text, int start, int end) {
+        int lastSlash = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '/') {
+                if (i == start || i == lastSlash + 1) {
+                    return false;
+                }
+                lastSlash = i;
+            } else if (!isPathChar(c)) {
+                return false;
+            }
+        }
+        if (lastSlash < 0) {
+            return false;
+        }
+        int extension = end;
+        while (extension > lastSlash + 1 && isLowercase(text.charAt(extension - 1))) {
+            extension--;
+        }
+        return extension < end && extension - 1 > lastSlash + 1 && text.charAt(extension - 1) == '.';
+    }
+
+    /**
+     * Matches a path of the form {@code dir/.../name.ext} at {@code start} (at least one directory,
+     * directory and file names of word characters, '.' and '-', a lowercase extension) and returns
+     * its end, or -1. As a regex would: the most directories first, then the longest file name;
+     * with {@code commentEnd} the path must be followed by optional whitespace and "-->".
+     */
+    private int matchPath(int start, boolean commentEnd) {
+        int length = text.length();
+        List<Integer> slashes = new ArrayList<>();
+        for (int i = start; ; ) {
+            int nameEnd = skipPathChars(i);
+            if (nameEnd >= length) {
+                reachedEnd = true;
+            }
+            if (nameEnd == i || nameEnd >= length || text.charAt(nameEnd) != '/') {
+                break;
+            }
+            slashes.add(nameEnd);
+            i = nameEnd + 1;
+        }
+
+        for (int k = slashes.size(); k >= 1; k--) {
+            int nameStart = slashes.get(k - 1) + 1;
+            int nameEnd = k == slashes.size() ? skipPathChars(nameStart) : slashes.get(k);
+            // The extension starts at the last usable '.' (the file name before it is not empty)
+            for (int dot = nameEnd - 2; dot > nameStart; dot--) {
+                if (text.charAt(dot) == '.' && isLowercase(text.charAt(dot + 1))) {
+                    int end = dot + 1;
+                    while (end < length && isLowercase(text.charAt(end))) {
+                        end++;
+                    }
+                    if (!commentEnd || startsWith("-->", skipSpace(end))) {
+                        return end;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether text[start, end) is a file name with an extension: a non-empty part, '.', and
+     * word characters up to the end
+     */
+    private boolean hasExtension(int start, int end) {
+        int extension = end;
+        while (extension > start && isWordChar(text.charAt(extension - 1))) {
+            extension--;
+        }
+        return extension < end && extension - 1 > start && text.charAt(extension - 1) == '.';
+    }
+
+    /**
+     * {@code startsWith} that notes when the text ends inside what could still become the token
+     */
+    private boolean startsWith(String token, int from) {
+        int available = Math.min(token.length(), text.length() - from);
+        for (int i = 0; i < available; i++) {
+            if (text.charAt(from + i) != token.charAt(i)) {
+                return false;
+            }
+        }
+        if (available < token.length()) {
+            reachedEnd = true;
+            return false;
+        }
+        return true;
+    }
+
+    private int skipSpace(int from) {
+        int i = from;
+        while (i < text.length() && isSpace(text.charAt(i))) {
+            i++;
+        }
+        reachedEnd |= i >= text.length();
+        return i;
+    }
+
+    private int skipPathChars(int from) {
+        int i = from;
+        while (i < text.length() && isPathChar(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean isLineStart(int position) {
+        if (position == 0) {
+            return true;
+        }
+        char previous = text.charAt(position - 1);
+        return previous == '\n' || previous == '\r' || previous == '\u0085'
+                || previous == '\u2028' || previous == '\u2029';
+    }
+
+    /** Regex {@code [\w.-]} */
+    static boolean isPathChar(char c) {
+        return isWordChar(c) || c == '.' || c == '-';
+    }
+
+    /** Regex {@code \w} (ASCII) */
+    static boolean isWordChar(char c) {
+        return isAsciiLetter(c) || c >= '0' && c <= '9' || c == '_';
+    }
+
+    static boolean isAsciiLetter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    static boolean isLowercase(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    /** Regex {@code \s} */
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
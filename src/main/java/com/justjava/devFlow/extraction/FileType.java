@@ -0,0 +1,13 @@
+package com.justjava.devFlow.extraction;
+
+/**
+ * Kind of an extracted file, used for reporting (see {@link FileTypeBreakdown})
+ */
+public enum FileType {
+    JAVA_MAIN,
+    JAVA_TEST,
+    HTML_TEMPLATE,
+    SQL_SCHEMA,
+    YAML_CONFIG,
+    UNKNOWN
+}
@@ -0,0 +1,50 @@
+package com.justjava.devFlow.extraction;
+
+import java.util.List;
+
+/**
+ * File type breakdown for detailed reporting
+ */
+public class FileTypeBreakdown {
+    public int javaMainFiles = 0;
+    public int javaTestFiles = 0;
+    public int htmlFiles = 0;
+    public int sqlFiles = 0;
+    public int yamlFiles = 0;
+    public int otherFiles = 0;
+
+    public static FileTypeBreakdown of(List<ExtractedFile> files) {
+        FileTypeBreakdown breakdown = new FileTypeBreakdown();
+        for (ExtractedFile file : files) {
+            switch (file.getFileType()) {
+                case JAVA_MAIN -> breakdown.javaMainFiles++;
+                case JAVA_TEST -> breakdown.javaTestFiles++;
+                case HTML_TEMPLATE -> breakdown.htmlFiles++;
+                case SQL_SCHEMA -> breakdown.sqlFiles++;
+                case YAML_CONFIG -> breakdown.yamlFiles++;
+                default -> breakdown.otherFiles++;
+            }
+        }
+        return breakdown;
+    }
+
+    /** Copy handed out with a result, so a cached breakdown can't be changed */
+    public FileTypeBreakdown copy() {
+        FileTypeBreakdown copy = new FileTypeBreakdown();
+        copy.javaMainFiles = javaMainFiles;
+        copy.javaTestFiles = javaTestFiles;
+        copy.htmlFiles = htmlFiles;
+        copy.sqlFiles = sqlFiles;
+        copy.yamlFiles = yamlFiles;
+        copy.otherFiles = otherFiles;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Java Main: %d, Java Test: %d, HTML: %d, SQL: %d, YAML: %d, Other: %d",
+                javaMainFiles, javaTestFiles, htmlFiles, sqlFiles, yamlFiles, otherFiles
+        );
+    }
+}
@@ -0,0 +1,9 @@
+package com.justjava.devFlow.extraction;
+
+/**
+ * The extracted files could not be pushed to the repository
+ */
+public class GitHubPushException extends Exception {
+    public GitHubPushException(String message) { super(message); }
+    public GitHubPushException(String message, Throwable cause) { super(message, cause); }
+}
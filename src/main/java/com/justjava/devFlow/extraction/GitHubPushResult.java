@@ -0,0 +1,28 @@
+package com.justjava.devFlow.extraction;
+
+/**
+ * Result of extracting the files of a document and pushing them to a repository
+ */
+public class GitHubPushResult {
+    private final String repositoryUrl;
+    private final String repositoryName;
+    private final int filesPushed;
+    private final int filesExtracted;
+    private final FileTypeBreakdown fileTypeBreakdown;
+
+    public GitHubPushResult(String repositoryUrl, String repositoryName,
+                            int filesPushed, int filesExtracted,
+                            FileTypeBreakdown fileTypeBreakdown) {
+        this.repositoryUrl = repositoryUrl;
+        this.repositoryName = repositoryName;
+        this.filesPushed = filesPushed;
+        this.filesExtracted = filesExtracted;
+        this.fileTypeBreakdown = fileTypeBreakdown;
+    }
+
+    public String getRepositoryUrl() { return repositoryUrl; }
+    public String getRepositoryName() { return repositoryName; }
+    public int getFilesPushed() { return filesPushed; }
+    public int getFilesExtracted() { return filesExtracted; }
+    public FileTypeBreakdown getFileTypeBreakdown() { return fileTypeBreakdown; }
+}
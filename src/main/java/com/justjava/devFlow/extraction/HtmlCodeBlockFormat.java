@@ -0,0 +1,431 @@
+package com.justjava.devFlow.extraction;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Files in the HTML code blocks of a code details document: Java sources (main and test), the
+ * HTML page and fragments, the SQL schema and the OpenAPI YAML.
+ *
+ * The file types come from the kind of block (a Java block is a test by its content), not from
+ * the path.
+ */
+@Component
+public class HtmlCodeBlockFormat implements ExtractionFormat {
+
+    public static final String NAME = "html-code-blocks";
+
+    private static final String JAVA_OPEN = "<pre><code class=\"language-java\">";
+    private static final String SQL_OPEN = "<pre><code class=\"language-sql\">";
+    private static final String YAML_OPEN = "<pre><code class=\"language-yaml\">";
+    private static final String PRE_CLOSE = "</code></pre>";
+    private static final String CODE_OPEN = "<code>";
+    private static final String CODE_CLOSE = "</code>";
+    private static final String HTML_DOCTYPE = "&lt;!DOCTYPE html&gt;";
+    private static final String HTML_COMMENT_OPEN = "&lt;!--";
+    private static final String HTML_COMMENT_CLOSE = "--&gt;";
+    /** Tags classified between time budget checks */
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final Pattern PACKAGE_PATTERN = Pattern.compile("package\\s+([^;]+);");
+    private static final Pattern LEADING_PACKAGE_PATTERN = Pattern.compile("^package\\s+([^;]+);");
+    private static final Pattern CLASS_PATTERN =
+            Pattern.compile("(?:public\\s+)?(?:class|interface|@?interface|enum)\\s+(\\w+)");
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean appliesTo(String document) {
+        return document.contains("<code");
+    }
+
+    /**
+     * Extracts the code files in a single pass over the {@code <code>} tags of the document.
+     *
+     * Each tag is classified once and handed to the matching extractor; every extractor keeps its
+     * own cursor so blocks are claimed exactly as the former per-type regex scans did (a match
+     * resumes after its closing tag), and the files come out in the same order: Java main, Java
+     * test, HTML page and fragments, SQL, YAML.
+     */
+    @Override
+    public List<ExtractedFile> extract(String codeDetails, ExtractionContext context) {
+        System.out.println("Starting code extraction from codeDetails...");
+
+        CodeBlockScanner scanner = new CodeBlockScanner(codeDetails);
+        List<ExtractedFile> javaMainFiles = new ArrayList<>();
+        List<ExtractedFile> javaTestFiles = new ArrayList<>();
+        List<ExtractedFile> htmlPages = new ArrayList<>();
+        List<ExtractedFile> htmlFragments = new ArrayList<>();
+        List<ExtractedFile> sqlFiles = new ArrayList<>();
+        List<ExtractedFile> yamlFiles = new ArrayList<>();
+
+        int tags = 0;
+        for (int tag = codeDetails.indexOf("<code"); tag >= 0; tag = codeDetails.indexOf("<code", tag + 5)) {
+            if (++tags % CHECK_INTERVAL == 0) {
+                context.checkTimeBudget();
+            }
+            if (codeDetails.startsWith(CODE_OPEN, tag)) {
+                if (htmlPages.isEmpty()) {
+                    extractHtmlPage(scanner, tag, htmlPages);
+                }
+                extractHtmlFragment(scanner, tag, htmlFragments);
+            } else if (tag >= 5 && codeDetails.startsWith("<pre>", tag - 5)) {
+                int block = tag - 5;
+                if (codeDetails.startsWith(JAVA_OPEN, block)) {
+                    extractJavaMainFile(scanner, block, javaMainFiles);
+                    extractJavaTestFile(scanner, block, javaTestFiles);
+                } else if (codeDetails.startsWith(SQL_OPEN, block)) {
+                    extractSqlFile(scanner, block, sqlFiles);
+                } else if (codeDetails.startsWith(YAML_OPEN, block)) {
+                    extractYamlFile(scanner, block, yamlFiles);
+                }
+            }
+        }
+
+        List<ExtractedFile> extractedFiles = new ArrayList<>(javaMainFiles);
+        extractedFiles.addAll(javaTestFiles);
+        extractedFiles.addAll(htmlPages);
+        extractedFiles.addAll(htmlFragments);
+        extractedFiles.addAll(sqlFiles);
+        extractedFiles.addAll(yamlFiles);
+
+        System.out.println("Successfully extracted " + extractedFiles.size() + " code files");
+
+        // Debug: Print extracted file paths
+        for (ExtractedFile file : extractedFiles) {
+            System.out.println("Found: " + file.getFilePath() + " (" + file.getFileType() + ")");
+        }
+
+        return extractedFiles;
+    }
+
+    /**
+     * Java main source files (domain, application, infrastructure, presentation layers):
+     * a java block starting with its package declaration
+     */
+    private void extractJavaMainFile(CodeBlockScanner scanner, int block, List<ExtractedFile> files) {
+        if (block < scanner.javaMainCursor) {
+            return;
+        }
+        String text = scanner.text;
+        int keyword = scanner.skipSpace(block + JAVA_OPEN.length());
+        int name = keyword + "package".length();
+        if (!text.startsWith("package", keyword) || name >= text.length() || !CodeBlockScanner.isSpace(text.charAt(name))) {
+            return;
+        }
+        // The package name runs to the next ';', wherever that is (it needs at least one character)
+        int semicolon = scanner.semicolons.next(scanner.skipSpace(name));
+        if (semicolon < 0 || semicolon - name < 2) {
+            return;
+        }
+        int close = scanner.preCloses.next(semicolon + 1);
+        if (close < 0) {
+            return;
+        }
+        scanner.javaMainCursor = close + PRE_CLOSE.length();
+
+        String packageName = text.substring(name, semicolon).trim();
+        String content = text.substring(semicolon + 1, close).trim();
+
+        // Extract class name from content
+        String className = extractClassName(content);
+        if (className != null && !isTestClass(content, className)) {
+            String filePath = buildJavaFilePath(packageName, className, false);
+            files.add(new ExtractedFile(filePath, formatJavaContent(scanner, packageName, content), FileType.JAVA_MAIN));
+            System.out.println("Extracted Java main file: " + filePath);
+        }
+    }
+
+    /**
+     * Java test files: any java block that looks like a test class
+     */
+    private void extractJavaTestFile(CodeBlockScanner scanner, int block, List<ExtractedFile> files) {
+        if (block < scanner.javaTestCursor) {
+            return;
+        }
+        String content = scanner.preBlockContent(block, JAVA_OPEN.length(), true, false);
+        if (content == null) {
+            return;
+        }
+        scanner.javaTestCursor = scanner.blockEnd;
+
+        // Extract package name from content
+        String packageName = extractPackageName(content);
+        String className = extractClassName(content);
+
+        // Enhanced test detection - specifically look for DocumentEditingE2ETest and other test indicators
+        if (isTestClass(content, className)) {
+            if (packageName == null) {
+                // If no package found, use default test package
+                packageName = "tech.justjava.dms.selenium";
+            }
+            String filePath = buildJavaFilePath(packageName, className, true);
+            files.add(new ExtractedFile(filePath, formatJavaContent(scanner, packageName, content), FileType.JAVA_TEST));
+            System.out.println("Extracted Java test file: " + filePath + " (Class: " + className + ")");
+        }
+    }
+
+    /**
+     * Complete HTML page: a plain code tag starting with the escaped doctype
+     */
+    private void extractHtmlPage(CodeBlockScanner scanner, int tag, List<ExtractedFile> files) {
+        String text = scanner.text;
+        int doctype = scanner.skipSpace(tag + CODE_OPEN.length());
+        if (!text.startsWith(HTML_DOCTYPE, doctype)) {
+            return;
+        }
+        int start = doctype + HTML_DOCTYPE.length();
+        int close = scanner.codeCloses.next(start);
+        if (close < 0) {
+            return;
+        }
+        String content = scanner.unescape(start, close);
+        files.add(new ExtractedFile("src/main/resources/templates/documents.html", content, FileType.HTML_TEMPLATE));
+        System.out.println("Extracted HTML template: documents.html");
+    }
+
+    /**
+     * HTML fragment: a plain code tag starting with an escaped comment that names the file.
+     * The name ends at the last escaped comment end before the first '>' that follows.
+     */
+    private void extractHtmlFragment(CodeBlockScanner scanner, int tag, List<ExtractedFile> files) {
+        if (tag < scanner.fragmentCursor) {
+            return;
+        }
+        String text = scanner.text;
+        int comment = scanner.skipSpace(tag + CODE_OPEN.length());
+        if (!text.startsWith(HTML_COMMENT_OPEN, comment)) {
+            return;
+        }
+        int name = comment + HTML_COMMENT_OPEN.length();
+        int gt = scanner.greaterThans.next(name);
+        if (gt < 0) {
+            return;
+        }
+        int nameEnd = -1;
+        for (int end = scanner.commentCloses.next(scanner.skipSpace(name));
+             end >= 0 && end + HTML_COMMENT_CLOSE.length() <= gt;
+             end = scanner.commentCloses.next(end + 1)) {
+            nameEnd = end;
+        }
+        if (nameEnd <= name) {
+            return;
+        }
+        int start = nameEnd + HTML_COMMENT_CLOSE.length();
+        int close = scanner.codeCloses.next(start);
+        if (close < 0) {
+            return;
+        }
+        scanner.fragmentCursor = close + CODE_CLOSE.length();
+
+        String fragmentName = text.substring(name, nameEnd).trim();
+        String content = scanner.unescape(start, close);
+
+        String filePath = "src/main/resources/templates/" + fragmentName;
+        files.add(new ExtractedFile(filePath, content, FileType.HTML_TEMPLATE));
+        System.out.println("Extracted HTML fragment: " + fragmentName);
+    }
+
+    /**
+     * SQL files: an sql block starting with a comment; the content starts right after the "--"
+     */
+    private void extractSqlFile(CodeBlockScanner scanner, int block, List<ExtractedFile> files) {
+        if (block < scanner.sqlCursor) {
+            return;
+        }
+        int dashes = scanner.skipSpace(block + SQL_OPEN.length());
+        if (!scanner.text.startsWith("--", dashes)) {
+            return;
+        }
+        String content = scanner.preBlockContent(dashes, 2, false, true);
+        if (content == null) {
+            return;
+        }
+        scanner.sqlCursor = scanner.blockEnd;
+
+        files.add(new ExtractedFile("src/main/resources/schema.sql", content, FileType.SQL_SCHEMA));
+        System.out.println("Extracted SQL schema file");
+    }
+
+    /**
+     * YAML/OpenAPI files: any yaml block
+     */
+    private void extractYamlFile(CodeBlockScanner scanner, int block, List<ExtractedFile> files) {
+        if (block < scanner.yamlCursor) {
+            return;
+        }
+        String content = scanner.preBlockContent(block, YAML_OPEN.length(), true, true);
+        if (content == null) {
+            return;
+        }
+        scanner.yamlCursor = scanner.blockEnd;
+
+        files.add(new ExtractedFile("src/main/resources/api/openapi.yaml", content, FileType.YAML_CONFIG));
+        System.out.println("Extracted OpenAPI YAML file");
+    }
+
+    private String extractPackageName(String javaContent) {
+        Matcher matcher = PACKAGE_PATTERN.matcher(javaContent);
+        if (matcher.find()) {
+            return matcher.group(1).trim();
+        }
+        return null;
+    }
+
+    private String extractClassName(String javaContent) {
+        Matcher matcher = CLASS_PATTERN.matcher(javaContent);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        return null;
+    }
+
+    private String buildJavaFilePath(String packageName, String className, boolean isTest) {
+        String basePath = isTest ? "src/test/java/" : "src/main/java/";
+        String packagePath = packageName.replace('.', '/');
+        return basePath + packagePath + "/" + className + ".java";
+    }
+
+    private boolean isTestClass(String content, String className) {
+        // Enhanced test detection with multiple indicators
+        boolean hasTestAnnotations = content.contains("@Test") ||
+                content.contains("@BeforeAll") ||
+                content.contains("@AfterAll") ||
+                content.contains("@BeforeEach") ||
+                content.contains("@AfterEach");
+
+        boolean hasTestImports = content.contains("import org.junit") ||
+                content.contains("import org.testng") ||
+                content.contains("import org.openqa.selenium") ||
+                content.contains("import org.selenium");
+
+        boolean hasTestClassName = className != null &&
+                (className.endsWith("Test") ||
+                        className.endsWith("Tests") ||
+                        className.endsWith("TestCase") ||
+                        className.contains("E2E") ||
+                        className.contains("IntegrationTest"));
+
+        boolean hasSeleniumContent = content.contains("WebDriver") ||
+                content.contains("ChromeDriver") ||
+                content.contains("findElement") ||
+                content.contains("By.") ||
+                content.contains(".get(") ||
+                content.contains(".click()");
+
+        // Specific detection for DocumentEditingE2ETest
+        boolean isDocumentEditingTest = "DocumentEditingE2ETest".equals(className);
+
+        // It's a test class if it has any of these strong indicators
+        return hasTestAnnotations ||
+                hasTestImports ||
+                hasSeleniumContent ||
+                isDocumentEditingTest ||
+                (hasTestClassName && (hasTestAnnotations || hasSeleniumContent));
+    }
+
+    private String formatJavaContent(CodeBlockScanner scanner, String packageName, String content) {
+        // Ensure proper package declaration and clean up HTML entities
+        content = scanner.decoder.decode(content);
+
+        // Remove any leading/trailing whitespace and ensure proper structure
+        content = content.trim();
+
+        // Check if content already has package declaration
+        boolean hasPackage = content.startsWith("package ");
+
+        if (!hasPackage) {
+            // Add package declaration if missing
+            content = "package " + packageName + ";\n\n" + content;
+        } else {
+            // Ensure the package matches what we expect
+            Matcher matcher = LEADING_PACKAGE_PATTERN.matcher(content);
+            if (matcher.find()) {
+                String existingPackage = matcher.group(1);
+                if (!existingPackage.equals(packageName)) {
+                    System.out.println("Warning: Package mismatch. Expected: " + packageName + ", Found: " + existingPackage);
+                }
+            }
+        }
+
+        return content;
+    }
+
+    /**
+     * Scan state over one document: the extractor cursors (where each extractor may match next)
+     * and forward-only token searches, so the whole document is scanned in linear time
+     */
+    private static final class CodeBlockScanner {
+        private final String text;
+        private final TokenFinder preCloses;
+        private final TokenFinder codeCloses;
+        private final TokenFinder semicolons;
+        private final TokenFinder greaterThans;
+        private final TokenFinder commentCloses;
+        /** One decoder per document, so its builder is reused by all the blocks */
+        private final HtmlEntityDecoder decoder = new HtmlEntityDecoder();
+        private int javaMainCursor;
+        private int javaTestCursor;
+        private int fragmentCursor;
+        private int sqlCursor;
+        private int yamlCursor;
+        /** End of the closing tag of the last block read by preBlockContent */
+        private int blockEnd;
+
+        private CodeBlockScanner(String text) {
+            this.text = text;
+            this.preCloses = new TokenFinder(text, PRE_CLOSE);
+            this.codeCloses = new TokenFinder(text, CODE_CLOSE);
+            this.semicolons = new TokenFinder(text, ";");
+            this.greaterThans = new TokenFinder(text, ">");
+            this.commentCloses = new TokenFinder(text, HTML_COMMENT_CLOSE);
+        }
+
+        /**
+         * Trimmed (and optionally unescaped) content from after the opening token (and any
+         * whitespace) up to the next {@code </code></pre>}, or null if the block is never closed
+         */
+        private String preBlockContent(int from, int openLength, boolean skipSpace, boolean unescape) {
+            int start = skipSpace ? skipSpace(from + openLength) : from + openLength;
+            int close = preCloses.next(start);
+            if (close < 0) {
+                return null;
+            }
+            blockEnd = close + PRE_CLOSE.length();
+            return unescape ? unescape(start, close) : text.substring(start, close).trim();
+        }
+
+        /**
+         * text[start, end) trimmed, with its HTML entities decoded
+         */
+        private String unescape(int start, int end) {
+            while (start < end && text.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && text.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            return decoder.decode(text, start, end);
+        }
+
+        private int skipSpace(int from) {
+            int i = from;
+            while (i < text.length() && isSpace(text.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        /** Regex {@code \s}: space, tab, newline, vertical tab, form feed, carriage return */
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+    }
+}
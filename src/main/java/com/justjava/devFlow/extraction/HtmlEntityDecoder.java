@@ -0,0 +1,140 @@
+package com.justjava.devFlow.extraction;
+
+import java.util.Arrays;
+
+/**
+ * Decodes the HTML entities of escaped code in one pass: named entities from a table indexed by
+ * their first letter, and decimal ({@code &#39;}) and hex ({@code &#x27;}) character references.
+ * Anything that isn't a complete entity (unknown name, missing ';', invalid code point) is kept
+ * as it is. Each entity is decoded once, so {@code &amp;lt;} becomes {@code &lt;}.
+ *
+ * The output is written into a builder that is reused from call to call, so decoding allocates
+ * little beyond the resulting String. Not thread-safe: use one decoder per extraction.
+ */
+public final class HtmlEntityDecoder {
+
+    /** Named entities and their text, indexed by the first letter of the name */
+    private static final Entity[][] ENTITIES = new Entity[128][];
+    /** Longest numeric reference: "#x10FFFF" or "#1114111" */
+    private static final int MAX_NUMBER_LENGTH = 8;
+
+    static {
+        String[][] table = {
+                {"lt", "<"}, {"gt", ">"}, {"amp", "&"}, {"quot", "\""}, {"apos", "'"},
+                // A non-breaking space in code is meant as a plain space
+                {"nbsp", " "},
+                {"copy", "©"}, {"reg", "®"}, {"trade", "™"}, {"deg", "°"},
+                {"plusmn", "±"}, {"times", "×"}, {"divide", "÷"}, {"micro", "µ"},
+                {"sect", "§"}, {"para", "¶"}, {"middot", "·"}, {"bull", "•"},
+                {"hellip", "…"}, {"ndash", "–"}, {"mdash", "—"},
+                {"lsquo", "‘"}, {"rsquo", "’"}, {"ldquo", "“"}, {"rdquo", "”"},
+                {"laquo", "«"}, {"raquo", "»"},
+                {"euro", "€"}, {"pound", "£"}, {"yen", "¥"}, {"cent", "¢"},
+                {"larr", "←"}, {"rarr", "→"}, {"uarr", "↑"}, {"darr", "↓"},
+                {"harr", "↔"}, {"rArr", "⇒"}, {"lArr", "⇐"}, {"hArr", "⇔"},
+                {"ne", "≠"}, {"le", "≤"}, {"ge", "≥"}, {"infin", "∞"},
+                {"check", "✓"}, {"zwj", "‍"}, {"zwnj", "‌"},
+        };
+        for (String[] entry : table) {
+            Entity entity = new Entity(entry[0], entry[1]);
+            char first = entity.name().charAt(0);
+            Entity[] sameFirst = ENTITIES[first];
+            Entity[] extended = sameFirst == null ? new Entity[1] : Arrays.copyOf(sameFirst, sameFirst.length + 1);
+            extended[extended.length - 1] = entity;
+            ENTITIES[first] = extended;
+        }
+    }
+
+    private final StringBuilder builder = new StringBuilder();
+
+    /**
+     * text[start, end) with its entities decoded
+     */
+    public String decode(String text, int start, int end) {
+        int amp = text.indexOf('&', start);
+        if (amp < 0 || amp >= end) {
+            return text.substring(start, end);
+        }
+
+        StringBuilder out = builder;
+        out.setLength(0);
+        out.ensureCapacity(end - start);
+        int copied = start;
+        for (int i = amp; i >= 0 && i < end; i = text.indexOf('&', i)) {
+            int next = decodeEntity(text, i, end, out, copied);
+            if (next > i) {
+                copied = next;
+                i = next;
+            } else {
+                i++;
+            }
+        }
+        out.append(text, copied, end);
+        String decoded = out.toString();
+        if (out.capacity() > 4 * Math.max(decoded.length(), 1024)) {
+            // Don't keep a buffer sized for one huge block
+            out.setLength(0);
+            out.trimToSize();
+        }
+        return decoded;
+    }
+
+    public String decode(String text) {
+        return decode(text, 0, text.length());
+    }
+
+    /**
+     * Decodes the entity starting with the '&' at {@code amp}: appends the text since
+     * {@code copied} and the decoded entity, and returns the index after the entity; returns
+     * {@code amp} (appending nothing) if there is no complete entity
+     */
+    private static int decodeEntity(String text, int amp, int end, StringBuilder out, int copied) {
+        int name = amp + 1;
+        if (name >= end) {
+            return amp;
+        }
+        char first = text.charAt(name);
+        if (first == '#') {
+            return decodeNumber(text, amp, end, out, copied);
+        }
+        Entity[] candidates = first < ENTITIES.length ? ENTITIES[first] : null;
+        if (candidates == null) {
+            return amp;
+        }
+        for (Entity entity : candidates) {
+            int semicolon = name + entity.name().length();
+            if (semicolon < end && text.charAt(semicolon) == ';' && text.startsWith(entity.name(), name)) {
+                out.append(text, copied, amp).append(entity.text());
+                return semicolon + 1;
+            }
+        }
+        return amp;
+    }
+
+    private static int decodeNumber(String text, int amp, int end, StringBuilder out, int copied) {
+        int i = amp + 2;
+        boolean hex = i < end && (text.charAt(i) == 'x' || text.charAt(i) == 'X');
+        if (hex) {
+            i++;
+        }
+        int digitsStart = i;
+        int codePoint = 0;
+        while (i < end && i - digitsStart < MAX_NUMBER_LENGTH) {
+            int digit = Character.digit(text.charAt(i), hex ? 16 : 10);
+            if (digit < 0) {
+                break;
+            }
+            codePoint = codePoint * (hex ? 16 : 10) + digit;
+            i++;
+        }
+        if (i == digitsStart || i >= end || text.charAt(i) != ';'
+                || codePoint == 0 || !Character.isValidCodePoint(codePoint)
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            return amp;
+        }
+        out.append(text, copied, amp).appendCodePoint(codePoint);
+        return i + 1;
+    }
+
+    private record Entity(String name, String text) {}
+}
@@ -0,0 +1,125 @@
+package com.justjava.devFlow.extraction;
+
+import java.nio.CharBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Extracts files from an artifact while it is still being received, e.g. from a streamed AI
+ * response. Chunks are appended as they arrive and each file is handed to the listener as soon
+ * as it is complete: when its code fence has closed, or otherwise when the next file marker
+ * arrives. The files are the ones {@link FileMarkerFormat} finds in the whole artifact, in the
+ * same order, which is what the batch artifact extraction returns.
+ *
+ * Not thread-safe: one producer appends the chunks and calls {@link #finish()}.
+ */
+public class IncrementalArtifactExtractor {
+
+    private final Consumer<ExtractedFile> listener;
+    private final StringBuilder text = new StringBuilder();
+    private final FileMarkerScanner scanner = new FileMarkerScanner(text, () -> { });
+    private final TokenFinder fences = new TokenFinder(text, "```");
+    private final TokenFinder fenceCloses = new TokenFinder(text, "```");
+    private final TokenFinder newlines = new TokenFinder(text, "\n");
+
+    /** Marker of the file being received, null before the first marker */
+    private FileMarkerScanner.FileMarker current;
+    private boolean currentDone;
+    /** Text length at which the scan waits for more text, so stalls are retried in linear time */
+    private int resumeAt;
+    private int filesExtracted;
+    private boolean finished;
+
+    public IncrementalArtifactExtractor(Consumer<ExtractedFile> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Appends the next chunk of the artifact and emits the files it completes
+     */
+    public void append(CharSequence chunk) {
+        append(chunk, 0, chunk.length());
+    }
+
+    public void append(CharSequence chunk, int start, int end) {
+        if (finished) {
+            throw new IllegalStateException("Artifact is already complete");
+        }
+        text.append(chunk, start, end);
+        // A scan waiting on an unfinished marker is retried once the text after it has doubled
+        if (text.length() >= resumeAt) {
+            advance(false);
+        }
+    }
+
+    public void append(char[] chunk, int offset, int length) {
+        append(CharBuffer.wrap(chunk, offset, length));
+    }
+
+    /**
+     * Marks the artifact complete and emits the remaining files
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        advance(true);
+        completeCurrent(text.length());
+    }
+
+    /**
+     * The artifact received so far
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    public int getLength() {
+        return text.length();
+    }
+
+    public int getFilesExtracted() {
+        return filesExtracted;
+    }
+
+    private void advance(boolean complete) {
+        for (FileMarkerScanner.FileMarker marker = scanner.next(complete); marker != null;
+             marker = scanner.next(complete)) {
+            completeCurrent(marker.index());
+            current = marker;
+            currentDone = false;
+        }
+        if (complete) {
+            return;
+        }
+
+        int frontier = scanner.position();
+        resumeAt = frontier < text.length() ? text.length() + Math.max(1, text.length() - frontier) : 0;
+
+        // No marker starts before the frontier, so a fence closed before it ends the current file
+        if (current != null && !currentDone) {
+            CharSequence content = FileMarkerFormat.closedFenceContent(text, current, frontier, fences, fenceCloses);
+            if (content != null) {
+                emit(content);
+            }
+        }
+    }
+
+    /**
+     * The current file ends at {@code end}
+     */
+    private void completeCurrent(int end) {
+        if (current != null && !currentDone) {
+            emit(FileMarkerFormat.extractFileContent(text, current, end, fences, fenceCloses, newlines));
+        }
+    }
+
+    private void emit(CharSequence content) {
+        currentDone = true;
+        if (content == null || FileMarkerFormat.isBlank(content)) {
+            return;
+        }
+        filesExtracted++;
+        listener.accept(new ExtractedFile(current.path(), content, PathClassifier.standard().classify(current.path())));
+    }
+}
@@ -0,0 +1,72 @@
+package com.justjava.devFlow.extraction;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Classifies file paths by their longest known suffix, e.g. {@code Test.java} before
+ * {@code .java}. The suffixes are kept in a trie of reversed suffixes, so a path is classified
+ * by one walk back from its end, however many suffixes there are. Java sources under
+ * {@code src/test/} are tests whatever their name.
+ */
+public final class PathClassifier {
+
+    private static final PathClassifier STANDARD = new PathClassifier(standardSuffixes());
+
+    private final Node root = new Node();
+
+    public PathClassifier(Map<String, FileType> suffixes) {
+        suffixes.forEach(this::add);
+    }
+
+    /**
+     * The classifier shared by the extraction formats
+     */
+    public static PathClassifier standard() {
+        return STANDARD;
+    }
+
+    public FileType classify(String path) {
+        FileType type = FileType.UNKNOWN;
+        Node node = root;
+        for (int i = path.length() - 1; i >= 0 && node != null; i--) {
+            node = node.children.get(path.charAt(i));
+            if (node != null && node.type != null) {
+                type = node.type;
+            }
+        }
+        if (type == FileType.JAVA_MAIN && (path.startsWith("src/test/") || path.contains("/src/test/"))) {
+            return FileType.JAVA_TEST;
+        }
+        return type;
+    }
+
+    private void add(String suffix, FileType type) {
+        Node node = root;
+        for (int i = suffix.length() - 1; i >= 0; i--) {
+            node = node.children.computeIfAbsent(suffix.charAt(i), c -> new Node());
+        }
+        node.type = type;
+    }
+
+    private static Map<String, FileType> standardSuffixes() {
+        Map<String, FileType> suffixes = new LinkedHashMap<>();
+        suffixes.put(".java", FileType.JAVA_MAIN);
+        suffixes.put("Test.java", FileType.JAVA_TEST);
+        suffixes.put("Tests.java", FileType.JAVA_TEST);
+        suffixes.put("TestCase.java", FileType.JAVA_TEST);
+        suffixes.put("IT.java", FileType.JAVA_TEST);
+        suffixes.put(".html", FileType.HTML_TEMPLATE);
+        suffixes.put(".htm", FileType.HTML_TEMPLATE);
+        suffixes.put(".sql", FileType.SQL_SCHEMA);
+        suffixes.put(".yml", FileType.YAML_CONFIG);
+        suffixes.put(".yaml", FileType.YAML_CONFIG);
+        return suffixes;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private FileType type;
+    }
+}
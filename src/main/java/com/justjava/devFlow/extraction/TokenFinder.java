@@ -0,0 +1,46 @@
+package com.justjava.devFlow.extraction;
+
+/**
+ * indexOf that remembers its last answer, so lookups from increasing positions scan each part
+ * of the text only once. Used by the extractors to keep their scans linear.
+ *
+ * The text may be a StringBuilder that grows between lookups (text is only ever appended): a
+ * miss is then resumed where the previous search ended instead of searched again.
+ */
+final class TokenFinder {
+
+    private final CharSequence text;
+    private final String token;
+    private int lastFrom = Integer.MAX_VALUE;
+    private int lastFound;
+    private int lastLength;
+
+    TokenFinder(CharSequence text, String token) {
+        this.text = text;
+        this.token = token;
+    }
+
+    /**
+     * First occurrence of the token at or after {@code from}, or -1
+     */
+    int next(int from) {
+        int length = text.length();
+        int searchFrom = from;
+        if (from >= lastFrom) {
+            if (lastFound >= 0 ? from <= lastFound : length == lastLength) {
+                return lastFound;
+            }
+            if (lastFound < 0) {
+                // Nothing up to the previous end: only an occurrence reaching into the new text is left
+                searchFrom = Math.max(from, lastLength - token.length() + 1);
+                from = lastFrom;
+            }
+        }
+        lastFrom = from;
+        lastLength = length;
+        lastFound = text instanceof String string
+                ? string.indexOf(token, searchFrom)
+                : ((StringBuilder) text).indexOf(token, searchFrom);
+        return lastFound;
+    }
+}
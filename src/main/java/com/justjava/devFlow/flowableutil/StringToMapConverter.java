@@ -18,7 +18,15 @@ public class StringToMapConverter implements JavaDelegate {
 
     public StringToMapConverter(ObjectMapper objectMapper) {
 
-        this.objectMapper = objectMapper;
+        // Lenient copy, configured once, so the shared application mapper keeps its strict defaults
+        this.objectMapper = objectMapper.copy();
+        this.objectMapper.configure(JsonParser.Feature.ALLOW_COMMENTS, true);
+        this.objectMapper.configure(JsonParser.Feature.ALLOW_YAML_COMMENTS, true);
+        this.objectMapper.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
+        this.objectMapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
+        this.objectMapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS, true);
+        this.objectMapper.configure(JsonParser.Feature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER, true);
+        this.objectMapper.configure(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION, true);
     }
 
     @Override
@@ -45,18 +53,10 @@ public class StringToMapConverter implements JavaDelegate {
         //System.out.println(" The String to be converted here======"+variableName);
 
         try {
-           objectMapper.configure(JsonParser.Feature.ALLOW_COMMENTS, true);
-            objectMapper.configure(JsonParser.Feature.ALLOW_YAML_COMMENTS, true);
-            objectMapper.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
-            objectMapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
-            objectMapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS, true);
-            objectMapper.configure(JsonParser.Feature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER, true);
-            objectMapper.configure(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION, true);
-
             // Remove multi-line comments (/* */)
             //variableName = cleanJsonString(variableName);
 
-            Map<String,Object> map = objectMapper.readValue(variableName,Map.class);
+            Map<String,Object> map = convert(variableName);
 
             execution.setVariable(variableToConvertToMap.getExpressionText(), map);
             //System.out.println(" The JSON going to thymeleaf generation==="+json);
@@ -69,6 +69,16 @@ public class StringToMapConverter implements JavaDelegate {
         }
 
     }
+
+    /**
+     * Parses the AI's JSON output leniently (comments, single quotes, unquoted names and control
+     * characters are accepted)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> convert(String json) throws JsonProcessingException {
+        return objectMapper.readValue(json, Map.class);
+    }
+
     private static String cleanJsonString(String json) {
         if (json == null || json.trim().isEmpty()) {
             return json;
@@ -0,0 +1,113 @@
+package com.justjava.devFlow.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * JSON request bodies with one base64 field that is encoded chunk by chunk while the body is
+ * sent, so file content never exists as a base64 String or inside a formatted JSON String (and
+ * text content never as a whole byte array).
+ *
+ * The other fields are serialized with Jackson, so quotes and control characters in paths and
+ * messages are escaped properly. The body has a fixed length and can be sent again on a retry.
+ */
+final class Base64JsonBodyPublisher {
+
+    /** Input bytes per encoded chunk; a multiple of 3 so only the last chunk is padded */
+    private static final int CHUNK_SIZE = 48 * 1024;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+
+    private Base64JsonBodyPublisher() {
+    }
+
+    /**
+     * Body of the form {@code {"<base64Field>":"<base64 of content>", <fields>...}}
+     */
+    static HttpRequest.BodyPublisher of(ObjectMapper objectMapper, ObjectNode fields, String base64Field,
+                                        byte[] content) throws JsonProcessingException {
+        return of(objectMapper, fields, base64Field, () -> new ByteArrayInputStream(content), content.length);
+    }
+
+    /**
+     * Same body for a file's content, which is read (and encoded, for text) chunk by chunk
+     */
+    static HttpRequest.BodyPublisher of(ObjectMapper objectMapper, ObjectNode fields, String base64Field,
+                                        GitHubFile file) throws JsonProcessingException {
+        return of(objectMapper, fields, base64Field, file::openContent, file.getContentLength());
+    }
+
+    private static HttpRequest.BodyPublisher of(ObjectMapper objectMapper, ObjectNode fields, String base64Field,
+                                                Supplier<InputStream> content, long contentLength)
+            throws JsonProcessingException {
+        byte[] head = ("{" + objectMapper.writeValueAsString(base64Field) + ":\"")
+                .getBytes(StandardCharsets.UTF_8);
+        String others = objectMapper.writeValueAsString(fields);
+        // others is "{}" or "{...}": drop its opening brace and append the rest after the base64 value
+        byte[] tail = (others.length() > 2 ? "\"," + others.substring(1) : "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        long length = head.length + 4L * ((contentLength + 2) / 3) + tail.length;
+        return HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofByteArrays(() -> new Chunks(head, content.get(), tail)), length);
+    }
+
+    /**
+     * Yields the head, the content encoded one chunk at a time, then the tail
+     */
+    private static final class Chunks implements Iterator<byte[]> {
+
+        private final byte[] head;
+        private final InputStream content;
+        private final byte[] tail;
+        private boolean headSent;
+        private boolean done;
+
+        private Chunks(byte[] head, InputStream content, byte[] tail) {
+            this.head = head;
+            this.content = content;
+            this.tail = tail;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !done;
+        }
+
+        @Override
+        public byte[] next() {
+            if (done) {
+                throw new NoSuchElementException();
+            }
+            if (!headSent) {
+                headSent = true;
+                return head;
+            }
+            try {
+                // Full chunks except the last, so only the last one is padded
+                byte[] chunk = content.readNBytes(CHUNK_SIZE);
+                if (chunk.length > 0) {
+                    return ENCODER.encode(chunk);
+                }
+                content.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            done = true;
+            return tail;
+        }
+    }
+}
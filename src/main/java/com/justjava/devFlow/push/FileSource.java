@@ -0,0 +1,29 @@
+package com.justjava.devFlow.push;
+
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Produces the files of a push one at a time, so large sources (e.g. a ZIP download)
+ * can be streamed into the push target
+ */
+@FunctionalInterface
+public interface FileSource {
+
+    void forEach(Sink sink) throws IOException, InterruptedException;
+
+    static FileSource of(List<GitHubFile> files) {
+        return sink -> {
+            for (GitHubFile file : files) {
+                sink.accept(file);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Sink {
+        void accept(GitHubFile file) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,144 @@
+package com.justjava.devFlow.push;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conditional-request cache for GitHub metadata GETs (repository, refs, commits, trees, file
+ * SHAs).
+ *
+ * The body of every 200 response is kept with its ETag or Last-Modified header. Later lookups of
+ * the same URL with the same token revalidate with If-None-Match / If-Modified-Since; a 304 is
+ * answered from the cache and doesn't count against GitHub's primary rate limit. Entries are
+ * evicted least recently used once their bodies exceed the size cap.
+ */
+@Component
+public class GitHubMetadataCache {
+
+    private final boolean enabled;
+    private final long maxSizeChars;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeChars;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public GitHubMetadataCache(
+            @Value("${app.github.metadata-cache.enabled:true}") boolean enabled,
+            @Value("${app.github.metadata-cache.max-size-mb:32}") long maxSizeMb) {
+        this.enabled = enabled;
+        // Bodies are held as Strings, roughly one char per byte of JSON
+        this.maxSizeChars = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * Sends the GET through the sender, revalidating a cached body when there is one
+     */
+    public Response get(HttpRequest request, String token, Sender sender) throws IOException, InterruptedException {
+        if (!enabled) {
+            HttpResponse<String> response = sender.send(request);
+            return new Response(response.statusCode(), response.body(), false);
+        }
+
+        String key = fingerprint(token) + " " + request.uri();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+
+        HttpRequest conditional = request;
+        if (cached != null) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+            if (cached.etag() != null) {
+                builder.header("If-None-Match", cached.etag());
+            } else {
+                builder.header("If-Modified-Since", cached.lastModified());
+            }
+            conditional = builder.build();
+        }
+
+        HttpResponse<String> response = sender.send(conditional);
+        if (response.statusCode() == 304 && cached != null) {
+            hits.incrementAndGet();
+            return new Response(200, cached.body(), true);
+        }
+
+        misses.incrementAndGet();
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (response.statusCode() == 200 && (etag != null || lastModified != null)) {
+            put(key, new Entry(etag, lastModified, response.body()));
+        } else if (cached != null) {
+            remove(key);
+        }
+        return new Response(response.statusCode(), response.body(), false);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private void put(String key, Entry entry) {
+        if (entry.body().length() > maxSizeChars) {
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            sizeChars += entry.body().length() - (previous != null ? previous.body().length() : 0);
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (sizeChars > maxSizeChars && eldest.hasNext()) {
+                sizeChars -= eldest.next().getValue().body().length();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (entries) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                sizeChars -= removed.body().length();
+            }
+        }
+    }
+
+    /**
+     * Keeps responses seen with different tokens apart without holding the tokens themselves
+     */
+    private static String fingerprint(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.valueOf(token).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(String etag, String lastModified, String body) {}
+
+    /**
+     * Status and body of a lookup; a revalidated cache hit reports 200 with the cached body
+     */
+    public record Response(int statusCode, String body, boolean fromCache) {}
+
+    @FunctionalInterface
+    public interface Sender {
+        HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,738 @@
+package com.justjava.devFlow.push;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.justjava.devFlow.util.GitHubUploadScheduler;
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubRepositoryResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes to GitHub repositories under the given owner, creating them when missing. Files go
+ * in as a single Git Data API commit (blobs, tree, commit, ref update); files that already
+ * match the remote tree are skipped. Repositories can also be created from a template
+ * repository, see {@link #createFromTemplate}.
+ */
+@Component
+public class GitHubPushTarget implements RepositoryPushTarget {
+
+    public static final String NAME = "github";
+
+    private static final String GITHUB_API_BASE = "https://api.github.com";
+    private static final String PUSH_MODE_CONTENTS = "contents";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final GitHubUploadScheduler uploadScheduler;
+    private final GitHubMetadataCache metadataCache;
+    private final String pushMode;
+    private final long readyTimeoutMillis;
+    private final long readyMaxPollMillis;
+    private final ConcurrentHashMap<String, ReentrantLock> templateLocks = new ConcurrentHashMap<>();
+
+    public GitHubPushTarget(ObjectMapper objectMapper, GitHubUploadScheduler uploadScheduler,
+                            GitHubMetadataCache metadataCache,
+                            @Value("${app.github.push-mode:git-data}") String pushMode,
+                            @Value("${app.github.ready.timeout-ms:30000}") long readyTimeoutMillis,
+                            @Value("${app.github.ready.max-poll-ms:2000}") long readyMaxPollMillis) {
+        this.objectMapper = objectMapper;
+        this.uploadScheduler = uploadScheduler;
+        this.metadataCache = metadataCache;
+        this.pushMode = pushMode;
+        this.readyTimeoutMillis = readyTimeoutMillis;
+        this.readyMaxPollMillis = readyMaxPollMillis;
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Creates the repository if needed and pushes the files to its default branch
+     */
+    @Override
+    public GitHubRepositoryResult push(PushRequest request, FileSource files)
+            throws IOException, InterruptedException {
+
+        PushContext push = new PushContext(request.isPruneMissing());
+        String repositoryUrl = pushToGitHubRepository(files, request.getRepositoryName(),
+                request.getDescription(), request.isPrivate(), request.getOwner(), request.getToken(), push);
+        return buildResult(repositoryUrl, request.getRepositoryName(), push);
+    }
+
+    /**
+     * Creates the repository from the owner's template repository with the given name, seeding
+     * the template with the template files first if it doesn't exist yet. Returns false without
+     * doing anything when the repository already exists. The template's files end up in the
+     * repository, so the caller pushes only the files that differ afterwards.
+     */
+    public boolean createFromTemplate(PushRequest request, String templateName, FileSource templateFiles)
+            throws IOException, InterruptedException {
+
+        PushContext push = new PushContext(false);
+        String owner = request.getOwner();
+        String token = request.getToken();
+        if (fetchRepository(owner, request.getRepositoryName(), token, push) != null) {
+            return false;
+        }
+
+        ReentrantLock lock = templateLocks.computeIfAbsent(owner + "/" + templateName, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            JsonNode template = fetchRepository(owner, templateName, token, push);
+            if (template == null || !template.path("is_template").asBoolean(false)) {
+                seedTemplate(owner, templateName, token, templateFiles, push);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("owner", owner)
+                .put("name", request.getRepositoryName())
+                .put("description", request.getDescription())
+                .put("private", request.isPrivate())
+                .put("include_all_branches", false);
+        // Retried on transient failures: a generate that went through before its response was
+        // lost comes back as "already exists", and the repository was missing a moment ago
+        HttpResponse<String> response = send(jsonRequest(
+                GITHUB_API_BASE + "/repos/" + owner + "/" + templateName + "/generate", token)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
+                .build(), true, push);
+        String defaultBranch;
+        if (response.statusCode() == 201) {
+            defaultBranch = objectMapper.readTree(response.body()).path("default_branch").asText("main");
+        } else if (isAlreadyExists(response)) {
+            defaultBranch = existingDefaultBranch(owner, request.getRepositoryName(), token, push);
+        } else {
+            throw new IOException("Failed to generate " + request.getRepositoryName() + " from template "
+                    + templateName + ": " + response.body());
+        }
+
+        awaitBranchReady(owner, request.getRepositoryName(), defaultBranch, token, push);
+        System.out.println("Created repository " + request.getRepositoryName() + " from template " + templateName
+                + " in " + push.roundTrips.get() + " GitHub round trips");
+        return true;
+    }
+
+    /**
+     * Pushes the template files into a private repository (creating it if needed) and marks it
+     * as a template
+     */
+    private void seedTemplate(String owner, String templateName, String token, FileSource templateFiles,
+                              PushContext push)
+            throws IOException, InterruptedException {
+
+        System.out.println("Seeding template repository: " + templateName);
+        GitHubRepositoryResult seeded = push(new PushRequest(templateName,
+                "DEVFlow project skeleton template", true, owner, token, true), templateFiles);
+        if (!seeded.getFailures().isEmpty()) {
+            throw new IOException("Failed to seed template " + templateName + ": " + seeded.getFailures());
+        }
+
+        ObjectNode settings = objectMapper.createObjectNode().put("is_template", true);
+        HttpResponse<String> response = send(jsonRequest(GITHUB_API_BASE + "/repos/" + owner + "/" + templateName, token)
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(settings)))
+                .build(), true, push);
+        if (response.statusCode() != 200) {
+            throw new IOException("Failed to mark " + templateName + " as template: " + response.body());
+        }
+    }
+
+    /**
+     * Pushes files to GitHub repository using GitHub API
+     */
+    private String pushToGitHubRepository(FileSource files, String repositoryName,
+                                          String description, boolean isPrivate,
+                                          String username, String token, PushContext push)
+            throws IOException, InterruptedException {
+
+        // Check if repository exists
+        JsonNode repository = fetchRepository(username, repositoryName, token, push);
+        if (repository != null) {
+            System.out.println("Repository already exists: " + repositoryName);
+            return updateExistingRepository(files, username, repositoryName,
+                    repository.path("default_branch").asText("main"), token, push);
+        } else {
+            System.out.println("Creating new repository: " + repositoryName);
+            return createNewRepository(files, username, repositoryName, description, isPrivate, token, push);
+        }
+    }
+
+    /**
+     * Fetches the GitHub repository metadata (returns null if the repository doesn't exist)
+     */
+    private JsonNode fetchRepository(String username, String repositoryName, String token, PushContext push)
+            throws IOException, InterruptedException {
+
+        String url = GITHUB_API_BASE + "/repos/" + username + "/" + repositoryName;
+
+        GitHubMetadataCache.Response response = getCached(url, token, push);
+        return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+    }
+
+    /**
+     * GETs GitHub metadata, revalidating an earlier response with its ETag when there is one
+     */
+    private GitHubMetadataCache.Response getCached(String url, String token, PushContext push)
+            throws IOException, InterruptedException {
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Authorization", "token " + token)
+                .header("Accept", "application/vnd.github.v3+json")
+                .GET()
+                .build();
+
+        GitHubMetadataCache.Response response = metadataCache.get(request, token, attempt -> send(attempt, push));
+        if (response.fromCache()) {
+            push.cacheHits.incrementAndGet();
+        }
+        return response;
+    }
+
+    /**
+     * Creates new GitHub repository using GitHub API with auto_init: true
+     */
+    private String createNewRepository(FileSource files, String username, String repositoryName,
+                                       String description, boolean isPrivate, String token,
+                                       PushContext push)
+            throws IOException, InterruptedException {
+
+        String url = GITHUB_API_BASE + "/user/repos";
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("name", repositoryName)
+                .put("description", description)
+                .put("private", isPrivate)
+                .put("auto_init", true);
+
+        // Retried on transient failures like the template generate: a create whose response was
+        // lost is answered with "name already exists" the second time
+        HttpResponse<String> response = send(jsonRequest(url, token)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
+                .build(), true, push);
+
+        String defaultBranch;
+        if (response.statusCode() == 201) {
+            defaultBranch = objectMapper.readTree(response.body()).path("default_branch").asText("main");
+        } else if (isAlreadyExists(response)) {
+            defaultBranch = existingDefaultBranch(username, repositoryName, token, push);
+        } else {
+            throw new IOException("Failed to create repository: " + response.body());
+        }
+
+        // Wait until GitHub has created the auto_init commit on the default branch
+        awaitBranchReady(username, repositoryName, defaultBranch, token, push);
+
+        // Create initial commit with all files
+        createInitialCommit(files, username, repositoryName, defaultBranch, token, push);
+
+        return "https://github.com/" + username + "/" + repositoryName;
+    }
+
+    /**
+     * Whether a repository create failed only because the name is taken
+     */
+    private static boolean isAlreadyExists(HttpResponse<String> response) {
+        return response.statusCode() == 422 && response.body() != null && response.body().contains("already exists");
+    }
+
+    /**
+     * Default branch of a repository that turned out to exist when creating it
+     */
+    private String existingDefaultBranch(String username, String repositoryName, String token, PushContext push)
+            throws IOException, InterruptedException {
+        System.out.println("Repository " + repositoryName + " already exists, pushing to it");
+        JsonNode repository = fetchRepository(username, repositoryName, token, push);
+        if (repository == null) {
+            throw new IOException("Repository " + repositoryName + " reported as existing but can't be read");
+        }
+        return repository.path("default_branch").asText("main");
+    }
+
+    /**
+     * Polls the branch ref with jittered exponential backoff until it exists or the timeout is
+     * reached. On timeout the push goes ahead anyway: commitFiles falls back to the Contents API
+     * when the branch has no commit yet.
+     */
+    private void awaitBranchReady(String username, String repositoryName, String branch, String token,
+                                  PushContext push)
+            throws IOException, InterruptedException {
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(readyTimeoutMillis);
+        long pollMillis = 100;
+        int polls = 0;
+        boolean ready;
+        while (true) {
+            polls++;
+            ready = getBranchHeadSha(username, repositoryName, branch, token, push) != null;
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (ready || remainingMillis <= 0) {
+                break;
+            }
+            long sleepMillis = pollMillis / 2 + ThreadLocalRandom.current().nextLong(pollMillis / 2 + 1);
+            Thread.sleep(Math.min(sleepMillis, remainingMillis));
+            pollMillis = Math.min(readyMaxPollMillis, pollMillis * 2);
+        }
+
+        push.readyWaitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (ready) {
+            System.out.println("Repository " + repositoryName + " ready after " + push.readyWaitMillis
+                    + " ms (" + polls + " polls)");
+        } else {
+            System.out.println("⚠️ Branch " + branch + " of " + repositoryName + " not ready after "
+                    + push.readyWaitMillis + " ms (" + polls + " polls), pushing anyway");
+        }
+    }
+
+    /**
+     * Updates existing repository with a single commit containing all files
+     */
+    private String updateExistingRepository(FileSource files, String username,
+                                            String repositoryName, String branch, String token,
+                                            PushContext push)
+            throws IOException, InterruptedException {
+
+        commitFiles(files, username, repositoryName, branch, token, push);
+
+        return "https://github.com/" + username + "/" + repositoryName;
+    }
+
+    /**
+     * Creates initial commit for a new repository
+     */
+    private void createInitialCommit(FileSource files, String username,
+                                     String repositoryName, String branch, String token,
+                                     PushContext push)
+            throws IOException, InterruptedException {
+
+        commitFiles(files, username, repositoryName, branch, token, push);
+    }
+
+    /**
+     * Commits all files to the branch, using the Git Data API unless the contents mode is configured
+     * or the branch has no commits yet (the Git Data API rejects empty repositories)
+     */
+    private void commitFiles(FileSource files, String username, String repositoryName,
+                             String branch, String token, PushContext push)
+            throws IOException, InterruptedException {
+
+        String headCommitSha = PUSH_MODE_CONTENTS.equalsIgnoreCase(pushMode)
+                ? null
+                : getBranchHeadSha(username, repositoryName, branch, token, push);
+
+        if (headCommitSha == null) {
+            // Fall back to one Contents API commit per file; these must stay sequential
+            // because concurrent commits to the same branch conflict
+            GitHubUploadScheduler.BatchResult<GitHubFile, Void> result;
+            try (GitHubUploadScheduler.Batch<GitHubFile, Void> batch = uploadScheduler.openBatch(1, file -> {
+                createOrUpdateFile(username, repositoryName, file, token, push);
+                return null;
+            })) {
+                files.forEach(file -> {
+                    push.files.incrementAndGet();
+                    batch.submit(file);
+                });
+                result = batch.await();
+            }
+            recordFailures(result, push.files.get(), repositoryName, push);
+            return;
+        }
+
+        push.commitSha = commitViaGitDataApi(
+                files, username, repositoryName, branch, headCommitSha, token, push);
+    }
+
+    /**
+     * Pushes the changed files as one commit: the remote tree is read once, files whose git blob
+     * SHA and mode already match are skipped, the rest are uploaded as blobs while the source is
+     * still being read and overlaid on the current tree in one commit before fast-forwarding the
+     * branch ref. Nothing is committed when the remote is already up to date, and nothing at all
+     * when a changed file can't be uploaded: failed blobs are retried once, then the push fails.
+     */
+    private String commitViaGitDataApi(FileSource files, String username, String repositoryName,
+                                       String branch, String headCommitSha, String token,
+                                       PushContext push)
+            throws IOException, InterruptedException {
+
+        String repoUrl = GITHUB_API_BASE + "/repos/" + username + "/" + repositoryName;
+
+        // Resolve the tree of the current head so the new tree only overlays our files
+        JsonNode headCommit = getJson(repoUrl + "/git/commits/" + headCommitSha, token, push);
+        if (headCommit == null) {
+            throw new IOException("Failed to read head commit " + headCommitSha + " of " + repositoryName);
+        }
+        String baseTreeSha = headCommit.path("tree").path("sha").asText();
+
+        // Compare local blob SHAs against the remote tree and upload only what differs; only the
+        // paths are kept, the file content is released once its blob is uploaded
+        Map<String, RemoteEntry> remoteTree = getRemoteTree(repoUrl, baseTreeSha, token, push);
+        List<String> changedPaths = new ArrayList<>();
+        Set<String> localPaths = new HashSet<>();
+        GitHubUploadScheduler.Task<GitHubFile, String> uploadBlob = file -> {
+            HttpRequest.BodyPublisher blob = Base64JsonBodyPublisher.of(objectMapper,
+                    objectMapper.createObjectNode().put("encoding", "base64"), "content", file);
+            return postJson(repoUrl + "/git/blobs", blob, true, token, push, 201).path("sha").asText();
+        };
+        GitHubUploadScheduler.BatchResult<GitHubFile, String> blobs;
+        try (GitHubUploadScheduler.Batch<GitHubFile, String> batch = uploadScheduler.openBatch(uploadBlob)) {
+            files.forEach(file -> {
+                push.files.incrementAndGet();
+                localPaths.add(file.getFilePath());
+                RemoteEntry remote = remoteTree.get(file.getFilePath());
+                if (remote != null && remote.sha().equals(GitObjects.blobSha(file))
+                        && remote.mode().equals(GitObjects.fileMode(file.getFilePath()))) {
+                    push.skipped.incrementAndGet();
+                } else {
+                    changedPaths.add(file.getFilePath());
+                    batch.submit(file);
+                }
+            });
+            blobs = batch.await();
+        }
+        Map<String, String> blobShas = new HashMap<>();
+        for (int i = 0; i < changedPaths.size(); i++) {
+            if (blobs.results().get(i) != null) {
+                blobShas.put(changedPaths.get(i), blobs.results().get(i));
+            }
+        }
+        uploadMissingBlobs(blobs.failures(), uploadBlob, blobShas, changedPaths.size(), repositoryName, push);
+
+        List<String> deletedPaths = new ArrayList<>();
+        if (push.pruneMissing) {
+            for (String remotePath : remoteTree.keySet()) {
+                if (!localPaths.contains(remotePath)) {
+                    deletedPaths.add(remotePath);
+                }
+            }
+        }
+        System.out.println("Delta for " + repositoryName + ": " + changedPaths.size() + " changed, "
+                + push.skipped.get() + " unchanged, " + deletedPaths.size() + " deleted");
+
+        if (changedPaths.isEmpty() && deletedPaths.isEmpty()) {
+            return headCommitSha;
+        }
+
+        ArrayNode treeEntries = objectMapper.createArrayNode();
+        for (String changedPath : changedPaths) {
+            treeEntries.addObject()
+                    .put("path", changedPath)
+                    .put("mode", GitObjects.fileMode(changedPath))
+                    .put("type", "blob")
+                    .put("sha", blobShas.get(changedPath));
+            push.changed.incrementAndGet();
+        }
+        for (String deletedPath : deletedPaths) {
+            // A null SHA removes the path from the base tree
+            treeEntries.addObject()
+                    .put("path", deletedPath)
+                    .put("mode", remoteTree.get(deletedPath).mode())
+                    .put("type", "blob")
+                    .putNull("sha");
+            push.deleted.incrementAndGet();
+        }
+
+        // Build the new tree, the commit and move the branch
+        ObjectNode tree = objectMapper.createObjectNode().put("base_tree", baseTreeSha);
+        tree.set("tree", treeEntries);
+        // Blobs and trees are content-addressed, so retrying them is harmless; a retried commit
+        // would leave an orphan commit behind
+        String treeSha = postJson(repoUrl + "/git/trees", tree, true, token, push, 201).path("sha").asText();
+
+        ObjectNode commit = objectMapper.createObjectNode()
+                .put("message", commitMessage(push))
+                .put("tree", treeSha);
+        commit.putArray("parents").add(headCommitSha);
+        String commitSha = postJson(repoUrl + "/git/commits", commit, false, token, push, 201).path("sha").asText();
+
+        ObjectNode ref = objectMapper.createObjectNode()
+                .put("sha", commitSha)
+                .put("force", false);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(repoUrl + "/git/refs/heads/" + branch))
+                .header("Authorization", "token " + token)
+                .header("Accept", "application/vnd.github.v3+json")
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(ref)))
+                .build();
+        // Moving the branch to the same commit again is harmless
+        HttpResponse<String> response = send(request, true, push);
+        if (response.statusCode() != 200) {
+            throw new IOException("Failed to update branch " + branch + " of " + repositoryName + ": " + response.body());
+        }
+
+        System.out.println("Committed " + treeEntries.size() + " file changes to " + repositoryName + "@" + branch + " as " + commitSha);
+        return commitSha;
+    }
+
+    /**
+     * Uploads the blobs that failed in the first pass once more. A commit that left any of them
+     * out would publish a partial project, so the push fails if one still can't be uploaded.
+     */
+    private void uploadMissingBlobs(List<GitHubUploadScheduler.Failure<GitHubFile>> failed,
+                                    GitHubUploadScheduler.Task<GitHubFile, String> uploadBlob,
+                                    Map<String, String> blobShas, int total, String repositoryName,
+                                    PushContext push) throws IOException, InterruptedException {
+        if (failed.isEmpty()) {
+            return;
+        }
+
+        System.out.println("⚠️ Retrying " + failed.size() + " failed blob uploads to " + repositoryName);
+        List<GitHubFile> retries = new ArrayList<>();
+        for (GitHubUploadScheduler.Failure<GitHubFile> failure : failed) {
+            retries.add(failure.item());
+        }
+        GitHubUploadScheduler.BatchResult<GitHubFile, String> retried = uploadScheduler.runAll(retries, uploadBlob);
+        for (int i = 0; i < retries.size(); i++) {
+            if (retried.results().get(i) != null) {
+                blobShas.put(retries.get(i).getFilePath(), retried.results().get(i));
+            }
+        }
+
+        if (!retried.failures().isEmpty()) {
+            for (GitHubUploadScheduler.Failure<GitHubFile> failure : retried.failures()) {
+                System.err.println("Failed to push file " + failure.item().getFilePath() + ": " + failure.message());
+                push.failures.add(failure.item().getFilePath() + ": " + failure.message());
+            }
+            throw new IOException(retried.failures().size() + " of " + total + " changed files failed to upload to "
+                    + repositoryName + ", nothing was committed; first failure: "
+                    + retried.failures().get(0).item().getFilePath() + ": " + retried.failures().get(0).message());
+        }
+    }
+
+    /**
+     * Reads the full remote tree (blobs only) in one request. A truncated tree is treated
+     * as unknown, so every file is uploaded.
+     */
+    private Map<String, RemoteEntry> getRemoteTree(String repoUrl, String treeSha, String token,
+                                                   PushContext push)
+            throws IOException, InterruptedException {
+
+        Map<String, RemoteEntry> entries = new HashMap<>();
+        JsonNode tree = getJson(repoUrl + "/git/trees/" + treeSha + "?recursive=1", token, push);
+        if (tree == null || tree.path("truncated").asBoolean(false)) {
+            return entries;
+        }
+        for (JsonNode entry : tree.path("tree")) {
+            if ("blob".equals(entry.path("type").asText())) {
+                entries.put(entry.path("path").asText(),
+                        new RemoteEntry(entry.path("sha").asText(), entry.path("mode").asText()));
+            }
+        }
+        return entries;
+    }
+
+    private record RemoteEntry(String sha, String mode) {}
+
+    private static String commitMessage(PushContext push) {
+        StringBuilder message = new StringBuilder("Update generated files: ")
+                .append(push.changed.get()).append(" changed");
+        if (push.deleted.get() > 0) {
+            message.append(", ").append(push.deleted.get()).append(" deleted");
+        }
+        return message.toString();
+    }
+
+    /**
+     * Adds the failed files of a batch to the push context; fails the push if nothing got through
+     */
+    private void recordFailures(GitHubUploadScheduler.BatchResult<GitHubFile, ?> batch, int total,
+                                String repositoryName, PushContext push) throws IOException {
+        for (GitHubUploadScheduler.Failure<GitHubFile> failure : batch.failures()) {
+            System.err.println("Failed to push file " + failure.item().getFilePath() + ": " + failure.message());
+            push.failures.add(failure.item().getFilePath() + ": " + failure.message());
+        }
+        if (total > 0 && batch.failures().size() == total) {
+            throw new IOException("All " + total + " files failed to push to " + repositoryName
+                    + ", first failure: " + batch.failures().get(0).message());
+        }
+    }
+
+    /**
+     * Gets the commit SHA the branch points to (returns null if the branch doesn't exist yet)
+     */
+    private String getBranchHeadSha(String username, String repositoryName, String branch,
+                                    String token, PushContext push)
+            throws IOException, InterruptedException {
+
+        JsonNode ref = getJson(GITHUB_API_BASE + "/repos/" + username + "/" + repositoryName
+                + "/git/ref/heads/" + branch, token, push);
+        return ref != null ? ref.path("object").path("sha").asText(null) : null;
+    }
+
+    private JsonNode getJson(String url, String token, PushContext push)
+            throws IOException, InterruptedException {
+
+        GitHubMetadataCache.Response response = getCached(url, token, push);
+        return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+    }
+
+    private JsonNode postJson(String url, JsonNode payload, boolean retryTransient, String token, PushContext push,
+                              int expectedStatus)
+            throws IOException, InterruptedException {
+        return postJson(url, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)),
+                retryTransient, token, push, expectedStatus);
+    }
+
+    private JsonNode postJson(String url, HttpRequest.BodyPublisher body, boolean retryTransient, String token,
+                              PushContext push, int expectedStatus)
+            throws IOException, InterruptedException {
+
+        HttpResponse<String> response = send(jsonRequest(url, token).POST(body).build(), retryTransient, push);
+        if (response.statusCode() != expectedStatus) {
+            throw new IOException("GitHub request " + url + " failed with status "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static HttpRequest.Builder jsonRequest(String url, String token) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Authorization", "token " + token)
+                .header("Accept", "application/vnd.github.v3+json")
+                .header("Content-Type", "application/json");
+    }
+
+    /**
+     * Sends a request to GitHub through the rate-limit-aware scheduler, counting every attempt
+     * as one round trip of the current push
+     */
+    private HttpResponse<String> send(HttpRequest request, PushContext push)
+            throws IOException, InterruptedException {
+        return uploadScheduler.execute(request, attempt -> {
+            push.roundTrips.incrementAndGet();
+            return httpClient.send(attempt, HttpResponse.BodyHandlers.ofString());
+        });
+    }
+
+    /**
+     * Sends a request like {@link #send(HttpRequest, PushContext)}, retrying transient failures
+     * only if retryTransient is set (for requests that are safe to repeat whatever their method)
+     */
+    private HttpResponse<String> send(HttpRequest request, boolean retryTransient, PushContext push)
+            throws IOException, InterruptedException {
+        return uploadScheduler.execute(request, retryTransient, attempt -> {
+            push.roundTrips.incrementAndGet();
+            return httpClient.send(attempt, HttpResponse.BodyHandlers.ofString());
+        });
+    }
+
+    /**
+     * Creates or updates a file using GitHub Contents API
+     */
+    private void createOrUpdateFile(String username, String repositoryName,
+                                    GitHubFile file, String token, PushContext push)
+            throws IOException, InterruptedException {
+
+        String url = GITHUB_API_BASE + "/repos/" + username + "/" + repositoryName + "/contents/" + file.getFilePath();
+
+        // First, check if file exists to get its SHA (for updates)
+        String existingSha = getFileSha(username, repositoryName, file.getFilePath(), token, push);
+        if (existingSha != null && existingSha.equals(GitObjects.blobSha(file))) {
+            push.skipped.incrementAndGet();
+            return;
+        }
+
+        ObjectNode fields = objectMapper.createObjectNode().put("message", "Add " + file.getFilePath());
+        if (existingSha != null) {
+            // Update existing file
+            fields.put("sha", existingSha);
+        }
+        // The content is base64-encoded while the request is sent
+        HttpRequest.BodyPublisher payload = Base64JsonBodyPublisher.of(objectMapper, fields, "content", file);
+
+        HttpResponse<String> response = send(jsonRequest(url, token).PUT(payload).build(), push);
+
+        if (response.statusCode() != 200 && response.statusCode() != 201) {
+            // Reported in the push result; the remaining files are still pushed
+            throw new IOException("status " + response.statusCode() + ": " + response.body());
+        }
+        push.changed.incrementAndGet();
+        System.out.println("Successfully created/updated file: " + file.getFilePath());
+    }
+
+    /**
+     * Gets the SHA of an existing file (returns null if file doesn't exist)
+     */
+    private String getFileSha(String username, String repositoryName, String filePath, String token,
+                              PushContext push)
+            throws IOException, InterruptedException {
+
+        String url = GITHUB_API_BASE + "/repos/" + username + "/" + repositoryName + "/contents/" + filePath;
+
+        GitHubMetadataCache.Response response = getCached(url, token, push);
+
+        if (response.statusCode() == 200) {
+            // A directory at this path comes back as an array without a sha
+            String sha = objectMapper.readTree(response.body()).path("sha").asText(null);
+            return sha == null || sha.isEmpty() ? null : sha;
+        }
+
+        return null; // File doesn't exist
+    }
+
+    private GitHubRepositoryResult buildResult(String repositoryUrl, String repositoryName,
+                                              PushContext push) {
+        long elapsedMillis = (System.nanoTime() - push.startNanos) / 1_000_000;
+        int filesCount = push.files.get();
+        int pushedCount = filesCount - push.failures.size();
+        System.out.println("Pushed " + pushedCount + "/" + filesCount + " files to " + repositoryName
+                + " (" + push.changed.get() + " changed, " + push.skipped.get() + " unchanged, "
+                + push.deleted.get() + " deleted) in "
+                + push.roundTrips.get() + " GitHub round trips (" + push.cacheHits.get()
+                + " answered 304 from the metadata cache), " + elapsedMillis + " ms; metadata cache totals: "
+                + metadataCache.getHits() + " hits, " + metadataCache.getMisses() + " misses");
+        return new GitHubRepositoryResult(repositoryUrl, repositoryName, pushedCount,
+                push.roundTrips.get(), elapsedMillis, push.commitSha, List.copyOf(push.failures),
+                push.skipped.get(), push.changed.get(), push.deleted.get(), push.readyWaitMillis);
+    }
+
+    /**
+     * Per-push options and bookkeeping: GitHub round trips and metadata cache hits, start time, file and delta counts,
+     * failed files, the wait for a new repository and the resulting commit
+     */
+    private static final class PushContext {
+        private final boolean pruneMissing;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger roundTrips = new AtomicInteger();
+        private final AtomicInteger cacheHits = new AtomicInteger();
+        private final AtomicInteger files = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger changed = new AtomicInteger();
+        private final AtomicInteger deleted = new AtomicInteger();
+        private final List<String> failures = new CopyOnWriteArrayList<>();
+        private String commitSha;
+        private long readyWaitMillis;
+
+        private PushContext(boolean pruneMissing) {
+            this.pruneMissing = pruneMissing;
+        }
+    }
+}
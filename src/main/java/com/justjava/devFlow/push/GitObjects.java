@@ -0,0 +1,62 @@
+package com.justjava.devFlow.push;
+
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Git object helpers shared by the push targets
+ */
+public final class GitObjects {
+
+    private GitObjects() {
+    }
+
+    /**
+     * Computes the git blob SHA-1 of the content ("blob <length>\0<content>"),
+     * which is what GitHub reports for files in trees and the contents API
+     */
+    public static String blobSha(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(("blob " + content.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            digest.update(content);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    /**
+     * Blob SHA-1 of the file's content, hashed while the content is encoded
+     */
+    public static String blobSha(GitHubFile file) {
+        try (InputStream content = file.openContent()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(("blob " + file.getContentLength() + "\0").getBytes(StandardCharsets.US_ASCII));
+            content.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Git file mode for a path: wrapper scripts must stay executable
+     */
+    public static String fileMode(String filePath) {
+        String fileName = filePath.substring(filePath.lastIndexOf('/') + 1);
+        return fileName.equals("mvnw") || fileName.equals("gradlew") || fileName.endsWith(".sh")
+                ? "100755" : "100644";
+    }
+}
@@ -0,0 +1,264 @@
+package com.justjava.devFlow.push;
+
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubRepositoryResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pushes into bare git repositories on the local filesystem ({@code <dir>/<owner>/<name>.git}),
+ * optionally mirroring each new commit to another git server.
+ *
+ * All files of a push are streamed through a single {@code git fast-import} process: changed
+ * files are written as blobs while the source is read, then one commit on top of the current
+ * branch head references them. Files whose blob SHA and mode already match the branch are
+ * skipped, and the mirror receives the whole commit in one {@code git push}.
+ */
+@Component
+public class LocalGitPushTarget implements RepositoryPushTarget {
+
+    public static final String NAME = "local";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path baseDirectory;
+    private final String branch;
+    private final String mirrorUrl;
+    private final String gitExecutable;
+
+    public LocalGitPushTarget(
+            @Value("${app.push-target.local.dir:${java.io.tmpdir}/devflow-repositories}") String baseDirectory,
+            @Value("${app.push-target.local.branch:main}") String branch,
+            @Value("${app.push-target.local.mirror-url:}") String mirrorUrl,
+            @Value("${app.push-target.local.git:git}") String gitExecutable) {
+        this.baseDirectory = Path.of(baseDirectory);
+        this.branch = branch;
+        this.mirrorUrl = mirrorUrl;
+        this.gitExecutable = gitExecutable;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public GitHubRepositoryResult push(PushRequest request, FileSource files)
+            throws IOException, InterruptedException {
+
+        long startNanos = System.nanoTime();
+        Path repository = baseDirectory.resolve(safeName(request.getOwner()))
+                .resolve(safeName(request.getRepositoryName()) + ".git");
+        String ref = "refs/heads/" + branch;
+
+        if (!Files.isDirectory(repository)) {
+            Files.createDirectories(repository.getParent());
+            git(null, true, "init", "--bare", "--quiet", "--initial-branch=" + branch, repository.toString());
+            if (request.getDescription() != null) {
+                Files.writeString(repository.resolve("description"), request.getDescription() + "\n");
+            }
+            System.out.println("Created local repository: " + repository);
+        }
+
+        GitResult head = git(repository, false, "rev-parse", "--verify", "--quiet", ref);
+        String parentSha = head.exitCode() == 0 ? head.output().trim() : null;
+        Map<String, TreeEntry> existing = parentSha != null ? listTree(repository, parentSha) : Map.of();
+
+        ImportState state = fastImport(repository, ref, parentSha, existing, files, request.isPruneMissing());
+
+        List<String> failures = new ArrayList<>();
+        boolean committed = !state.changes.isEmpty() || !state.deletedPaths.isEmpty();
+        String commitSha = committed ? git(repository, true, "rev-parse", ref).output().trim() : parentSha;
+        int roundTrips = 0;
+        if (committed && mirrorUrl != null && !mirrorUrl.isBlank()) {
+            String url = mirrorUrl.replace("{owner}", safeName(request.getOwner()))
+                    .replace("{repository}", safeName(request.getRepositoryName()));
+            roundTrips++;
+            GitResult mirror = git(repository, false, "push", "--quiet", url, ref + ":" + ref);
+            if (mirror.exitCode() != 0) {
+                // The local commit stands; the next push mirrors it again
+                failures.add("mirror " + url + ": " + mirror.output().trim());
+                System.err.println("Failed to mirror " + repository + " to " + url + ": " + mirror.output());
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        System.out.println("Pushed " + state.total + " files to " + repository + " (" + state.changes.size()
+                + " changed, " + state.skipped + " unchanged, " + state.deletedPaths.size() + " deleted) in "
+                + elapsedMillis + " ms");
+        return new GitHubRepositoryResult(repository.toUri().toString(), request.getRepositoryName(), state.total,
+                roundTrips, elapsedMillis, commitSha, failures, state.skipped, state.changes.size(),
+                state.deletedPaths.size());
+    }
+
+    /**
+     * Streams the changed files into git fast-import as blobs, then writes one commit
+     * (only if something changed) that moves the branch
+     */
+    private ImportState fastImport(Path repository, String ref, String parentSha, Map<String, TreeEntry> existing,
+                                   FileSource files, boolean pruneMissing)
+            throws IOException, InterruptedException {
+
+        ImportState state = new ImportState();
+        Path log = Files.createTempFile("devflow-fast-import", ".log");
+        try {
+            Process process = new ProcessBuilder(gitExecutable, "--git-dir=" + repository,
+                    "fast-import", "--quiet", "--date-format=now")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                    .start();
+
+            try (OutputStream out = new BufferedOutputStream(process.getOutputStream(), WRITE_BUFFER_SIZE)) {
+                files.forEach(file -> {
+                    state.total++;
+                    state.localPaths.add(file.getFilePath());
+                    String mode = GitObjects.fileMode(file.getFilePath());
+                    TreeEntry current = existing.get(file.getFilePath());
+                    if (current != null && current.mode().equals(mode)
+                            && current.sha().equals(GitObjects.blobSha(file))) {
+                        state.skipped++;
+                        return;
+                    }
+                    int mark = state.changes.size() + 1;
+                    write(out, "blob\nmark :" + mark + "\ndata " + file.getContentLength() + "\n");
+                    try (InputStream content = file.openContent()) {
+                        content.transferTo(out);
+                    }
+                    write(out, "\n");
+                    state.changes.add(new Change(file.getFilePath(), mode, mark));
+                });
+
+                if (pruneMissing) {
+                    for (String path : existing.keySet()) {
+                        if (!state.localPaths.contains(path)) {
+                            state.deletedPaths.add(path);
+                        }
+                    }
+                }
+
+                if (!state.changes.isEmpty() || !state.deletedPaths.isEmpty()) {
+                    byte[] message = commitMessage(state.changes.size(), state.deletedPaths.size())
+                            .getBytes(StandardCharsets.UTF_8);
+                    write(out, "commit " + ref + "\ncommitter DEVFlow <devflow@localhost> now\n"
+                            + "data " + message.length + "\n");
+                    out.write(message);
+                    write(out, "\n");
+                    if (parentSha != null) {
+                        write(out, "from " + parentSha + "\n");
+                    }
+                    for (Change change : state.changes) {
+                        write(out, "M " + change.mode() + " :" + change.mark() + " " + quotePath(change.path()) + "\n");
+                    }
+                    for (String path : state.deletedPaths) {
+                        write(out, "D " + quotePath(path) + "\n");
+                    }
+                    write(out, "\n");
+                }
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                process.destroy();
+                throw e;
+            }
+
+            if (process.waitFor() != 0) {
+                throw new IOException("git fast-import failed for " + repository + ": " + Files.readString(log));
+            }
+        } finally {
+            Files.deleteIfExists(log);
+        }
+        return state;
+    }
+
+    /**
+     * Reads the blobs of a commit's tree with their SHA and mode
+     */
+    private Map<String, TreeEntry> listTree(Path repository, String commitSha) throws IOException, InterruptedException {
+        Map<String, TreeEntry> entries = new HashMap<>();
+        // -z output: "<mode> <type> <sha>\t<path>\0"
+        for (String line : git(repository, true, "ls-tree", "-r", "-z", "--full-tree", commitSha).output().split("\0")) {
+            int tab = line.indexOf('\t');
+            if (tab < 0) {
+                continue;
+            }
+            String[] meta = line.substring(0, tab).split(" ");
+            if (meta.length == 3 && "blob".equals(meta[1])) {
+                entries.put(line.substring(tab + 1), new TreeEntry(meta[2], meta[0]));
+            }
+        }
+        return entries;
+    }
+
+    private GitResult git(Path gitDir, boolean check, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(gitExecutable);
+        if (gitDir != null) {
+            command.add("--git-dir=" + gitDir);
+        }
+        command.addAll(List.of(args));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        process.getOutputStream().close();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+        if (check && exitCode != 0) {
+            throw new IOException("git " + String.join(" ", args) + " failed (" + exitCode + "): " + output.trim());
+        }
+        return new GitResult(exitCode, output);
+    }
+
+    private static String commitMessage(int changed, int deleted) {
+        StringBuilder message = new StringBuilder("Update generated files: ").append(changed).append(" changed");
+        if (deleted > 0) {
+            message.append(", ").append(deleted).append(" deleted");
+        }
+        return message.toString();
+    }
+
+    /**
+     * fast-import takes paths verbatim unless they start with a quote or contain a newline
+     */
+    private static String quotePath(String path) {
+        if (!path.startsWith("\"") && path.indexOf('\n') < 0) {
+            return path;
+        }
+        return "\"" + path.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    /**
+     * Keeps owner and repository names usable as single directory names
+     */
+    private static String safeName(String name) {
+        String safe = name == null ? "" : name.replaceAll("[^A-Za-z0-9._-]", "-").replaceAll("^\\.+", "");
+        return safe.isEmpty() ? "default" : safe;
+    }
+
+    private static void write(OutputStream out, String command) throws IOException {
+        out.write(command.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record TreeEntry(String sha, String mode) {}
+
+    private record Change(String path, String mode, int mark) {}
+
+    private record GitResult(int exitCode, String output) {}
+
+    private static final class ImportState {
+        private final Set<String> localPaths = new HashSet<>();
+        private final List<Change> changes = new ArrayList<>();
+        private final List<String> deletedPaths = new ArrayList<>();
+        private int total;
+        private int skipped;
+    }
+}
@@ -0,0 +1,68 @@
+package com.justjava.devFlow.push;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Outbox entry for a push that runs outside the Flowable transaction. The execution waiting on a
+ * triggerable service task is triggered once the job succeeds or finally fails. Credentials are
+ * not stored; the worker reads them from the process when the job runs.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "push_job", indexes = @Index(name = "idx_push_job_due", columnList = "status, next_attempt_at"))
+public class PushJob {
+
+    public enum Status { PENDING, RUNNING, SUCCEEDED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+    @Column(name = "kind", nullable = false, length = 64)
+    private String kind;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+    @Column(name = "execution_id", nullable = false, length = 64)
+    private String executionId;
+    @Column(name = "process_instance_id", length = 64)
+    private String processInstanceId;
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+    @Column(name = "repository_name", nullable = false)
+    private String repositoryName;
+    @Column(name = "repository_description", columnDefinition = "text")
+    private String repositoryDescription;
+    @Column(name = "owner", nullable = false)
+    private String owner;
+    @Column(name = "private_repository", nullable = false)
+    private boolean privateRepository;
+    @Column(name = "push_target", length = 64)
+    private String pushTarget;
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+        if (createdAt == null) {
+            createdAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.justjava.devFlow.push;
+
+import java.util.Map;
+
+/**
+ * Runs outbox jobs of one kind and maps their outcome to the process variables
+ * set when the waiting execution is triggered
+ */
+public interface PushJobHandler {
+
+    String getJobKind();
+
+    /**
+     * Runs the push; the returned variables are set on the execution when it is triggered
+     */
+    Map<String, Object> process(PushJob job, String githubToken) throws Exception;
+
+    /**
+     * Variables set on the execution when the job failed for good
+     */
+    Map<String, Object> failureVariables(String errorMessage);
+}
@@ -0,0 +1,49 @@
+package com.justjava.devFlow.push;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface PushJobRepository extends JpaRepository<PushJob, Long> {
+
+    /**
+     * Pending jobs that are due and running jobs whose lease expired (their worker died), locked
+     * with SKIP LOCKED so several application instances can poll the same table
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select j from PushJob j"
+            + " where (j.status = :pending and j.nextAttemptAt <= :now)"
+            + " or (j.status = :running and j.lockedUntil < :now)"
+            + " order by j.nextAttemptAt")
+    List<PushJob> findClaimable(@Param("pending") PushJob.Status pending,
+                                @Param("running") PushJob.Status running,
+                                @Param("now") Instant now, Pageable page);
+
+    /**
+     * The job locked for recording an outcome, so it can't be reclaimed at the same time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from PushJob j where j.id = :id")
+    Optional<PushJob> findForUpdate(@Param("id") Long id);
+
+    /**
+     * Extends the lease of a running job, unless it was reclaimed (another attempt); returns the
+     * number of updated rows
+     */
+    @Modifying
+    @Query("update PushJob j set j.lockedUntil = :lockedUntil"
+            + " where j.id = :id and j.status = :running and j.attempts = :attempts")
+    int renewLease(@Param("id") Long id, @Param("attempts") int attempts,
+                   @Param("running") PushJob.Status running, @Param("lockedUntil") Instant lockedUntil);
+}
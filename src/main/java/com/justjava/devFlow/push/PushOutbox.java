@@ -0,0 +1,72 @@
+package com.justjava.devFlow.push;
+
+import org.flowable.bpmn.model.ServiceTask;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.delegate.DelegateExecution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Queues pushes in the push_job table instead of running them inside the delegate.
+ *
+ * Only service tasks marked {@code flowable:triggerable="true"} are queued: the execution waits on
+ * the task until {@link PushOutboxWorker} triggers it. The insert joins the Flowable transaction,
+ * so a job exists exactly when the process reached the wait state. With the outbox disabled the
+ * delegate pushes inline and calls {@link #completeInline}, so the execution doesn't stay waiting.
+ */
+@Service
+public class PushOutbox {
+
+    private final PushJobRepository pushJobRepository;
+    private final RuntimeService runtimeService;
+    private final boolean enabled;
+
+    public PushOutbox(PushJobRepository pushJobRepository, RuntimeService runtimeService,
+                      @Value("${app.push-outbox.enabled:true}") boolean enabled) {
+        this.pushJobRepository = pushJobRepository;
+        this.runtimeService = runtimeService;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether the current task should queue its push instead of running it inline
+     */
+    public boolean shouldQueue(DelegateExecution execution) {
+        return enabled && isTriggerable(execution);
+    }
+
+    /**
+     * Moves a triggerable task on after its push ran inline. The trigger is queued as an async
+     * job in the current transaction, so it runs once the execution waits on the task.
+     */
+    public void completeInline(DelegateExecution execution) {
+        if (isTriggerable(execution)) {
+            runtimeService.triggerAsync(execution.getId());
+        }
+    }
+
+    private static boolean isTriggerable(DelegateExecution execution) {
+        return execution.getCurrentFlowElement() instanceof ServiceTask serviceTask && serviceTask.isTriggerable();
+    }
+
+    public PushJob enqueue(DelegateExecution execution, String kind, String payload, String repositoryName,
+                           String repositoryDescription, boolean isPrivateRepo, String owner, String pushTarget) {
+        PushJob job = new PushJob();
+        job.setKind(kind);
+        job.setStatus(PushJob.Status.PENDING);
+        job.setExecutionId(execution.getId());
+        job.setProcessInstanceId(execution.getProcessInstanceId());
+        job.setPayload(payload);
+        job.setRepositoryName(repositoryName);
+        job.setRepositoryDescription(repositoryDescription);
+        job.setPrivateRepository(isPrivateRepo);
+        job.setOwner(owner);
+        job.setPushTarget(pushTarget);
+        job.setNextAttemptAt(Instant.now());
+        PushJob saved = pushJobRepository.save(job);
+        System.out.println("📨 Queued " + kind + " push job " + saved.getId() + " for repository " + repositoryName);
+        return saved;
+    }
+}
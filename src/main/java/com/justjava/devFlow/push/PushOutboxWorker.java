@@ -0,0 +1,227 @@
+package com.justjava.devFlow.push;
+
+import jakarta.annotation.PreDestroy;
+import org.flowable.engine.RuntimeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes queued push jobs on a fixed pool of worker threads.
+ *
+ * Database work happens in short transactions only: claiming a batch of due jobs, and recording
+ * the outcome together with the trigger of the waiting execution. The push itself runs without a
+ * transaction, so it holds no pooled connection. Failed jobs are retried with exponential backoff
+ * until the attempt limit, then the execution is triggered with failure variables. A claimed job
+ * whose worker dies is picked up again once its lease expires; the lease of a running job is
+ * renewed while it runs, and an attempt that lost its job to a newer one records nothing.
+ */
+@Component
+public class PushOutboxWorker {
+
+    private final PushJobRepository pushJobRepository;
+    private final RuntimeService runtimeService;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, PushJobHandler> handlers = new HashMap<>();
+    private final ExecutorService workers;
+    private final Semaphore idleWorkers;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    // Jobs running on this instance, by id, with the attempt that holds their lease
+    private final Map<Long, Integer> running = new ConcurrentHashMap<>();
+    private volatile Instant leasesRenewedAt = Instant.now();
+
+    public PushOutboxWorker(PushJobRepository pushJobRepository, RuntimeService runtimeService,
+                            PlatformTransactionManager transactionManager, List<PushJobHandler> handlers,
+                            @Value("${app.push-outbox.workers:4}") int workerCount,
+                            @Value("${app.push-outbox.max-attempts:5}") int maxAttempts,
+                            @Value("${app.push-outbox.lease-ms:900000}") long leaseMillis,
+                            @Value("${app.push-outbox.initial-backoff-ms:30000}") long initialBackoffMillis,
+                            @Value("${app.push-outbox.max-backoff-ms:1800000}") long maxBackoffMillis) {
+        this.pushJobRepository = pushJobRepository;
+        this.runtimeService = runtimeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (PushJobHandler handler : handlers) {
+            this.handlers.put(handler.getJobKind(), handler);
+        }
+        int poolSize = Math.max(1, workerCount);
+        this.workers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "push-outbox-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.idleWorkers = new Semaphore(poolSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMillis);
+    }
+
+    /**
+     * Renews the leases of running jobs and claims as many due jobs as there are idle workers
+     */
+    @Scheduled(fixedDelayString = "${app.push-outbox.poll-interval-ms:2000}")
+    public void poll() {
+        renewLeases();
+
+        int capacity = idleWorkers.availablePermits();
+        if (capacity == 0) {
+            return;
+        }
+
+        List<PushJob> claimed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<PushJob> jobs = pushJobRepository.findClaimable(
+                    PushJob.Status.PENDING, PushJob.Status.RUNNING, now, PageRequest.of(0, capacity));
+            for (PushJob job : jobs) {
+                job.setStatus(PushJob.Status.RUNNING);
+                job.setLockedUntil(now.plus(lease));
+                job.setAttempts(job.getAttempts() + 1);
+            }
+            return pushJobRepository.saveAll(jobs);
+        });
+
+        for (PushJob job : claimed) {
+            idleWorkers.acquireUninterruptibly();
+            running.put(job.getId(), job.getAttempts());
+            workers.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    running.remove(job.getId());
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Extends the leases of the jobs running here every third of the lease, so a push that takes
+     * longer than the lease isn't reclaimed and pushed a second time
+     */
+    private void renewLeases() {
+        Instant now = Instant.now();
+        if (running.isEmpty() || now.isBefore(leasesRenewedAt.plus(lease.dividedBy(3)))) {
+            return;
+        }
+        leasesRenewedAt = now;
+        transactionTemplate.executeWithoutResult(status -> running.forEach((id, attempts) -> {
+            if (pushJobRepository.renewLease(id, attempts, PushJob.Status.RUNNING, now.plus(lease)) == 0) {
+                System.err.println("⚠️ Push job " + id + " attempt " + attempts + " lost its lease");
+            }
+        }));
+    }
+
+    private void run(PushJob job) {
+        PushJobHandler handler = handlers.get(job.getKind());
+        if (handler == null) {
+            fail(job, null, "No handler for push job kind " + job.getKind());
+            return;
+        }
+
+        Map<String, Object> variables;
+        try {
+            Object githubToken = runtimeService.getVariable(job.getExecutionId(), "githubToken");
+            variables = handler.process(job, githubToken != null ? githubToken.toString() : null);
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            System.err.println("❌ Push job " + job.getId() + " attempt " + job.getAttempts() + " failed: " + message);
+            if (job.getAttempts() >= maxAttempts) {
+                fail(job, handler, message);
+            } else {
+                retryLater(job, message);
+            }
+            return;
+        }
+
+        try {
+            // The trigger joins the transaction, so the job is only marked done when the process moved on
+            if (record(job, PushJob.Status.SUCCEEDED, null, null,
+                    () -> runtimeService.trigger(job.getExecutionId(), variables))) {
+                System.out.println("✅ Push job " + job.getId() + " completed for repository " + job.getRepositoryName());
+            }
+        } catch (RuntimeException e) {
+            // The push is done; if the execution can't be triggered there's nothing left to retry
+            markFailed(job, "Push succeeded but triggering execution " + job.getExecutionId()
+                    + " failed: " + e.getMessage());
+        }
+    }
+
+    private void retryLater(PushJob job, String message) {
+        long backoff = Math.min(maxBackoff.toMillis(),
+                initialBackoff.toMillis() << Math.min(job.getAttempts() - 1, 20));
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        record(job, PushJob.Status.PENDING, message, Instant.now().plusMillis(jittered), () -> {});
+    }
+
+    private void fail(PushJob job, PushJobHandler handler, String message) {
+        Map<String, Object> variables = handler != null ? handler.failureVariables(message) : Map.of("errorMessage", message);
+        try {
+            record(job, PushJob.Status.FAILED, message, null,
+                    () -> runtimeService.trigger(job.getExecutionId(), variables));
+        } catch (RuntimeException e) {
+            markFailed(job, message + "; triggering execution " + job.getExecutionId() + " failed: " + e.getMessage());
+        }
+    }
+
+    private void markFailed(PushJob job, String message) {
+        System.err.println("❌ Push job " + job.getId() + ": " + message);
+        record(job, PushJob.Status.FAILED, message, null, () -> {});
+    }
+
+    /**
+     * Records the outcome of this attempt and runs the action in the same transaction, unless the
+     * job was reclaimed by a newer attempt after its lease expired: then that attempt records
+     * the outcome. Returns whether the outcome was recorded.
+     */
+    private boolean record(PushJob job, PushJob.Status status, String lastError, Instant nextAttemptAt,
+                           Runnable action) {
+        boolean recorded = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            PushJob current = pushJobRepository.findForUpdate(job.getId()).orElse(null);
+            if (current == null || current.getStatus() != PushJob.Status.RUNNING
+                    || current.getAttempts() != job.getAttempts()) {
+                return false;
+            }
+            action.run();
+            current.setStatus(status);
+            current.setLockedUntil(null);
+            current.setLastError(lastError);
+            if (nextAttemptAt != null) {
+                current.setNextAttemptAt(nextAttemptAt);
+            }
+            pushJobRepository.save(current);
+            return true;
+        }));
+        if (!recorded) {
+            System.err.println("⚠️ Push job " + job.getId() + " attempt " + job.getAttempts()
+                    + " was taken over by another attempt, leaving its outcome to that one");
+        }
+        return recorded;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            // Unfinished jobs stay RUNNING and are reclaimed after their lease expires
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.justjava.devFlow.push;
+
+/**
+ * Where to push: repository name and owner, creation settings and credentials.
+ * With pruneMissing, files in the repository that are not pushed are deleted.
+ */
+public final class PushRequest {
+    private final String repositoryName;
+    private final String description;
+    private final boolean isPrivate;
+    private final String owner;
+    private final String token;
+    private final boolean pruneMissing;
+
+    public PushRequest(String repositoryName, String description, boolean isPrivate,
+                       String owner, String token, boolean pruneMissing) {
+        this.repositoryName = repositoryName;
+        this.description = description;
+        this.isPrivate = isPrivate;
+        this.owner = owner;
+        this.token = token;
+        this.pruneMissing = pruneMissing;
+    }
+
+    public String getRepositoryName() { return repositoryName; }
+    public String getDescription() { return description; }
+    public boolean isPrivate() { return isPrivate; }
+    public String getOwner() { return owner; }
+    public String getToken() { return token; }
+    public boolean isPruneMissing() { return pruneMissing; }
+}
@@ -0,0 +1,37 @@
+package com.justjava.devFlow.push;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Looks up push targets by name; a missing name selects the configured default
+ */
+@Component
+public class PushTargetRegistry {
+
+    private final Map<String, RepositoryPushTarget> targets = new LinkedHashMap<>();
+    private final String defaultTarget;
+
+    public PushTargetRegistry(List<RepositoryPushTarget> targets,
+                              @Value("${app.push-target.default:github}") String defaultTarget) {
+        for (RepositoryPushTarget target : targets) {
+            this.targets.put(target.getName().toLowerCase(Locale.ROOT), target);
+        }
+        this.defaultTarget = defaultTarget;
+        get(defaultTarget);
+    }
+
+    public RepositoryPushTarget get(String name) {
+        String key = (name == null || name.isBlank() ? defaultTarget : name).trim().toLowerCase(Locale.ROOT);
+        RepositoryPushTarget target = targets.get(key);
+        if (target == null) {
+            throw new IllegalArgumentException("Unknown push target '" + key + "', available: " + targets.keySet());
+        }
+        return target;
+    }
+}
@@ -0,0 +1,23 @@
+package com.justjava.devFlow.push;
+
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubRepositoryResult;
+
+import java.io.IOException;
+
+/**
+ * A place generated projects are pushed to, e.g. GitHub or a local bare repository.
+ * Implementations are Spring beans and are looked up by name through {@link PushTargetRegistry}.
+ */
+public interface RepositoryPushTarget {
+
+    /**
+     * Name used to select this target (the {@code pushTarget} process variable)
+     */
+    String getName();
+
+    /**
+     * Pushes the files to the repository described by the request as one commit, creating the
+     * repository when it doesn't exist. Files are consumed from the source as they are produced.
+     */
+    GitHubRepositoryResult push(PushRequest request, FileSource files) throws IOException, InterruptedException;
+}
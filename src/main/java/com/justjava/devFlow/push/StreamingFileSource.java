@@ -0,0 +1,88 @@
+package com.justjava.devFlow.push;
+
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File source filled by a producer on another thread (e.g. files extracted from a streamed AI
+ * response), so the push target uploads each file while the next ones are still being produced.
+ * The files can be read once; reading ends when the producer closes or fails the source.
+ *
+ * At most {@code capacity} files wait to be read: {@link #add} blocks while the source is full, so
+ * a producer can't run ahead of the upload. Once the push is done with the source (it failed, or
+ * read everything), adding returns false instead of waiting for a reader that won't come.
+ */
+public final class StreamingFileSource implements FileSource {
+
+    private static final GitHubFile END = new GitHubFile("", new byte[0]);
+    private static final long ABANDON_CHECK_MILLIS = 100;
+
+    private final BlockingQueue<GitHubFile> files;
+    private volatile Exception failure;
+    private volatile boolean abandoned;
+
+    public StreamingFileSource(int capacity) {
+        this.files = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Adds the next file, waiting while the source is full; false if the push is done with the
+     * source, so the file won't be pushed
+     */
+    public boolean add(GitHubFile file) throws InterruptedException {
+        return offer(file);
+    }
+
+    /**
+     * No more files follow
+     */
+    public void close() throws InterruptedException {
+        offer(END);
+    }
+
+    /**
+     * The producer failed; the push reading this source fails with it
+     */
+    public void fail(Exception cause) throws InterruptedException {
+        failure = cause;
+        offer(END);
+    }
+
+    @Override
+    public void forEach(Sink sink) throws IOException, InterruptedException {
+        try {
+            for (GitHubFile file = files.take(); file != END; file = files.take()) {
+                sink.accept(file);
+            }
+        } finally {
+            abandon();
+        }
+        if (failure != null) {
+            throw new IOException("File source failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * The push is done with the source, whether it read it or not; producers stop waiting for room
+     */
+    public void abandon() {
+        abandoned = true;
+        files.clear();
+    }
+
+    /**
+     * Waits for room in the queue; false once nobody reads it anymore
+     */
+    private boolean offer(GitHubFile file) throws InterruptedException {
+        while (!abandoned) {
+            if (files.offer(file, ABANDON_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
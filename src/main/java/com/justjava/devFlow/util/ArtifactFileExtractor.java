@@ -1,45 +1,29 @@
 package com.justjava.devFlow.util;
 
+import com.justjava.devFlow.extraction.ExtractedFile;
+import com.justjava.devFlow.extraction.ExtractionEngine;
+import com.justjava.devFlow.extraction.ExtractionException;
+import com.justjava.devFlow.extraction.FileMarkerFormat;
+import com.justjava.devFlow.extraction.GitHubPushException;
+import com.justjava.devFlow.extraction.GitHubPushResult;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Extracts the files of a unified AI artifact (file path markers and fenced markdown) and pushes
+ * them to GitHub
+ */
 @Component
 public class ArtifactFileExtractor {
 
     private final SpringBootProjectGitHubService projectGitHubService;
+    private final ExtractionEngine extractionEngine;
 
-    public ArtifactFileExtractor(SpringBootProjectGitHubService projectGitHubService) {
+    public ArtifactFileExtractor(SpringBootProjectGitHubService projectGitHubService,
+                                 ExtractionEngine extractionEngine) {
         this.projectGitHubService = projectGitHubService;
-    }
-
-    // ======================================================
-    // 📦 Model Classes
-    // ======================================================
-
-    public static class ExtractedFile {
-        private final String filePath;
-        private final String content;
-        private final FileType fileType;
-
-        public ExtractedFile(String filePath, String content, FileType fileType) {
-            this.filePath = filePath;
-            this.content = content;
-            this.fileType = fileType;
-        }
-
-        public String getFilePath() { return filePath; }
-        public String getContent() { return content; }
-        public FileType getFileType() { return fileType; }
-    }
-
-    public enum FileType {
-        HTML_TEMPLATE,
-        JAVA_CLASS,
-        YAML_CONFIG,
-        UNKNOWN
+        this.extractionEngine = extractionEngine;
     }
 
     // ======================================================
@@ -52,168 +36,72 @@ public class ArtifactFileExtractor {
     public GitHubPushResult extractAndPushToGitHub(
             String artifact, String repositoryName, String githubUsername,
             String githubToken, String repositoryDescription, boolean isPrivateRepo)
-            throws FileExtractionException, GitHubPushException {
+            throws ExtractionException, GitHubPushException {
+        return extractAndPushToGitHub(artifact, repositoryName, githubUsername, githubToken,
+                repositoryDescription, isPrivateRepo, null);
+    }
+
+    /**
+     * Extracts files and pushes them to the named push target (the configured default when null)
+     */
+    public GitHubPushResult extractAndPushToGitHub(
+            String artifact, String repositoryName, String githubUsername,
+            String githubToken, String repositoryDescription, boolean isPrivateRepo,
+            String pushTarget)
+            throws ExtractionException, GitHubPushException {
 
         try {
             System.out.println("🚀 Starting extraction + GitHub push process...");
 
-            List<ExtractedFile> extractedFiles = extractFilesFromUnifiedFormat(artifact);
+            ExtractionEngine.Extraction extraction = extract(artifact);
+            List<ExtractedFile> extractedFiles = extraction.files();
 
             if (extractedFiles.isEmpty()) {
-                throw new FileExtractionException("No files were extracted from the artifact");
+                throw new ExtractionException("No files were extracted from the artifact");
             }
 
             System.out.println("✅ Extracted " + extractedFiles.size() + " files. Now pushing to GitHub...");
 
-            List<SpringBootProjectGitHubService.GitHubFile> githubFiles = convertToGitHubFiles(extractedFiles);
-
             SpringBootProjectGitHubService.GitHubRepositoryResult result =
                     projectGitHubService.pushFilesToGitHubRepository(
-                            githubFiles, repositoryName, repositoryDescription, isPrivateRepo,
-                            githubUsername, githubToken
+                            ExtractedFile.toGitHubFiles(extractedFiles), repositoryName, repositoryDescription,
+                            isPrivateRepo, githubUsername, githubToken, false, pushTarget
                     );
 
             return new GitHubPushResult(
                     result.getRepositoryUrl(),
                     result.getRepositoryName(),
                     result.getFilesCount(),
-                    extractedFiles.size()
+                    extractedFiles.size(),
+                    extraction.fileTypeBreakdown().copy()
             );
 
         } catch (SpringBootProjectGitHubService.GitHubPushException e) {
             throw new GitHubPushException("Failed to push extracted files to GitHub: " + e.getMessage(), e);
         } catch (Exception e) {
-            throw new FileExtractionException("Error during file extraction: " + e.getMessage(), e);
+            throw new ExtractionException("Error during file extraction: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Enhanced extraction logic supporting:
+     * Files of the artifact, marked by any of:
      * - **File Path:** `path`
      * - <!-- src/... -->
      * - # src/...
+     * - // src/...
      * - Inline `src/main/...`
+     * - a path in the info string of a code fence (```java src/main/...)
+     *
+     * The files of an unchanged artifact come from the extraction cache; the returned list is
+     * unmodifiable.
      */
     public List<ExtractedFile> extractFilesFromUnifiedFormat(String artifact) {
-        List<ExtractedFile> extractedFiles = new ArrayList<>();
-        System.out.println("🔍 Scanning artifact for file markers...");
-
-        // Matches various path formats
-        Pattern pathPattern = Pattern.compile(
-                "(?:\\*\\*File Path:\\*\\*\\s*`([^`]+?\\.\\w+)`|" +    // **File Path:** `...`
-                        "<!--\\s*((?:[\\w.-]+/)+[\\w.-]+\\.[a-z]+)\\s*-->|" +  // <!-- src/... -->
-                        "#\\s*((?:[\\w.-]+/)+[\\w.-]+\\.[a-z]+)|" +            // # src/...
-                        "//\\s*((?:[\\w.-]+/)+[\\w.-]+\\.[a-z]+)|" +           // // src/...
-                        "^(?:((?:[\\w.-]+/)+[\\w.-]+\\.[a-z]+)))",             // Plain src/...
-                Pattern.MULTILINE
-        );
-
-        Matcher matcher = pathPattern.matcher(artifact);
-        List<FileMarker> markers = new ArrayList<>();
-
-        while (matcher.find()) {
-            String path = Optional.ofNullable(matcher.group(1))
-                    .orElse(Optional.ofNullable(matcher.group(2))
-                            .orElse(Optional.ofNullable(matcher.group(3))
-                                    .orElse(matcher.group(4))));
-            if (path != null) {
-                markers.add(new FileMarker(path.trim(), matcher.start()));
-            }
-        }
-
-        for (int i = 0; i < markers.size(); i++) {
-            FileMarker current = markers.get(i);
-            int start = current.index;
-            int end = (i + 1 < markers.size()) ? markers.get(i + 1).index : artifact.length();
-
-            String section = artifact.substring(start, end);
-            String content = extractFileContent(section);
-            FileType type = determineFileType(current.path);
-
-            if (content != null && !content.isBlank()) {
-                extractedFiles.add(new ExtractedFile(current.path, content, type));
-                System.out.println("✅ Extracted: " + current.path + " (" + type + ")");
-            }
-        }
-
-        System.out.println("📦 Total files extracted: " + extractedFiles.size());
-        return extractedFiles;
-    }
-
-    private record FileMarker(String path, int index) {}
-
-    /**
-     * Extract file content (between code fences or directly under marker)
-     */
-    private String extractFileContent(String section) {
-        // Code fence block (```java, ```html, etc.)
-        Pattern codeFence = Pattern.compile("(?s)```[a-zA-Z]*\\s*([\\s\\S]+?)```");
-        Matcher fenceMatcher = codeFence.matcher(section);
-        if (fenceMatcher.find()) {
-            return fenceMatcher.group(1).trim();
-        }
-
-        // Otherwise extract everything after first newline
-        String[] lines = section.split("\\r?\\n", 2);
-        if (lines.length > 1) {
-            return lines[1].trim();
-        }
-
-        return null;
-    }
-
-    /**
-     * Determine file type based on extension
-     */
-    private FileType determineFileType(String filePath) {
-        if (filePath.endsWith(".java")) return FileType.JAVA_CLASS;
-        if (filePath.endsWith(".html")) return FileType.HTML_TEMPLATE;
-        if (filePath.endsWith(".yml") || filePath.endsWith(".yaml")) return FileType.YAML_CONFIG;
-        return FileType.UNKNOWN;
-    }
-
-    // ======================================================
-    // 🧩 Helper Converters
-    // ======================================================
-
-    private List<SpringBootProjectGitHubService.GitHubFile> convertToGitHubFiles(List<ExtractedFile> extractedFiles) {
-        List<SpringBootProjectGitHubService.GitHubFile> githubFiles = new ArrayList<>();
-        for (ExtractedFile ef : extractedFiles) {
-            githubFiles.add(new SpringBootProjectGitHubService.GitHubFile(ef.getFilePath(), ef.getContent()));
-        }
-        return githubFiles;
-    }
-
-    // ======================================================
-    // 📊 Result & Exceptions
-    // ======================================================
-
-    public static class GitHubPushResult {
-        private final String repositoryUrl;
-        private final String repositoryName;
-        private final int filesPushed;
-        private final int filesExtracted;
-
-        public GitHubPushResult(String repositoryUrl, String repositoryName, int filesPushed, int filesExtracted) {
-            this.repositoryUrl = repositoryUrl;
-            this.repositoryName = repositoryName;
-            this.filesPushed = filesPushed;
-            this.filesExtracted = filesExtracted;
-        }
-
-        public String getRepositoryUrl() { return repositoryUrl; }
-        public String getRepositoryName() { return repositoryName; }
-        public int getFilesPushed() { return filesPushed; }
-        public int getFilesExtracted() { return filesExtracted; }
-    }
-
-    public static class FileExtractionException extends Exception {
-        public FileExtractionException(String message) { super(message); }
-        public FileExtractionException(String message, Throwable cause) { super(message, cause); }
+        return extract(artifact).files();
     }
 
-    public static class GitHubPushException extends Exception {
-        public GitHubPushException(String message) { super(message); }
-        public GitHubPushException(String message, Throwable cause) { super(message, cause); }
+    private ExtractionEngine.Extraction extract(String artifact) {
+        // One grammar, the one the streamed extraction uses: a fence that names its file is one of
+        // the markers, so it ends the file before it instead of being taken twice
+        return extractionEngine.extract(artifact, FileMarkerFormat.NAME);
     }
 }
@@ -0,0 +1,66 @@
+package com.justjava.devFlow.util;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+
+/**
+ * Output formats of the {@link PlantUmlService}. SVG is cheaper to produce than PNG and much
+ * smaller for large architecture diagrams; PNG can be rendered scaled up for high-DPI screens.
+ */
+public enum DiagramFormat {
+
+    PNG("png", FileFormat.PNG, "image/png"),
+    SVG("svg", FileFormat.SVG, "image/svg+xml");
+
+    /** Largest scale factor accepted for PNG output */
+    public static final int MAX_SCALE = 4;
+
+    private final String extension;
+    private final FileFormat fileFormat;
+    private final String contentType;
+
+    DiagramFormat(String extension, FileFormat fileFormat, String contentType) {
+        this.extension = extension;
+        this.fileFormat = fileFormat;
+        this.contentType = contentType;
+    }
+
+    /**
+     * The format with this file extension (case-insensitive), or null
+     */
+    public static DiagramFormat fromExtension(String extension) {
+        for (DiagramFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Whether the format can be rendered at this scale: 1 for all, up to MAX_SCALE for PNG
+     */
+    public boolean supportsScale(int scale) {
+        return scale == 1 || (this == PNG && scale > 1 && scale <= MAX_SCALE);
+    }
+
+    /**
+     * Name of the format at a scale in render cache keys and ETags, e.g. "png" or "png@2x"
+     */
+    public String cacheName(int scale) {
+        return scale == 1 ? extension : extension + "@" + scale + "x";
+    }
+
+    FileFormatOption option(int scale) {
+        FileFormatOption option = new FileFormatOption(fileFormat);
+        return scale == 1 ? option : option.withScale(scale);
+    }
+}
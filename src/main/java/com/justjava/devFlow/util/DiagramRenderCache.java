@@ -0,0 +1,213 @@
+package com.justjava.devFlow.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendered diagram images of the {@link PlantUmlService}.
+ *
+ * The HTMX preview renders on every edit, and download and download-info render the same source
+ * again; images are kept under the output format and the SHA-256 of the normalized source, so an
+ * unchanged diagram is only rendered once. The key doubles as the ETag of the image. Entries are
+ * weighed by their image size and evicted least recently used once they exceed the size cap.
+ * Cached images are shared between callers and must not be modified.
+ *
+ * The sources of the diagrams served by URL (/diagrams/render/{hash}.{format}) are kept apart, so an
+ * evicted image can be rendered again when its URL is requested. The most recently used sources
+ * are also kept parsed, so validating a source and rendering it in several formats parse it once.
+ */
+@Component
+public class DiagramRenderCache {
+
+    private final boolean enabled;
+    private final long maxSizeBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final LinkedHashMap<String, String> sources = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxSources;
+    private final LinkedHashMap<String, ParsedDiagram> parsed = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxParsed;
+
+    public DiagramRenderCache(
+            @Value("${app.diagrams.render-cache.enabled:true}") boolean enabled,
+            @Value("${app.diagrams.render-cache.max-size-mb:32}") long maxSizeMb,
+            @Value("${app.diagrams.render-cache.max-sources:4096}") int maxSources,
+            @Value("${app.diagrams.render-cache.max-parsed:64}") int maxParsed) {
+        this.enabled = enabled;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxSources = Math.max(1, maxSources);
+        this.maxParsed = Math.max(1, maxParsed);
+    }
+
+    /**
+     * Hex SHA-256 of a normalized source
+     */
+    public static String sourceHash(String normalizedSource) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalizedSource.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Key of the image of the source with this hash in the given format
+     */
+    public static String key(String format, String sourceHash) {
+        return format + "-" + sourceHash;
+    }
+
+    /**
+     * The image under the key, rendered only if it isn't cached; failed renders aren't cached
+     */
+    public byte[] get(String key, Renderer renderer) throws IOException {
+        if (!enabled) {
+            return renderer.render();
+        }
+
+        byte[] cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] image = renderer.render();
+        put(key, image);
+        return image;
+    }
+
+    /**
+     * The image under the key, or null if it isn't cached (or caching is disabled)
+     */
+    public byte[] getIfPresent(String key) {
+        if (!enabled) {
+            return null;
+        }
+        byte[] cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        (cached != null ? hits : misses).incrementAndGet();
+        return cached;
+    }
+
+    /**
+     * Keeps an image that was rendered outside {@link #get}, e.g. while it was streamed
+     */
+    public void put(String key, byte[] image) {
+        if (!enabled || image.length > maxSizeBytes) {
+            return;
+        }
+        synchronized (entries) {
+            byte[] previous = entries.put(key, image);
+            sizeBytes += image.length - (previous != null ? previous.length : 0);
+            Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+            while (sizeBytes > maxSizeBytes && eldest.hasNext()) {
+                sizeBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Keeps a source so its images can be rendered again from its hash
+     */
+    public void putSource(String sourceHash, String normalizedSource) {
+        synchronized (sources) {
+            sources.put(sourceHash, normalizedSource);
+            Iterator<String> eldest = sources.keySet().iterator();
+            while (sources.size() > maxSources && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * The source kept under the hash, or null if it was never published or has been evicted
+     */
+    public String getSource(String sourceHash) {
+        synchronized (sources) {
+            return sources.get(sourceHash);
+        }
+    }
+
+    /**
+     * Keeps a parsed source under its hash
+     */
+    public void putParsed(ParsedDiagram diagram) {
+        synchronized (parsed) {
+            parsed.put(diagram.getHash(), diagram);
+            Iterator<String> eldest = parsed.keySet().iterator();
+            while (parsed.size() > maxParsed && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * The parsed source with the hash, or null if it hasn't been parsed lately
+     */
+    public ParsedDiagram getParsed(String sourceHash) {
+        synchronized (parsed) {
+            return parsed.get(sourceHash);
+        }
+    }
+
+    public int getParsedCount() {
+        synchronized (parsed) {
+            return parsed.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Share of lookups answered from the cache, 0 before the first lookup
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long getSizeBytes() {
+        synchronized (entries) {
+            return sizeBytes;
+        }
+    }
+
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Renderer {
+        byte[] render() throws IOException;
+    }
+}
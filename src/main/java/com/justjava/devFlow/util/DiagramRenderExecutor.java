@@ -0,0 +1,233 @@
+package com.justjava.devFlow.util;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs PlantUML renders on a dedicated pool instead of the Tomcat request threads.
+ *
+ * The pool has one thread per core and a bounded queue: a render that finds the queue full is
+ * refused straight away, and the caller stops waiting for a render that takes longer than the
+ * timeout. Either way the caller gets a {@link RenderUnavailableException} to answer with 429 or
+ * 503, so at most threads + queue capacity request threads ever wait for diagrams and the rest of
+ * the application keeps its servlet threads.
+ *
+ * A render can't be stopped once it runs: PlantUML doesn't check the interrupt, so a render that
+ * timed out keeps its thread until it returns. Those renders are counted, and the queue admits
+ * fewer renders the more threads they hold; while they hold every thread, renders are refused
+ * without being queued. Sources longer than the configured maximum are refused before they are
+ * parsed, so the renders that can run that long are the exception.
+ */
+@Component
+public class DiagramRenderExecutor {
+
+    /** States of a submitted render */
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    /** The caller stopped waiting for it */
+    private static final int ABANDONED = 3;
+
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final int maxSourceChars;
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final AtomicInteger timedOut = new AtomicInteger();
+    /** Renders that timed out and still hold a thread */
+    private final AtomicInteger overrunning = new AtomicInteger();
+
+    public DiagramRenderExecutor(
+            @Value("${app.diagrams.render.threads:0}") int threads,
+            @Value("${app.diagrams.render.queue-capacity:32}") int queueCapacity,
+            @Value("${app.diagrams.render.timeout-ms:10000}") long timeoutMillis,
+            @Value("${app.diagrams.render.max-source-chars:100000}") int maxSourceChars) {
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "diagram-render-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.maxSourceChars = maxSourceChars;
+    }
+
+    /**
+     * Refuses a source too long to be rendered within the limits of the pool
+     *
+     * @throws RenderUnavailableException if the source is longer than the configured maximum
+     */
+    public void checkSourceLength(String source) {
+        if (source.length() > maxSourceChars) {
+            rejected.incrementAndGet();
+            throw new RenderUnavailableException(RenderUnavailableException.Reason.TOO_LARGE,
+                    "Diagram source has " + source.length() + " characters, at most " + maxSourceChars + " are rendered");
+        }
+    }
+
+    /**
+     * Runs the render on the pool and waits for it at most the render timeout
+     *
+     * @throws RenderUnavailableException if the pool can't take the render or the render timed out
+     */
+    public <T> T render(RenderTask<T> task) throws IOException {
+        admit();
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> run(task, state));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new RenderUnavailableException(RenderUnavailableException.Reason.SATURATED,
+                    "Diagram rendering is busy (" + executor.getQueue().size() + " renders queued), please retry shortly");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut.incrementAndGet();
+            abandon(future, state);
+            throw new RenderUnavailableException(RenderUnavailableException.Reason.TIMED_OUT,
+                    "Diagram rendering took longer than " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            abandon(future, state);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the diagram render", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Diagram render failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Refuses the render while timed-out renders hold every thread, and queues fewer renders the
+     * more threads they hold: what is queued behind them would only time out as well
+     */
+    private void admit() {
+        int held = overrunning.get();
+        if (held >= poolSize) {
+            rejected.incrementAndGet();
+            throw new RenderUnavailableException(RenderUnavailableException.Reason.STALLED,
+                    "Diagram rendering is stalled: " + held + " renders that timed out are still running");
+        }
+        int admitted = Math.max(1, queueCapacity * (poolSize - held) / poolSize);
+        int queued = executor.getQueue().size();
+        if (held > 0 && queued >= admitted) {
+            rejected.incrementAndGet();
+            throw new RenderUnavailableException(RenderUnavailableException.Reason.SATURATED,
+                    "Diagram rendering is busy (" + queued + " renders queued, " + held
+                            + " threads held by renders that timed out), please retry shortly");
+        }
+    }
+
+    private <T> T run(RenderTask<T> task, AtomicInteger state) throws IOException {
+        if (!state.compareAndSet(QUEUED, RUNNING)) {
+            // Nobody waits for it any more
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            return task.run();
+        } finally {
+            if (!state.compareAndSet(RUNNING, DONE)) {
+                int held = overrunning.decrementAndGet();
+                System.err.println("⏱️ Diagram render that timed out finished after "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms ("
+                        + held + " timed-out renders still running)");
+            }
+        }
+    }
+
+    /**
+     * The caller stops waiting: a queued render is dropped, a running one is counted until it
+     * returns
+     */
+    private void abandon(Future<?> future, AtomicInteger state) {
+        if (state.compareAndSet(QUEUED, ABANDONED)) {
+            future.cancel(false);
+            if (future instanceof Runnable queued) {
+                executor.remove(queued);
+            }
+        } else if (state.compareAndSet(RUNNING, ABANDONED)) {
+            int held = overrunning.incrementAndGet();
+            // Interrupted in case it waits on something that notices; PlantUML itself doesn't
+            future.cancel(true);
+            System.err.println("⏱️ Diagram render exceeded " + timeoutMillis + " ms and is still running ("
+                    + held + " of " + poolSize + " render threads held by timed-out renders)");
+        }
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getRejectedCount() {
+        return rejected.get();
+    }
+
+    public int getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    /**
+     * Renders that timed out but still hold a render thread
+     */
+    public int getOverrunningCount() {
+        return overrunning.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface RenderTask<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * A render that was refused (the pool is saturated or stalled by renders that timed out, or
+     * the source is too long), or that the caller stopped waiting for because it timed out
+     */
+    public static class RenderUnavailableException extends RuntimeException {
+
+        public enum Reason { SATURATED, STALLED, TIMED_OUT, TOO_LARGE }
+
+        private final Reason reason;
+
+        public RenderUnavailableException(Reason reason, String message) {
+            super(message);
+            this.reason = reason;
+        }
+
+        public Reason getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.justjava.devFlow.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs GitHub API calls on virtual threads with a concurrency limit that adapts to
+ * GitHub's rate limit headers.
+ *
+ * Every request goes through {@link #execute}: it waits for a free slot, backs off on
+ * primary/secondary rate limits (honouring Retry-After and X-RateLimit-Reset) and retries
+ * transient failures of idempotent requests. The limit grows by one after each successful
+ * response and halves on every throttle; once X-RateLimit-Remaining drops below the low
+ * watermark it falls to one.
+ */
+@Component
+public class GitHubUploadScheduler {
+
+    private static final long TRANSIENT_BACKOFF_MILLIS = 1000;
+    private static final long MAX_TRANSIENT_BACKOFF_MILLIS = 30_000;
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE");
+
+    private final int maxConcurrency;
+    private final int maxAttempts;
+    private final int lowRateLimitWatermark;
+    private final long secondaryBackoffMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotChanged = lock.newCondition();
+    private int limit;
+    private int inFlight;
+    private long pausedUntilMillis;
+
+    public GitHubUploadScheduler(
+            @Value("${app.github.upload.max-concurrency:8}") int maxConcurrency,
+            @Value("${app.github.upload.max-attempts:5}") int maxAttempts,
+            @Value("${app.github.upload.low-rate-limit-watermark:100}") int lowRateLimitWatermark,
+            @Value("${app.github.upload.secondary-backoff-ms:60000}") long secondaryBackoffMillis) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.lowRateLimitWatermark = lowRateLimitWatermark;
+        this.secondaryBackoffMillis = secondaryBackoffMillis;
+        this.limit = this.maxConcurrency;
+    }
+
+    /**
+     * Runs the task for every item on virtual threads, at most {@code parallelism} at a time.
+     * Failed items are collected instead of aborting the batch.
+     */
+    public <T, R> BatchResult<T, R> runAll(List<T> items, int parallelism, Task<T, R> task)
+            throws InterruptedException {
+
+        try (Batch<T, R> batch = openBatch(parallelism, task)) {
+            for (T item : items) {
+                batch.submit(item);
+            }
+            return batch.await();
+        }
+    }
+
+    /**
+     * Opens a batch that items can be submitted to while they are still being produced,
+     * e.g. while a download is streamed. {@link Batch#submit} blocks once {@code parallelism}
+     * items are in progress, so at most that many items are held in memory by the batch.
+     */
+    public <T, R> Batch<T, R> openBatch(int parallelism, Task<T, R> task) {
+        return new Batch<>(Math.max(1, Math.min(parallelism, maxConcurrency)), task);
+    }
+
+    /**
+     * Opens a batch with the configured maximum concurrency
+     */
+    public <T, R> Batch<T, R> openBatch(Task<T, R> task) {
+        return openBatch(maxConcurrency, task);
+    }
+
+    /**
+     * Runs the task for every item with the configured maximum concurrency
+     */
+    public <T, R> BatchResult<T, R> runAll(List<T> items, Task<T, R> task) throws InterruptedException {
+        return runAll(items, maxConcurrency, task);
+    }
+
+    /**
+     * Sends a GitHub request within the adaptive concurrency limit, retrying rate-limited
+     * and transient failures. Returns the last response, which may still be an error status.
+     * Transient failures (I/O errors, 5xx) are only retried for idempotent methods, see
+     * {@link #execute(HttpRequest, boolean, Sender)}.
+     */
+    public HttpResponse<String> execute(HttpRequest request, Sender sender)
+            throws IOException, InterruptedException {
+        return execute(request, IDEMPOTENT_METHODS.contains(request.method()), sender);
+    }
+
+    /**
+     * Sends a GitHub request like {@link #execute(HttpRequest, Sender)}. An I/O error or 5xx may
+     * come after GitHub applied the request, so they are only retried when retryTransient is set:
+     * a retried POST /git/commits would leave an orphan commit behind. Rate-limited responses
+     * were refused by GitHub and are always retried.
+     */
+    public HttpResponse<String> execute(HttpRequest request, boolean retryTransient, Sender sender)
+            throws IOException, InterruptedException {
+
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<String> response = null;
+            IOException failure = null;
+            acquireSlot();
+            try {
+                response = sender.send(request);
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                releaseSlot();
+            }
+
+            if (failure != null) {
+                if (!retryTransient || attempt >= maxAttempts) {
+                    throw failure;
+                }
+                System.out.println("⚠️ GitHub request " + request.uri() + " failed (" + failure.getMessage()
+                        + "), retrying attempt " + (attempt + 1));
+                Thread.sleep(transientBackoff(attempt));
+                continue;
+            }
+
+            long waitMillis = throttleWaitMillis(response, attempt);
+            if (waitMillis < 0) {
+                if (retryTransient && response.statusCode() >= 500 && attempt < maxAttempts) {
+                    Thread.sleep(transientBackoff(attempt));
+                    continue;
+                }
+                onResponse(response);
+                return response;
+            }
+
+            if (attempt >= maxAttempts) {
+                return response;
+            }
+            System.out.println("⚠️ GitHub rate limit hit on " + request.uri() + ", backing off "
+                    + waitMillis + " ms (concurrency now " + onThrottled(waitMillis) + ")");
+        }
+    }
+
+    /**
+     * Returns how long to wait before retrying a rate-limited response, or -1 if it wasn't throttled
+     */
+    long throttleWaitMillis(HttpResponse<String> response, int attempt) {
+        int status = response.statusCode();
+        boolean throttled = status == 429 || (status == 403
+                && ("0".equals(response.headers().firstValue("X-RateLimit-Remaining").orElse(null))
+                || response.headers().firstValue("Retry-After").isPresent()
+                || response.body() != null && response.body().contains("rate limit")));
+        if (!throttled) {
+            return -1;
+        }
+
+        var retryAfter = response.headers().firstValue("Retry-After");
+        if (retryAfter.isPresent()) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.get().trim()));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date form is not used by GitHub; fall through to the other hints
+            }
+        }
+
+        if ("0".equals(response.headers().firstValue("X-RateLimit-Remaining").orElse(null))) {
+            var reset = response.headers().firstValue("X-RateLimit-Reset");
+            if (reset.isPresent()) {
+                try {
+                    return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(reset.get().trim()))
+                            - System.currentTimeMillis());
+                } catch (NumberFormatException ignored) {
+                    // fall through to the secondary limit backoff
+                }
+            }
+        }
+
+        // Secondary rate limit without hints: GitHub asks for at least a minute, growing per attempt
+        return secondaryBackoffMillis << Math.min(attempt - 1, 4);
+    }
+
+    private long transientBackoff(int attempt) {
+        long backoff = Math.min(MAX_TRANSIENT_BACKOFF_MILLIS, TRANSIENT_BACKOFF_MILLIS << Math.min(attempt - 1, 10));
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private void acquireSlot() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                long pausedFor = pausedUntilMillis - System.currentTimeMillis();
+                if (pausedFor > 0) {
+                    slotChanged.await(pausedFor, TimeUnit.MILLISECONDS);
+                } else if (inFlight < limit) {
+                    inFlight++;
+                    return;
+                } else {
+                    slotChanged.await();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            inFlight--;
+            slotChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adapts the limit to the remaining primary rate limit after a completed request
+     */
+    private void onResponse(HttpResponse<String> response) {
+        int remaining = response.headers().firstValue("X-RateLimit-Remaining")
+                .map(value -> {
+                    try {
+                        return Integer.parseInt(value.trim());
+                    } catch (NumberFormatException e) {
+                        return Integer.MAX_VALUE;
+                    }
+                })
+                .orElse(Integer.MAX_VALUE);
+
+        lock.lock();
+        try {
+            if (remaining < lowRateLimitWatermark) {
+                limit = 1;
+            } else if (response.statusCode() < 400 && limit < maxConcurrency) {
+                limit++;
+            }
+            slotChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Halves the limit and pauses all requests for the given time; returns the new limit.
+     * The retry in {@link #execute} then waits out the pause in {@link #acquireSlot()}.
+     */
+    private int onThrottled(long waitMillis) {
+        lock.lock();
+        try {
+            limit = Math.max(1, limit / 2);
+            pausedUntilMillis = Math.max(pausedUntilMillis, System.currentTimeMillis() + waitMillis);
+            slotChanged.signalAll();
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current concurrency limit
+     */
+    int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Sender {
+        HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException;
+    }
+
+    @FunctionalInterface
+    public interface Task<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    public record Failure<T>(T item, String message) {}
+
+    /**
+     * Items submitted one by one to run on virtual threads; closing waits for the running ones
+     */
+    public static final class Batch<T, R> implements AutoCloseable {
+        private final Task<T, R> task;
+        private final Semaphore admission;
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final List<R> results = Collections.synchronizedList(new ArrayList<>());
+        private final List<Failure<T>> failures = Collections.synchronizedList(new ArrayList<>());
+
+        private Batch(int parallelism, Task<T, R> task) {
+            this.task = task;
+            this.admission = new Semaphore(parallelism);
+        }
+
+        /**
+         * Starts the task for the item, waiting while the batch is at its parallelism
+         */
+        public void submit(T item) throws InterruptedException {
+            int index;
+            synchronized (results) {
+                index = results.size();
+                results.add(null);
+            }
+            admission.acquire();
+            executor.submit(() -> {
+                try {
+                    results.set(index, task.apply(item));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.add(new Failure<>(item, "Interrupted"));
+                } catch (Exception e) {
+                    failures.add(new Failure<>(item, e.getMessage() != null ? e.getMessage() : e.getClass().getName()));
+                } finally {
+                    admission.release();
+                }
+            });
+        }
+
+        /**
+         * Waits for every submitted item and returns the results in submission order
+         */
+        public BatchResult<T, R> await() {
+            close();
+            return new BatchResult<>(new ArrayList<>(results), new ArrayList<>(failures));
+        }
+
+        @Override
+        public void close() {
+            executor.close();
+        }
+    }
+
+    /**
+     * Results in input order (null where the item failed) plus every failure
+     */
+    public record BatchResult<T, R>(List<R> results, List<Failure<T>> failures) {}
+}
@@ -0,0 +1,336 @@
+package com.justjava.devFlow.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.lang.model.SourceVersion;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Disk cache of Spring Initializr project skeletons.
+ *
+ * Skeletons are downloaded once per normalized request (java version, boot version and the
+ * sorted dependency set) with placeholder coordinates, stored under the SHA-256 of that key and
+ * rewritten to the real groupId/artifactId when read. Least recently used skeletons are evicted
+ * once the cache grows beyond its size cap; skeletons that are being read are never evicted.
+ */
+@Component
+public class InitializrSkeletonCache {
+
+    /** Coordinates the cached skeletons are generated with; replaced when a skeleton is read */
+    static final String SKELETON_GROUP_ID = "devflow.skeleton";
+    static final String SKELETON_ARTIFACT_ID = "devflowskeleton";
+    private static final String SKELETON_PACKAGE_PATH = "devflow/skeleton";
+    private static final String SKELETON_APPLICATION_NAME = "DevflowskeletonApplication";
+
+    /** Bump when the key or the rewriting changes so old entries are no longer used */
+    private static final String KEY_VERSION = "v1";
+
+    private static final Pattern SIMPLE_GROUP_ID = Pattern.compile("[a-z][a-z0-9]*(\\.[a-z][a-z0-9]*)*");
+    private static final Pattern SIMPLE_ARTIFACT_ID = Pattern.compile("[A-Za-z][A-Za-z0-9_-]*");
+    private static final Set<String> INVALID_APPLICATION_NAMES = Set.of("SpringApplication", "SpringBootApplication");
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final ConcurrentHashMap<String, ReentrantLock> keyLocks = new ConcurrentHashMap<>();
+    /** Number of open {@link Skeleton} handles per key */
+    private final ConcurrentHashMap<String, Integer> pins = new ConcurrentHashMap<>();
+
+    public InitializrSkeletonCache(
+            @Value("${app.initializr.cache.enabled:true}") boolean enabled,
+            @Value("${app.initializr.cache.dir:${java.io.tmpdir}/devflow-initializr-cache}") String directory,
+            @Value("${app.initializr.cache.max-size-mb:256}") long maxSizeMb) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * Whether a project with these coordinates can be served from the cache. Coordinates that
+     * Initializr would clean up or replace (e.g. invalid package or class names) always go to
+     * Initializr so the result stays identical.
+     */
+    public boolean isCacheable(String groupId, String artifactId) {
+        return enabled && hasSimpleCoordinates(groupId, artifactId);
+    }
+
+    /**
+     * Whether Initializr would use the groupId as package name and derive the application class
+     * name from the artifactId without cleaning or replacing either
+     */
+    static boolean hasSimpleCoordinates(String groupId, String artifactId) {
+        return groupId != null && SIMPLE_GROUP_ID.matcher(groupId).matches() && SourceVersion.isName(groupId)
+                && artifactId != null && SIMPLE_ARTIFACT_ID.matcher(artifactId).matches()
+                && !applicationName(artifactId).equals("Application");
+    }
+
+    /**
+     * Returns the cached skeleton ZIP for the request, downloading it with the placeholder
+     * coordinates on a miss. Concurrent misses for the same key download only once. The skeleton
+     * isn't evicted until the returned handle is closed.
+     */
+    public Skeleton getSkeleton(String javaVersion, String springBootVersion, String dependencies,
+                            SkeletonDownloader downloader)
+            throws IOException, SpringBootProjectGitHubService.ProjectDownloadException {
+
+        String key = cacheKey(javaVersion, springBootVersion, dependencies);
+        Path skeleton = directory.resolve(key + ".zip");
+
+        Skeleton handle;
+        ReentrantLock lock = keyLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            if (Files.isRegularFile(skeleton)) {
+                // Touch for LRU eviction
+                Files.setLastModifiedTime(skeleton, FileTime.fromMillis(System.currentTimeMillis()));
+                System.out.println("Initializr skeleton cache hit: " + key);
+                return pin(key, skeleton);
+            }
+
+            System.out.println("Initializr skeleton cache miss: " + key);
+            Files.createDirectories(directory);
+            Path download = Files.createTempFile(directory, key, ".part");
+            try (InputStream zipStream = downloader.download(SKELETON_GROUP_ID, SKELETON_ARTIFACT_ID)) {
+                Files.copy(zipStream, download, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(download, skeleton, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(download);
+            }
+            handle = pin(key, skeleton);
+        } finally {
+            lock.unlock();
+        }
+
+        evictLeastRecentlyUsed();
+        return handle;
+    }
+
+    /**
+     * Keeps the skeleton from being evicted until the handle is closed; called under the key lock
+     */
+    private Skeleton pin(String key, Path skeleton) {
+        pins.merge(key, 1, Integer::sum);
+        return new Skeleton(key, skeleton);
+    }
+
+    private void unpin(String key) {
+        pins.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Rewrites a file read from a cached skeleton (with the placeholder folder already removed)
+     * to the given coordinates: the package path and application class name in the path, and
+     * every placeholder occurrence in the content.
+     */
+    public SpringBootProjectGitHubService.GitHubFile rewrite(SpringBootProjectGitHubService.GitHubFile file,
+                                                            String groupId, String artifactId) {
+        String applicationName = applicationName(artifactId);
+        String path = replaceCoordinates(file.getFilePath(), groupId, artifactId, applicationName)
+                .replace(SKELETON_PACKAGE_PATH, groupId.replace('.', '/'));
+
+        if (path.endsWith(".jar")) {
+            return new SpringBootProjectGitHubService.GitHubFile(path, file.getContentBytes());
+        }
+        // ISO-8859-1 maps every byte to one char, so non-ASCII UTF-8 content passes through untouched
+        String content = new String(file.getContentBytes(), StandardCharsets.ISO_8859_1);
+        String rewritten = replaceCoordinates(content, groupId, artifactId, applicationName);
+        return new SpringBootProjectGitHubService.GitHubFile(path, rewritten == content
+                ? file.getContentBytes()
+                : rewritten.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String replaceCoordinates(String text, String groupId, String artifactId, String applicationName) {
+        if (!text.contains(SKELETON_ARTIFACT_ID) && !text.contains(SKELETON_GROUP_ID)
+                && !text.contains(SKELETON_APPLICATION_NAME) && !text.contains(SKELETON_PACKAGE_PATH)) {
+            return text;
+        }
+        return text.replace(SKELETON_APPLICATION_NAME, applicationName)
+                .replace(SKELETON_GROUP_ID, groupId)
+                .replace(SKELETON_ARTIFACT_ID, artifactId);
+    }
+
+    /**
+     * SHA-256 of the normalized request; dependency order, case and duplicates don't matter
+     */
+    static String cacheKey(String javaVersion, String springBootVersion, String dependencies) {
+        Set<String> dependencyIds = new TreeSet<>();
+        if (dependencies != null) {
+            for (String dependency : dependencies.split(",")) {
+                if (!dependency.isBlank()) {
+                    dependencyIds.add(dependency.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        String normalized = KEY_VERSION
+                + "|maven-project|java"
+                + "|" + (javaVersion == null ? "" : javaVersion.trim())
+                + "|" + (springBootVersion == null ? "" : springBootVersion.trim())
+                + "|" + String.join(",", dependencyIds);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Application class name Initializr derives from the project name
+     * (e.g. "my-app" -> "MyAppApplication"); "Application" when the name can't be used
+     */
+    static String applicationName(String name) {
+        if (name == null || name.isBlank()) {
+            return "Application";
+        }
+        String result = unsplitWords(splitCamelCase(name.trim()));
+        if (!result.endsWith("Application")) {
+            result += "Application";
+        }
+        String candidate = capitalize(result);
+        return SourceVersion.isIdentifier(candidate) && !SourceVersion.isKeyword(candidate)
+                && !INVALID_APPLICATION_NAMES.contains(candidate) ? candidate : "Application";
+    }
+
+    private static String splitCamelCase(String text) {
+        StringBuilder result = new StringBuilder();
+        for (String word : text.split("(?<!(^|[A-Z]))(?=[A-Z])|(?<!^)(?=[A-Z][a-z])")) {
+            result.append(capitalize(word.toLowerCase(Locale.ROOT)));
+        }
+        return result.toString();
+    }
+
+    private static String unsplitWords(String text) {
+        StringBuilder result = new StringBuilder();
+        for (String word : text.split("(_|-| |:)+")) {
+            result.append(capitalize(word));
+        }
+        return result.toString();
+    }
+
+    private static String capitalize(String text) {
+        return text.isEmpty() ? text : Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    /**
+     * Deletes the least recently used skeletons until the cache fits its size cap. A skeleton is
+     * only deleted under its key lock and while no handle to it is open, so a skeleton that was
+     * just returned (or is being downloaded) stays.
+     */
+    private void evictLeastRecentlyUsed() {
+        List<Path> skeletons = new ArrayList<>();
+        long totalBytes = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*.zip")) {
+            for (Path entry : entries) {
+                skeletons.add(entry);
+                totalBytes += Files.size(entry);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to scan Initializr skeleton cache: " + e.getMessage());
+            return;
+        }
+        if (totalBytes <= maxSizeBytes) {
+            return;
+        }
+
+        try {
+            skeletons.sort(Comparator.comparing(InitializrSkeletonCache::lastModified));
+        } catch (UncheckedIOException e) {
+            System.err.println("Failed to scan Initializr skeleton cache: " + e.getMessage());
+            return;
+        }
+        for (Path skeleton : skeletons) {
+            if (totalBytes <= maxSizeBytes) {
+                break;
+            }
+            String fileName = skeleton.getFileName().toString();
+            String key = fileName.substring(0, fileName.length() - ".zip".length());
+            ReentrantLock lock = keyLocks.computeIfAbsent(key, k -> new ReentrantLock());
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (pins.containsKey(key)) {
+                    continue;
+                }
+                long size = Files.size(skeleton);
+                Files.deleteIfExists(skeleton);
+                totalBytes -= size;
+                System.out.println("Evicted Initializr skeleton " + fileName);
+            } catch (IOException e) {
+                System.err.println("Failed to evict Initializr skeleton " + skeleton + ": " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A cached skeleton ZIP that stays on disk until the handle is closed
+     */
+    public final class Skeleton implements AutoCloseable {
+        private final String key;
+        private final Path path;
+        private boolean closed;
+
+        private Skeleton(String key, Path path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        /**
+         * Opens the ZIP; can be called again while the handle is open, e.g. to push it twice
+         */
+        public InputStream open() throws IOException {
+            if (closed) {
+                throw new IllegalStateException("Skeleton handle " + key + " is closed");
+            }
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                unpin(key);
+            }
+        }
+    }
+
+    /**
+     * Opens a validated Initializr ZIP download for the given coordinates
+     */
+    @FunctionalInterface
+    public interface SkeletonDownloader {
+        InputStream download(String groupId, String artifactId)
+                throws SpringBootProjectGitHubService.ProjectDownloadException;
+    }
+}
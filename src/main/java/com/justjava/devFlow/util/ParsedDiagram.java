@@ -0,0 +1,76 @@
+package com.justjava.devFlow.util;
+
+import net.sourceforge.plantuml.BlockUml;
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.DiagramDescription;
+import net.sourceforge.plantuml.error.PSystemError;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A normalized PlantUML source parsed once: its diagnostics, and the parsed diagram that every
+ * format is exported from, so validating and rendering (in any format) don't parse it again.
+ * Exports are serialized, a PlantUML diagram isn't meant to be exported concurrently.
+ */
+public final class ParsedDiagram {
+
+    private final String hash;
+    private final Diagram diagram;
+    private final String description;
+    private final boolean valid;
+
+    private ParsedDiagram(String hash, Diagram diagram, String description, boolean valid) {
+        this.hash = hash;
+        this.diagram = diagram;
+        this.description = description;
+        this.valid = valid;
+    }
+
+    /**
+     * Parses the first diagram of the source; runs PlantUML, so call it on the render pool
+     */
+    static ParsedDiagram parse(String hash, String processedSource) {
+        List<BlockUml> blocks = new SourceStringReader(processedSource).getBlocks();
+        if (blocks == null || blocks.isEmpty()) {
+            return new ParsedDiagram(hash, null, "No diagram found", false);
+        }
+
+        Diagram diagram = blocks.get(0).getDiagram();
+        DiagramDescription result = diagram.getDescription();
+        String description = result != null ? result.getDescription() : "Unknown";
+        boolean valid = !(diagram instanceof PSystemError)
+                && !description.contains("ERROR") && !description.contains("(Error)");
+        return new ParsedDiagram(hash, diagram, description, valid);
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Whether PlantUML parsed the source without errors
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * PlantUML's description of the diagram, or of the error if it isn't valid
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Writes the image in the format; an invalid diagram exports PlantUML's error image
+     */
+    synchronized void export(DiagramFormat format, int scale, OutputStream out) throws IOException {
+        if (diagram == null) {
+            throw new IOException("No diagram found");
+        }
+        diagram.exportDiagram(out, 0, format.option(scale));
+    }
+}
@@ -1,8 +1,6 @@
 package com.justjava.devFlow.util;
 
-import net.sourceforge.plantuml.SourceStringReader;
 import net.sourceforge.plantuml.core.Diagram;
-import net.sourceforge.plantuml.core.DiagramDescription;
 import net.sourceforge.plantuml.error.PSystemError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +8,7 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -28,60 +27,98 @@ public class PlantUmlService {
             Pattern.CASE_INSENSITIVE
     );
 
+    private final DiagramRenderCache renderCache;
+    private final DiagramRenderExecutor renderExecutor;
+
+    public PlantUmlService(DiagramRenderCache renderCache, DiagramRenderExecutor renderExecutor) {
+        this.renderCache = renderCache;
+        this.renderExecutor = renderExecutor;
+    }
+
     /**
-     * Generate PNG image from PlantUML source
+     * Generate PNG image from PlantUML source. Images of an unchanged source come from the render
+     * cache and must not be modified.
      *
      * @param plantUmlSource The PlantUML diagram source code
      * @return PNG image as byte array
      * @throws IOException              If diagram generation fails
      * @throws IllegalArgumentException If source is invalid
+     * @throws DiagramRenderExecutor.RenderUnavailableException If the source is too long, the render pool can't take
+     *                                                           the render or the render timed out
      */
     public byte[] generatePng(String plantUmlSource) throws IOException {
+        return generate(plantUmlSource, DiagramFormat.PNG);
+    }
+
+    /**
+     * Generate the image of PlantUML source in the given format, see {@link #generatePng}
+     */
+    public byte[] generate(String plantUmlSource, DiagramFormat format) throws IOException {
         // Validate input
         if (plantUmlSource == null || plantUmlSource.trim().isEmpty()) {
             throw new IllegalArgumentException("PlantUML source cannot be null or empty");
         }
 
         // Ensure @startuml and @enduml tags are present
-        String processedSource = processPlantUmlSource(plantUmlSource);
-
-        logger.debug("Generating PNG from PlantUML source: {} characters", processedSource.length());
+        String processedSource = normalizeSource(plantUmlSource);
+        String hash = DiagramRenderCache.sourceHash(processedSource);
+        return renderCache.get(DiagramRenderCache.key(format.cacheName(1), hash),
+                () -> renderExecutor.render(() -> render(processedSource, hash, format)));
+    }
 
-        SourceStringReader reader = new SourceStringReader(processedSource);
+    private byte[] render(String processedSource, String hash, DiagramFormat format) throws IOException {
+        logger.debug("Generating {} from PlantUML source: {} characters", format, processedSource.length());
 
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            // Generate the PNG image and get the result description
-            DiagramDescription result = reader.outputImage(outputStream);
-
-            byte[] pngData = outputStream.toByteArray();
+            ParsedDiagram parsed = parsed(processedSource, hash);
 
-            if (pngData.length == 0) {
-                String errorInfo = "Unknown error - no PNG data generated";
-                if (result != null) {
-                    errorInfo = result.getDescription();
-                }
-                throw new IOException("Generated PNG is empty - diagram generation may have failed. Result: " + errorInfo);
+            // Check if the source parsed with errors, PlantUML would only draw the error
+            if (!parsed.isValid()) {
+                throw new IOException("PlantUML generation resulted in error: " + parsed.getDescription());
             }
 
-            // Check if the result indicates an error
-            if (result != null && (result.getDescription().contains("ERROR") || result.getDescription().contains("(Error)"))) {
-                throw new IOException("PlantUML generation resulted in error: " + result.getDescription());
+            parsed.export(format, 1, outputStream);
+            byte[] imageData = outputStream.toByteArray();
+
+            if (imageData.length == 0) {
+                throw new IOException("Generated " + format + " is empty - diagram generation may have failed. Result: "
+                        + parsed.getDescription());
             }
 
-            logger.info("Successfully generated PNG: {}, Size: {} bytes",
-                    result != null ? result.getDescription() : "Unknown",
-                    pngData.length);
-            return pngData;
+            logger.info("Successfully generated {}: {}, Size: {} bytes", format, parsed.getDescription(), imageData.length);
+            return imageData;
 
         } catch (IOException e) {
-            logger.error("Failed to generate PNG from PlantUML: {}", e.getMessage());
+            logger.error("Failed to generate {} from PlantUML: {}", format, e.getMessage());
             throw new IOException("PlantUML diagram generation failed: " + e.getMessage(), e);
         } catch (Exception e) {
-            logger.error("Unexpected error during PNG generation: {}", e.getMessage());
+            logger.error("Unexpected error during {} generation: {}", format, e.getMessage());
             throw new IOException("Unexpected error during diagram generation: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * The source parsed: by an earlier validation or render, or now. Parses on the calling
+     * thread, so only call it from render pool tasks.
+     */
+    private ParsedDiagram parsed(String processedSource, String hash) {
+        ParsedDiagram parsed = renderCache.getParsed(hash);
+        if (parsed == null) {
+            parsed = ParsedDiagram.parse(hash, processedSource);
+            renderCache.putParsed(parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * The source parsed, on the render pool unless it has been parsed lately
+     */
+    private ParsedDiagram parse(String processedSource) throws IOException {
+        String hash = DiagramRenderCache.sourceHash(processedSource);
+        ParsedDiagram parsed = renderCache.getParsed(hash);
+        return parsed != null ? parsed : renderExecutor.render(() -> parsed(processedSource, hash));
+    }
+
     /**
      * Auto-correct common PlantUML syntax issues and return valid PlantUML
      * This method can fix issues like the problematic example provided
@@ -91,6 +128,8 @@ public class PlantUmlService {
             return "@startuml\n@enduml";
         }
 
+        // The corrections are regexes over the whole source, and the result is validated
+        renderExecutor.checkSourceLength(plantUmlSource);
         logger.info("Attempting to auto-correct PlantUML syntax");
 
         // Process basic structure first
@@ -293,6 +332,17 @@ public class PlantUmlService {
         return corrected.toString().trim();
     }
 
+    /**
+     * The source as it is rendered and cached: with @startuml/@enduml tags and \n line endings,
+     * so sources differing only in those render (and hash) the same. Sources too long to render
+     * are refused here, before anything parses them.
+     */
+    private String normalizeSource(String source) {
+        renderExecutor.checkSourceLength(source);
+        String processed = processPlantUmlSource(source);
+        return processed.indexOf('\r') < 0 ? processed : processed.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
     /**
      * Process PlantUML source to ensure it has proper @startuml and @enduml tags
      */
@@ -342,28 +392,17 @@ public class PlantUmlService {
     }
 
     /**
-     * Validate using PlantUML's internal parsing
+     * Validate using PlantUML's internal parsing; the parsed source is kept for rendering it
      */
     private boolean validateWithPlantUmlEngine(String plantUmlSource) {
         try {
-            String processedSource = processPlantUmlSource(plantUmlSource);
-            SourceStringReader reader = new SourceStringReader(processedSource);
-
-            // Try to generate but discard result - just check for syntax errors
-            try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-                DiagramDescription result = reader.outputImage(os);
-
-                // Check if generation resulted in an error or null result
-                if (result == null || result.getDescription().contains("ERROR") ||
-                        result.getDescription().contains("(Error)") ||
-                        result.getDescription().contains("No diagram found")) {
-                    logger.warn("PlantUML generation error: {}", result != null ? result.getDescription() : "Null result");
-                    return false;
-                }
-
-                return true;
+            ParsedDiagram parsed = parse(normalizeSource(plantUmlSource));
+            if (!parsed.isValid()) {
+                logger.warn("PlantUML generation error: {}", parsed.getDescription());
             }
-
+            return parsed.isValid();
+        } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             logger.warn("PlantUML validation failed with exception: {}", e.getMessage());
             return false;
@@ -399,18 +438,241 @@ public class PlantUmlService {
     }
 
     /**
-     * Safe generation method that attempts auto-correction if initial generation fails
+     * Safe generation method that attempts auto-correction if initial generation fails. The
+     * result is cached under {@link #withFallbackKey}.
      */
     public byte[] generatePngWithFallback(String plantUmlSource) throws IOException {
+        return generateWithFallback(plantUmlSource, DiagramFormat.PNG);
+    }
+
+    /**
+     * {@link #generatePngWithFallback} in the given format
+     */
+    public byte[] generateWithFallback(String plantUmlSource, DiagramFormat format) throws IOException {
+        if (plantUmlSource == null || plantUmlSource.trim().isEmpty()) {
+            return generate(plantUmlSource, format);
+        }
+        return renderCache.get(withFallbackKey(plantUmlSource, format), () -> {
+            try {
+                // First try direct generation
+                return generate(plantUmlSource, format);
+            } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+                // Not a problem of the source: auto-correcting it would only queue more renders
+                throw e;
+            } catch (Exception e) {
+                logger.warn("Direct generation failed, attempting auto-correction: {}", e.getMessage());
+
+                // Try auto-correction
+                String corrected = autoCorrectPlantUml(plantUmlSource);
+                return generate(corrected, format);
+            }
+        });
+    }
+
+    /**
+     * Identifies the image {@link #generateWithFallback} returns for the source without
+     * rendering it, e.g. as its ETag; also the image a download of the source with
+     * {@link #publishWithFallback} streams
+     */
+    public String withFallbackKey(String plantUmlSource, DiagramFormat format) {
+        return DiagramRenderCache.key(format.cacheName(1) + "+fallback",
+                DiagramRenderCache.sourceHash(normalizeSource(plantUmlSource)));
+    }
+
+    /**
+     * Validates the source and keeps it under its hash, so its image can be served by URL
+     * ({@link #writePublished}) instead of being embedded in the page. Nothing is rendered here:
+     * the first request for the image streams it while PlantUML renders it.
+     *
+     * @throws IOException if the source doesn't parse into a diagram
+     */
+    public PublishedDiagram publish(String plantUmlSource) throws IOException {
+        if (plantUmlSource == null || plantUmlSource.trim().isEmpty()) {
+            throw new IllegalArgumentException("PlantUML source cannot be null or empty");
+        }
+        String processedSource = normalizeSource(plantUmlSource);
+        ParsedDiagram parsed = parse(processedSource);
+        if (!parsed.isValid()) {
+            throw new IOException("PlantUML generation resulted in error: " + parsed.getDescription());
+        }
+        return published(parsed, processedSource);
+    }
+
+    /**
+     * {@link #publish} of the source, or of its auto-corrected version if that fails
+     */
+    public PublishedDiagram publishWithFallback(String plantUmlSource) throws IOException {
         try {
-            // First try direct generation
-            return generatePng(plantUmlSource);
+            return publish(plantUmlSource);
+        } catch (DiagramRenderExecutor.RenderUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             logger.warn("Direct generation failed, attempting auto-correction: {}", e.getMessage());
-
-            // Try auto-correction
             String corrected = autoCorrectPlantUml(plantUmlSource);
-            return generatePng(corrected);
+            return new PublishedDiagram(publish(corrected).hash(), corrected);
+        }
+    }
+
+    /**
+     * Validates the source and, if it is valid, publishes it, parsing it only once for both
+     */
+    public DiagramResult validateAndPublish(String plantUmlSource) throws IOException {
+        if (plantUmlSource == null || plantUmlSource.trim().isEmpty()) {
+            return new DiagramResult(false, "PlantUML source is null or empty", null);
+        }
+        String processedSource = normalizeSource(plantUmlSource);
+        ParsedDiagram parsed = parse(processedSource);
+        if (!parsed.isValid()) {
+            return new DiagramResult(false, parsed.getDescription(), null);
+        }
+        return new DiagramResult(true, parsed.getDescription(), published(parsed, processedSource));
+    }
+
+    private PublishedDiagram published(ParsedDiagram parsed, String processedSource) {
+        renderCache.putSource(parsed.getHash(), processedSource);
+        return new PublishedDiagram(parsed.getHash(), null);
+    }
+
+    /**
+     * Writes the image of a published source to the sink: from the render cache, or streamed
+     * into the sink while PlantUML renders it (and copied into the cache for the next request).
+     * Returns false, without opening the sink, if no source was published under the hash.
+     *
+     * @param scale 1, or up to {@link DiagramFormat#MAX_SCALE} for PNG
+     */
+    public boolean writePublished(String hash, DiagramFormat format, int scale, ImageSink sink) throws IOException {
+        if (!format.supportsScale(scale)) {
+            throw new IllegalArgumentException("Scale " + scale + " is not supported for " + format);
+        }
+        String processedSource = renderCache.getSource(hash);
+        if (processedSource == null) {
+            return false;
+        }
+
+        String key = DiagramRenderCache.key(format.cacheName(scale), hash);
+        byte[] cached = renderCache.getIfPresent(key);
+        if (cached != null) {
+            sink.open(cached.length).write(cached);
+            return true;
+        }
+
+        SinkOutputStream out = new SinkOutputStream(sink, renderCache.isEnabled());
+        try {
+            ParsedDiagram parsed = renderExecutor.render(() -> {
+                ParsedDiagram diagram = parsed(processedSource, hash);
+                diagram.export(format, scale, out);
+                return diagram;
+            });
+            if (!out.isOpened()) {
+                throw new IOException("Generated " + format + " is empty - diagram generation may have failed. Result: "
+                        + parsed.getDescription());
+            }
+            if (!parsed.isValid()) {
+                logger.warn("Streamed {} of {} has errors: {}", format, hash, parsed.getDescription());
+            } else if (out.getCopy() != null) {
+                renderCache.put(key, out.getCopy());
+            }
+        } finally {
+            out.detach();
+        }
+        return true;
+    }
+
+    public DiagramRenderCache getRenderCache() {
+        return renderCache;
+    }
+
+    public DiagramRenderExecutor getRenderExecutor() {
+        return renderExecutor;
+    }
+
+    /**
+     * A valid diagram whose images are addressable by the hash of its source; correctedSource is
+     * the source published instead when the original needed auto-correction
+     */
+    public record PublishedDiagram(String hash, String correctedSource) {}
+
+    /**
+     * Diagnostics of a source and, if it is valid, the published diagram
+     */
+    public record DiagramResult(boolean valid, String description, PublishedDiagram published) {}
+
+    /**
+     * Where {@link #writePublished} writes an image, e.g. a servlet response
+     */
+    @FunctionalInterface
+    public interface ImageSink {
+        /**
+         * The stream to write the image to; contentLength is -1 when the image is streamed
+         */
+        OutputStream open(int contentLength) throws IOException;
+    }
+
+    /**
+     * Opens the sink on the first write and copies what is written for the render cache. Detached
+     * once the request stops waiting for the render, so a render that timed out can't write into
+     * a response that has been completed (and recycled) in the meantime.
+     */
+    private static final class SinkOutputStream extends OutputStream {
+        private final ImageSink sink;
+        private final ByteArrayOutputStream copy;
+        private OutputStream out;
+        private boolean detached;
+
+        private SinkOutputStream(ImageSink sink, boolean copy) {
+            this.sink = sink;
+            this.copy = copy ? new ByteArrayOutputStream() : null;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            target().write(b);
+            if (copy != null) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+            }
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (out != null && !detached) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The sink belongs to the caller
+            flush();
+        }
+
+        private OutputStream target() throws IOException {
+            if (detached) {
+                throw new IOException("The request no longer waits for this render");
+            }
+            if (out == null) {
+                out = sink.open(-1);
+            }
+            return out;
+        }
+
+        synchronized boolean isOpened() {
+            return out != null;
+        }
+
+        synchronized byte[] getCopy() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+
+        synchronized void detach() {
+            detached = true;
         }
     }
 
@@ -0,0 +1,282 @@
+package com.justjava.devFlow.util;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Generates a Maven Spring Boot project skeleton locally from the templates under
+ * {@code classpath:skeleton/}: pom.xml, Maven wrapper, application class, test class and
+ * application.properties, laid out the way Spring Initializr lays them out.
+ *
+ * Only the dependency ids in {@link #DEPENDENCIES} are known; {@link #supports} is false for
+ * anything else so the caller can fall back to Initializr.
+ */
+@Component
+public class ProjectSkeletonGenerator {
+
+    private static final String TEMPLATE_ROOT = "skeleton/";
+    private static final Pattern JAVA_VERSION = Pattern.compile("\\d+");
+    private static final Pattern BOOT_VERSION = Pattern.compile("\\d+\\.\\d+\\.\\d+(-[A-Za-z0-9]+)?");
+
+    /** Initializr dependency id -> Maven coordinates, in the order they appear in the pom */
+    private static final Map<String, StarterDependency> DEPENDENCIES = new LinkedHashMap<>();
+
+    static {
+        starter("web", "spring-boot-starter-web");
+        starter("webflux", "spring-boot-starter-webflux").testDependency("io.projectreactor", "reactor-test");
+        starter("data-jpa", "spring-boot-starter-data-jpa");
+        starter("data-jdbc", "spring-boot-starter-data-jdbc");
+        starter("jdbc", "spring-boot-starter-jdbc");
+        starter("data-redis", "spring-boot-starter-data-redis");
+        starter("thymeleaf", "spring-boot-starter-thymeleaf");
+        starter("security", "spring-boot-starter-security")
+                .testDependency("org.springframework.security", "spring-security-test");
+        starter("oauth2-client", "spring-boot-starter-oauth2-client");
+        starter("oauth2-resource-server", "spring-boot-starter-oauth2-resource-server");
+        starter("validation", "spring-boot-starter-validation");
+        starter("actuator", "spring-boot-starter-actuator");
+        starter("mail", "spring-boot-starter-mail");
+        starter("cache", "spring-boot-starter-cache");
+        starter("websocket", "spring-boot-starter-websocket");
+        starter("amqp", "spring-boot-starter-amqp").testDependency("org.springframework.amqp", "spring-rabbit-test");
+        dependency("devtools", "org.springframework.boot", "spring-boot-devtools", "runtime", true);
+        dependency("postgresql", "org.postgresql", "postgresql", "runtime", false);
+        dependency("mysql", "com.mysql", "mysql-connector-j", "runtime", false);
+        dependency("h2", "com.h2database", "h2", "runtime", false);
+        dependency("lombok", "org.projectlombok", "lombok", null, true).annotationProcessor = true;
+    }
+
+    private final Map<String, String> templates = new LinkedHashMap<>();
+    private final byte[] mavenWrapperScript;
+    private final byte[] mavenWrapperCmd;
+
+    public ProjectSkeletonGenerator() {
+        for (String template : List.of("pom.xml.tmpl", "Application.java.tmpl", "ApplicationTests.java.tmpl",
+                "application.properties.tmpl", "maven-wrapper.properties", "gitignore", "gitattributes")) {
+            templates.put(template, new String(readTemplate(template), StandardCharsets.UTF_8));
+        }
+        this.mavenWrapperScript = readTemplate("mvnw");
+        this.mavenWrapperCmd = readTemplate("mvnw.cmd");
+    }
+
+    /**
+     * Whether the project can be generated locally: every dependency id is known and the
+     * coordinates need no Initializr-specific cleanup
+     */
+    public boolean supports(String groupId, String artifactId, String javaVersion,
+                            String springBootVersion, String dependencies) {
+        if (!InitializrSkeletonCache.hasSimpleCoordinates(groupId, artifactId)
+                || javaVersion == null || !JAVA_VERSION.matcher(javaVersion.trim()).matches()
+                || springBootVersion == null || !BOOT_VERSION.matcher(springBootVersion.trim()).matches()) {
+            return false;
+        }
+        return DEPENDENCIES.keySet().containsAll(dependencyIds(dependencies));
+    }
+
+    /**
+     * Generates the project files with paths relative to the repository root
+     */
+    public List<SpringBootProjectGitHubService.GitHubFile> generate(
+            String groupId, String artifactId, String javaVersion,
+            String springBootVersion, String dependencies) {
+
+        if (!supports(groupId, artifactId, javaVersion, springBootVersion, dependencies)) {
+            throw new IllegalArgumentException("Project cannot be generated locally: groupId=" + groupId
+                    + ", artifactId=" + artifactId + ", dependencies=" + dependencies);
+        }
+
+        String applicationName = InitializrSkeletonCache.applicationName(artifactId);
+        String packagePath = groupId.replace('.', '/');
+        Map<String, String> values = Map.of(
+                "groupId", groupId,
+                "artifactId", artifactId,
+                "packageName", groupId,
+                "applicationName", applicationName,
+                "javaVersion", javaVersion.trim(),
+                "bootVersion", springBootVersion.trim());
+
+        List<StarterDependency> selected = new ArrayList<>();
+        for (String id : dependencyIds(dependencies)) {
+            selected.add(DEPENDENCIES.get(id));
+        }
+        // Initializr lists compile dependencies first, then runtime and optional ones
+        selected.sort(Comparator.comparingInt(StarterDependency::sortOrder));
+
+        List<SpringBootProjectGitHubService.GitHubFile> files = new ArrayList<>();
+        files.add(text(".gitattributes", templates.get("gitattributes")));
+        files.add(text(".gitignore", templates.get("gitignore")));
+        files.add(new SpringBootProjectGitHubService.GitHubFile("mvnw", mavenWrapperScript));
+        files.add(new SpringBootProjectGitHubService.GitHubFile("mvnw.cmd", mavenWrapperCmd));
+        files.add(text(".mvn/wrapper/maven-wrapper.properties", templates.get("maven-wrapper.properties")));
+        files.add(text("pom.xml", render(templates.get("pom.xml.tmpl"), values)
+                .replace("{{dependencies}}", dependencyXml(selected))
+                .replace("{{plugins}}", pluginXml(selected))));
+        files.add(text("src/main/java/" + packagePath + "/" + applicationName + ".java",
+                render(templates.get("Application.java.tmpl"), values)));
+        files.add(text("src/main/resources/application.properties",
+                render(templates.get("application.properties.tmpl"), values)));
+        files.add(text("src/test/java/" + packagePath + "/" + applicationName + "Tests.java",
+                render(templates.get("ApplicationTests.java.tmpl"), values)));
+        return files;
+    }
+
+    private static String dependencyXml(List<StarterDependency> selected) {
+        StringBuilder xml = new StringBuilder();
+        for (StarterDependency dependency : selected) {
+            appendDependency(xml, dependency.groupId, dependency.artifactId, dependency.scope, dependency.optional);
+        }
+        appendDependency(xml, "org.springframework.boot", "spring-boot-starter-test", "test", false);
+        for (StarterDependency dependency : selected) {
+            if (dependency.testGroupId != null) {
+                appendDependency(xml, dependency.testGroupId, dependency.testArtifactId, "test", false);
+            }
+        }
+        return xml.toString();
+    }
+
+    private static void appendDependency(StringBuilder xml, String groupId, String artifactId,
+                                         String scope, boolean optional) {
+        xml.append("\t\t<dependency>\n")
+                .append("\t\t\t<groupId>").append(groupId).append("</groupId>\n")
+                .append("\t\t\t<artifactId>").append(artifactId).append("</artifactId>\n");
+        if (scope != null) {
+            xml.append("\t\t\t<scope>").append(scope).append("</scope>\n");
+        }
+        if (optional) {
+            xml.append("\t\t\t<optional>true</optional>\n");
+        }
+        xml.append("\t\t</dependency>\n");
+    }
+
+    /**
+     * Build plugins; annotation processors are registered with the compiler and
+     * kept out of the executable jar
+     */
+    private static String pluginXml(List<StarterDependency> selected) {
+        List<StarterDependency> processors = selected.stream().filter(d -> d.annotationProcessor).toList();
+        StringBuilder xml = new StringBuilder();
+        if (!processors.isEmpty()) {
+            xml.append("\t\t\t<plugin>\n")
+                    .append("\t\t\t\t<groupId>org.apache.maven.plugins</groupId>\n")
+                    .append("\t\t\t\t<artifactId>maven-compiler-plugin</artifactId>\n")
+                    .append("\t\t\t\t<configuration>\n")
+                    .append("\t\t\t\t\t<annotationProcessorPaths>\n");
+            for (StarterDependency processor : processors) {
+                xml.append("\t\t\t\t\t\t<path>\n")
+                        .append("\t\t\t\t\t\t\t<groupId>").append(processor.groupId).append("</groupId>\n")
+                        .append("\t\t\t\t\t\t\t<artifactId>").append(processor.artifactId).append("</artifactId>\n")
+                        .append("\t\t\t\t\t\t</path>\n");
+            }
+            xml.append("\t\t\t\t\t</annotationProcessorPaths>\n")
+                    .append("\t\t\t\t</configuration>\n")
+                    .append("\t\t\t</plugin>\n");
+        }
+        xml.append("\t\t\t<plugin>\n")
+                .append("\t\t\t\t<groupId>org.springframework.boot</groupId>\n")
+                .append("\t\t\t\t<artifactId>spring-boot-maven-plugin</artifactId>\n");
+        if (!processors.isEmpty()) {
+            xml.append("\t\t\t\t<configuration>\n")
+                    .append("\t\t\t\t\t<excludes>\n");
+            for (StarterDependency processor : processors) {
+                xml.append("\t\t\t\t\t\t<exclude>\n")
+                        .append("\t\t\t\t\t\t\t<groupId>").append(processor.groupId).append("</groupId>\n")
+                        .append("\t\t\t\t\t\t\t<artifactId>").append(processor.artifactId).append("</artifactId>\n")
+                        .append("\t\t\t\t\t\t</exclude>\n");
+            }
+            xml.append("\t\t\t\t\t</excludes>\n")
+                    .append("\t\t\t\t</configuration>\n");
+        }
+        xml.append("\t\t\t</plugin>\n");
+        return xml.toString();
+    }
+
+    private static String render(String template, Map<String, String> values) {
+        String result = template;
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            result = result.replace("{{" + value.getKey() + "}}", value.getValue());
+        }
+        return result;
+    }
+
+    private static SpringBootProjectGitHubService.GitHubFile text(String path, String content) {
+        return new SpringBootProjectGitHubService.GitHubFile(path, content);
+    }
+
+    private static Set<String> dependencyIds(String dependencies) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (dependencies != null) {
+            for (String dependency : dependencies.split(",")) {
+                if (!dependency.isBlank()) {
+                    ids.add(dependency.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static byte[] readTemplate(String name) {
+        try (InputStream in = ProjectSkeletonGenerator.class.getClassLoader()
+                .getResourceAsStream(TEMPLATE_ROOT + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing skeleton template " + TEMPLATE_ROOT + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read skeleton template " + TEMPLATE_ROOT + name, e);
+        }
+    }
+
+    private static StarterDependency starter(String id, String artifactId) {
+        return dependency(id, "org.springframework.boot", artifactId, null, false);
+    }
+
+    private static StarterDependency dependency(String id, String groupId, String artifactId,
+                                                String scope, boolean optional) {
+        StarterDependency dependency = new StarterDependency(groupId, artifactId, scope, optional);
+        DEPENDENCIES.put(id, dependency);
+        return dependency;
+    }
+
+    private static final class StarterDependency {
+        private final String groupId;
+        private final String artifactId;
+        private final String scope;
+        private final boolean optional;
+        private boolean annotationProcessor;
+        private String testGroupId;
+        private String testArtifactId;
+
+        private StarterDependency(String groupId, String artifactId, String scope, boolean optional) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.scope = scope;
+            this.optional = optional;
+        }
+
+        private StarterDependency testDependency(String groupId, String artifactId) {
+            this.testGroupId = groupId;
+            this.testArtifactId = artifactId;
+            return this;
+        }
+
+        private int sortOrder() {
+            if (optional && scope == null) {
+                return 2;
+            }
+            return scope == null ? 0 : 1;
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.justjava.devFlow.util;
 
-import org.springframework.http.*;
+import com.justjava.devFlow.push.FileSource;
+import com.justjava.devFlow.push.GitHubPushTarget;
+import com.justjava.devFlow.push.PushRequest;
+import com.justjava.devFlow.push.PushTargetRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -21,13 +26,27 @@ import java.util.zip.ZipInputStream;
 public class SpringBootProjectGitHubService {
 
     private static final String SPRING_INITIALIZR_URL = "https://start.spring.io/starter.zip";
-    private static final String GITHUB_API_BASE = "https://api.github.com";
+    private static final String SKELETON_GENERATOR_LOCAL = "local";
+    private static final int ZIP_BUFFER_SIZE = 64 * 1024;
+    private static final String TEMPLATE_PREFIX = "devflow-template-";
 
-    private final RestTemplate restTemplate;
     private final HttpClient httpClient;
-
-    public SpringBootProjectGitHubService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    private final PushTargetRegistry pushTargets;
+    private final InitializrSkeletonCache skeletonCache;
+    private final ProjectSkeletonGenerator skeletonGenerator;
+    private final String skeletonGeneratorMode;
+    private final boolean templatesEnabled;
+
+    public SpringBootProjectGitHubService(PushTargetRegistry pushTargets,
+                                          InitializrSkeletonCache skeletonCache,
+                                          ProjectSkeletonGenerator skeletonGenerator,
+                                          @Value("${app.skeleton.generator:initializr}") String skeletonGeneratorMode,
+                                          @Value("${app.github.templates.enabled:false}") boolean templatesEnabled) {
+        this.pushTargets = pushTargets;
+        this.skeletonCache = skeletonCache;
+        this.skeletonGenerator = skeletonGenerator;
+        this.skeletonGeneratorMode = skeletonGeneratorMode;
+        this.templatesEnabled = templatesEnabled;
         this.httpClient = HttpClient.newBuilder()
                 .followRedirects(HttpClient.Redirect.NORMAL)
                 .build();
@@ -41,6 +60,20 @@ public class SpringBootProjectGitHubService {
             String springBootVersion, String dependencies, String githubUsername,
             String githubToken, String repositoryDescription, boolean isPrivateRepo)
             throws ProjectDownloadException, GitHubPushException {
+        return downloadAndPushToGitHub(groupId, artifactId, javaVersion, springBootVersion, dependencies,
+                githubUsername, githubToken, repositoryDescription, isPrivateRepo, null);
+    }
+
+    /**
+     * Downloads Spring Boot project and pushes it to the named push target
+     * (the configured default when null)
+     */
+    public GitHubRepositoryResult downloadAndPushToGitHub(
+            String groupId, String artifactId, String javaVersion,
+            String springBootVersion, String dependencies, String githubUsername,
+            String githubToken, String repositoryDescription, boolean isPrivateRepo,
+            String pushTarget)
+            throws ProjectDownloadException, GitHubPushException {
 
         artifactId = artifactId.replaceAll("\\s+","");
         if(repositoryDescription!=null&&repositoryDescription.length()>=350)
@@ -52,29 +85,88 @@ public class SpringBootProjectGitHubService {
                 +" the springBootVersion==="+springBootVersion
                 +" the dependencies==="+dependencies
                 +" the githubUsername==="+githubUsername
-                +" the githubToken==="+githubToken
                 +" the repositoryDescription==="+repositoryDescription+
                 " the isPrivateRepo==="+isPrivateRepo);
+        String projectArtifactId = artifactId;
         try {
-            // Step 1: Download Spring Boot project WITHOUT baseDir parameter
-            byte[] zipData = downloadSpringBootProject(
-                    groupId, artifactId, javaVersion, springBootVersion, dependencies);
+            if (SKELETON_GENERATOR_LOCAL.equalsIgnoreCase(skeletonGeneratorMode) && skeletonGenerator.supports(
+                    groupId, artifactId, javaVersion, springBootVersion, dependencies)) {
+                // Step 1: Generate the skeleton locally from the bundled templates, no network involved
+                List<GitHubFile> projectFiles = skeletonGenerator.generate(
+                        groupId, artifactId, javaVersion, springBootVersion, dependencies);
+
+                // Step 2: Push to GitHub repository
+                return pushProject(FileSource.of(projectFiles), pushTarget, new PushRequest(artifactId,
+                        repositoryDescription, isPrivateRepo, githubUsername, githubToken, false));
+            }
+
+            if (skeletonCache.isCacheable(groupId, artifactId)) {
+                // Step 1: Get the skeleton for this Java/Boot/dependency set from the local cache,
+                // downloading it from Spring Initializr only on a miss
+                try (InitializrSkeletonCache.Skeleton skeleton = skeletonCache.getSkeleton(javaVersion, springBootVersion,
+                        dependencies, (skeletonGroupId, skeletonArtifactId) -> openSpringBootProjectStream(skeletonGroupId,
+                                skeletonArtifactId, javaVersion, springBootVersion, dependencies))) {
+                    FileSource skeletonFiles = sink -> {
+                        try (InputStream zipStream = new BufferedInputStream(skeleton.open(), ZIP_BUFFER_SIZE)) {
+                            readZipEntries(zipStream, InitializrSkeletonCache.SKELETON_ARTIFACT_ID, sink);
+                        }
+                    };
+                    FileSource projectFiles = sink -> skeletonFiles.forEach(
+                            file -> sink.accept(skeletonCache.rewrite(file, groupId, projectArtifactId)));
+                    PushRequest request = new PushRequest(artifactId, repositoryDescription, isPrivateRepo,
+                            githubUsername, githubToken, false);
+
+                    // Step 2 (GitHub): create the repository from the template for this skeleton, so
+                    // only the files that mention the project coordinates are pushed afterwards
+                    if (templatesEnabled && pushTargets.get(pushTarget) instanceof GitHubPushTarget github
+                            && github.createFromTemplate(request, templateName(javaVersion, springBootVersion,
+                            dependencies), skeletonFiles)) {
+                        String readme = "# " + artifactId + "\n" + (repositoryDescription != null
+                                ? "\n" + repositoryDescription + "\n" : "");
+                        // README.md overwrites the template's README; prune drops the placeholder
+                        // package, but only when GitHub returned the whole tree (a truncated remote
+                        // tree is treated as unknown, and then nothing is pruned)
+                        return pushProject(sink -> {
+                            sink.accept(new GitHubFile("README.md", readme));
+                            projectFiles.forEach(sink);
+                        }, pushTarget, new PushRequest(artifactId, repositoryDescription, isPrivateRepo,
+                                githubUsername, githubToken, true));
+                    }
 
-            // Step 2: Extract files from ZIP and remove the parent folder
-            List<GitHubFile> projectFiles = extractFilesFromZip(zipData, artifactId);
+                    // Step 2: Push the skeleton rewritten to the project coordinates
+                    return pushProject(projectFiles, pushTarget, request);
+                }
+            }
 
-            // Step 3: Push to GitHub repository
-            String repositoryUrl = pushToGitHubRepository(
-                    projectFiles, artifactId, repositoryDescription, isPrivateRepo,
-                    githubUsername, githubToken);
+            // Step 1: Open the Spring Boot project download WITHOUT baseDir parameter
+            try (InputStream zipStream = openSpringBootProjectStream(
+                    groupId, artifactId, javaVersion, springBootVersion, dependencies)) {
 
-            return new GitHubRepositoryResult(repositoryUrl, artifactId, projectFiles.size());
+                // Step 2: Push to GitHub repository while the ZIP entries are still being read,
+                // so the archive is never held in memory as a whole
+                return pushProject(sink -> readZipEntries(zipStream, projectArtifactId, sink), pushTarget,
+                        new PushRequest(artifactId, repositoryDescription, isPrivateRepo,
+                                githubUsername, githubToken, false));
+            }
 
         } catch (IOException | InterruptedException e) {
             throw new GitHubPushException("Failed to push project to GitHub: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Template repository for a Java/Boot/dependency set; same key as the skeleton cache
+     */
+    static String templateName(String javaVersion, String springBootVersion, String dependencies) {
+        return TEMPLATE_PREFIX + InitializrSkeletonCache.cacheKey(javaVersion, springBootVersion, dependencies)
+                .substring(0, 16);
+    }
+
+    private GitHubRepositoryResult pushProject(FileSource files, String pushTarget, PushRequest request)
+            throws IOException, InterruptedException {
+        return pushTargets.get(pushTarget).push(request, files);
+    }
+
     /**
      * Downloads Spring Boot project from Spring Initializr WITHOUT baseDir
      */
@@ -82,27 +174,55 @@ public class SpringBootProjectGitHubService {
             String groupId, String artifactId, String javaVersion,
             String springBootVersion, String dependencies) throws ProjectDownloadException {
 
+        try (InputStream zipStream = openSpringBootProjectStream(
+                groupId, artifactId, javaVersion, springBootVersion, dependencies)) {
+            return zipStream.readAllBytes();
+        } catch (IOException e) {
+            throw new ProjectDownloadException(
+                    "Error downloading Spring Boot project from Initializr: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts the Spring Initializr download and returns the ZIP response body as a buffered stream.
+     * Only the status and the ZIP signature are checked up front; the caller must close the stream.
+     */
+    private InputStream openSpringBootProjectStream(
+            String groupId, String artifactId, String javaVersion,
+            String springBootVersion, String dependencies) throws ProjectDownloadException {
+
         try {
             // Remove baseDir parameter to get files in root of ZIP
             String body = buildRequestPayload(groupId, artifactId, javaVersion, springBootVersion, dependencies);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-            HttpEntity<String> requestEntity = new HttpEntity<>(body, headers);
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(SPRING_INITIALIZR_URL))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
 
-            ResponseEntity<byte[]> response = restTemplate.exchange(
-                    SPRING_INITIALIZR_URL, HttpMethod.POST, requestEntity, byte[].class);
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            InputStream zipStream = new BufferedInputStream(response.body(), ZIP_BUFFER_SIZE);
 
-            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+            if (response.statusCode() != 200) {
+                zipStream.close();
                 throw new ProjectDownloadException(
-                        "Failed to download Spring Boot project. Status: " + response.getStatusCode());
+                        "Failed to download Spring Boot project. Status: " + response.statusCode());
             }
 
-            byte[] zipData = response.getBody();
-            validateZipFile(zipData);
-
-            return zipData;
+            try {
+                validateZipStream(zipStream);
+            } catch (ProjectDownloadException e) {
+                zipStream.close();
+                throw e;
+            }
+            return zipStream;
 
+        } catch (ProjectDownloadException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProjectDownloadException("Interrupted while downloading Spring Boot project", e);
         } catch (Exception e) {
             throw new ProjectDownloadException(
                     "Error downloading Spring Boot project from Initializr: " + e.getMessage(), e);
@@ -114,20 +234,30 @@ public class SpringBootProjectGitHubService {
      */
     public List<GitHubFile> extractFilesFromZip(byte[] zipData, String artifactId) throws IOException {
         List<GitHubFile> files = new ArrayList<>();
+        try {
+            readZipEntries(new ByteArrayInputStream(zipData), artifactId, files::add);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting ZIP", e);
+        }
+        return files;
+    }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(zipData);
-             ZipInputStream zis = new ZipInputStream(bais)) {
+    /**
+     * Reads the ZIP entries one at a time and hands each file to the sink as raw bytes,
+     * with the parent folder removed from its path. Binary entries (e.g. the Maven wrapper jar)
+     * are passed through unchanged.
+     */
+    private void readZipEntries(InputStream in, String artifactId, FileSource.Sink sink)
+            throws IOException, InterruptedException {
 
+        try (ZipInputStream zis = new ZipInputStream(in)) {
             ZipEntry entry;
-            byte[] buffer = new byte[1024];
+            byte[] buffer = new byte[ZIP_BUFFER_SIZE];
 
             while ((entry = zis.getNextEntry()) != null) {
                 if (!entry.isDirectory()) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    int len;
-                    while ((len = zis.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
+                    byte[] content = readZipEntry(zis, entry, buffer);
 
                     String originalFilePath = entry.getName();
 
@@ -136,16 +266,29 @@ public class SpringBootProjectGitHubService {
 
                     // Skip if the path becomes empty (shouldn't happen with valid ZIP)
                     if (cleanedFilePath != null && !cleanedFilePath.isEmpty()) {
-                        String content = baos.toString(StandardCharsets.UTF_8);
-                        files.add(new GitHubFile(cleanedFilePath, content));
                         System.out.println("Extracted file: " + originalFilePath + " -> " + cleanedFilePath);
+                        sink.accept(new GitHubFile(cleanedFilePath, content));
                     }
                 }
                 zis.closeEntry();
             }
         }
+    }
 
-        return files;
+    /**
+     * Reads the current entry into an array of its exact size when the ZIP header records it
+     */
+    private static byte[] readZipEntry(ZipInputStream zis, ZipEntry entry, byte[] buffer) throws IOException {
+        long size = entry.getSize();
+        if (size >= 0 && size <= Integer.MAX_VALUE - 8) {
+            return zis.readNBytes((int) size);
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream(buffer.length);
+        int len;
+        while ((len = zis.read(buffer)) > 0) {
+            content.write(buffer, 0, len);
+        }
+        return content.toByteArray();
     }
 
     /**
@@ -189,214 +332,96 @@ public class SpringBootProjectGitHubService {
     }
 
     /**
-     * Pushes files to GitHub repository using GitHub API
+     * Validates the ZIP file signature without consuming the stream
      */
-    private String pushToGitHubRepository(List<GitHubFile> files, String repositoryName,
-                                          String description, boolean isPrivate,
-                                          String username, String token)
-            throws IOException, InterruptedException {
-
-        // Check if repository exists
-        if (repositoryExists(username, repositoryName, token)) {
-            System.out.println("Repository already exists: " + repositoryName);
-            return updateExistingRepository(files, username, repositoryName, token);
-        } else {
-            System.out.println("Creating new repository: " + repositoryName);
-            return createNewRepository(files, username, repositoryName, description, isPrivate, token);
+    private void validateZipStream(InputStream zipStream) throws IOException, ProjectDownloadException {
+        zipStream.mark(4);
+        byte[] signature = zipStream.readNBytes(4);
+        zipStream.reset();
+        if (signature.length < 4 || signature[0] != 'P' || signature[1] != 'K') {
+            throw new ProjectDownloadException("Invalid ZIP file received from Spring Initializr");
         }
     }
 
+    // Supporting data classes and exceptions remain the same
     /**
-     * Checks if GitHub repository exists using GitHub API
-     */
-    private boolean repositoryExists(String username, String repositoryName, String token)
-            throws IOException, InterruptedException {
-
-        String url = GITHUB_API_BASE + "/repos/" + username + "/" + repositoryName;
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("Authorization", "token " + token)
-                .header("Accept", "application/vnd.github.v3+json")
-                .GET()
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        return response.statusCode() == 200;
-    }
-
-    /**
-     * Creates new GitHub repository using GitHub API with auto_init: true
+     * A file to push. Text content is kept as given (a String or a view into the extracted
+     * artifact) and only encoded as UTF-8 while it is written, via {@link #openContent()}.
      */
-    private String createNewRepository(List<GitHubFile> files, String username, String repositoryName,
-                                       String description, boolean isPrivate, String token)
-            throws IOException, InterruptedException {
-
-        String url = GITHUB_API_BASE + "/user/repos";
-        String payload = String.format(
-                "{\"name\": \"%s\", \"description\": \"%s\", \"private\": %s, \"auto_init\": true}",
-                repositoryName, description, isPrivate);
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("Authorization", "token " + token)
-                .header("Accept", "application/vnd.github.v3+json")
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(payload))
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public static final class GitHubFile {
+        private final String filePath;
+        private final byte[] content;
+        private final CharSequence text;
 
-        if (response.statusCode() != 201) {
-            throw new IOException("Failed to create repository: " + response.body());
+        public GitHubFile(String filePath, CharSequence text) {
+            this.filePath = filePath;
+            this.content = null;
+            this.text = text;
         }
 
-        // Wait a moment for GitHub to initialize the repository
-        Thread.sleep(1000);
-
-        // Create initial commit with all files
-        createInitialCommit(files, username, repositoryName, token);
-
-        return "https://github.com/" + username + "/" + repositoryName;
-    }
-
-    /**
-     * Updates existing repository by creating individual file commits
-     */
-    private String updateExistingRepository(List<GitHubFile> files, String username,
-                                            String repositoryName, String token)
-            throws IOException, InterruptedException {
-
-        // For existing repositories, create or update files individually
-        for (GitHubFile file : files) {
-            createOrUpdateFile(username, repositoryName, file, token);
+        public GitHubFile(String filePath, byte[] content) {
+            this.filePath = filePath;
+            this.content = content;
+            this.text = null;
         }
 
-        return "https://github.com/" + username + "/" + repositoryName;
+        public String getFilePath() { return filePath; }
+        /** Content decoded as UTF-8; use {@link #getContentBytes()} for binary files */
+        public String getContent() { return text != null ? text.toString() : new String(content, StandardCharsets.UTF_8); }
+        /** Content as bytes; text content is encoded on every call, prefer {@link #openContent()} */
+        public byte[] getContentBytes() { return text != null ? text.toString().getBytes(StandardCharsets.UTF_8) : content; }
+        /** Length of the content in bytes */
+        public long getContentLength() { return text != null ? Utf8InputStream.length(text) : content.length; }
+        /** Streams the content bytes, encoding text content as it is read */
+        public InputStream openContent() { return text != null ? new Utf8InputStream(text) : new ByteArrayInputStream(content); }
     }
-
     /**
-     * Creates initial commit for a new repository using the contents API
+     * Pushes existing files to GitHub repository (for use by ArtifactFileExtractor)
      */
-    private void createInitialCommit(List<GitHubFile> files, String username,
-                                     String repositoryName, String token)
-            throws IOException, InterruptedException {
-
-        // For each file, use the contents API to create it
-        for (GitHubFile file : files) {
-            createOrUpdateFile(username, repositoryName, file, token);
-        }
+    public GitHubRepositoryResult pushFilesToGitHubRepository(
+            List<GitHubFile> files, String repositoryName, String description,
+            boolean isPrivate, String username, String token)
+            throws GitHubPushException {
+        return pushFilesToGitHubRepository(files, repositoryName, description, isPrivate, username, token, false);
     }
 
     /**
-     * Creates or updates a file using GitHub Contents API
+     * Pushes files to GitHub repository; with pruneMissing, remote files that are not
+     * part of the given files are deleted in the same commit
      */
-    private void createOrUpdateFile(String username, String repositoryName,
-                                    GitHubFile file, String token)
-            throws IOException, InterruptedException {
-
-        String url = GITHUB_API_BASE + "/repos/" + username + "/" + repositoryName + "/contents/" + file.getFilePath();
-
-        // First, check if file exists to get its SHA (for updates)
-        String existingSha = getFileSha(username, repositoryName, file.getFilePath(), token);
-
-        String payload;
-        if (existingSha != null) {
-            // Update existing file
-            payload = String.format(
-                    "{\"message\": \"Add %s\", \"content\": \"%s\", \"sha\": \"%s\"}",
-                    file.getFilePath(),
-                    java.util.Base64.getEncoder().encodeToString(file.getContent().getBytes(StandardCharsets.UTF_8)),
-                    existingSha);
-        } else {
-            // Create new file
-            payload = String.format(
-                    "{\"message\": \"Add %s\", \"content\": \"%s\"}",
-                    file.getFilePath(),
-                    java.util.Base64.getEncoder().encodeToString(file.getContent().getBytes(StandardCharsets.UTF_8)));
-        }
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("Authorization", "token " + token)
-                .header("Accept", "application/vnd.github.v3+json")
-                .header("Content-Type", "application/json")
-                .PUT(HttpRequest.BodyPublishers.ofString(payload))
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() != 200 && response.statusCode() != 201) {
-            System.err.println("Failed to create/update file " + file.getFilePath() + ": " + response.body());
-            // Continue with other files instead of failing completely
-        } else {
-            System.out.println("Successfully created/updated file: " + file.getFilePath());
-        }
+    public GitHubRepositoryResult pushFilesToGitHubRepository(
+            List<GitHubFile> files, String repositoryName, String description,
+            boolean isPrivate, String username, String token, boolean pruneMissing)
+            throws GitHubPushException {
+        return pushFilesToGitHubRepository(files, repositoryName, description, isPrivate, username, token,
+                pruneMissing, null);
     }
 
     /**
-     * Gets the SHA of an existing file (returns null if file doesn't exist)
+     * Pushes files to the named push target (the configured default when null)
      */
-    private String getFileSha(String username, String repositoryName, String filePath, String token)
-            throws IOException, InterruptedException {
-
-        String url = GITHUB_API_BASE + "/repos/" + username + "/" + repositoryName + "/contents/" + filePath;
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("Authorization", "token " + token)
-                .header("Accept", "application/vnd.github.v3+json")
-                .GET()
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() == 200) {
-            // Extract SHA from response
-            String responseBody = response.body();
-            int shaStart = responseBody.indexOf("\"sha\"") + 7;
-            int shaEnd = responseBody.indexOf("\"", shaStart);
-            return responseBody.substring(shaStart, shaEnd);
-        }
-
-        return null; // File doesn't exist
-    }
+    public GitHubRepositoryResult pushFilesToGitHubRepository(
+            List<GitHubFile> files, String repositoryName, String description,
+            boolean isPrivate, String username, String token, boolean pruneMissing,
+            String pushTarget)
+            throws GitHubPushException {
 
-    /**
-     * Validates ZIP file signature
-     */
-    private void validateZipFile(byte[] zipData) throws ProjectDownloadException {
-        if (zipData.length < 4 || zipData[0] != 'P' || zipData[1] != 'K') {
-            throw new ProjectDownloadException("Invalid ZIP file received from Spring Initializr");
-        }
+        return pushFilesToGitHubRepository(FileSource.of(files), repositoryName, description, isPrivate,
+                username, token, pruneMissing, pushTarget);
     }
 
-    // Supporting data classes and exceptions remain the same
-    public static final class GitHubFile {
-        private final String filePath;
-        private final String content;
-
-        public GitHubFile(String filePath, String content) {
-            this.filePath = filePath;
-            this.content = content;
-        }
-
-        public String getFilePath() { return filePath; }
-        public String getContent() { return content; }
-    }
     /**
-     * Pushes existing files to GitHub repository (for use by ArtifactFileExtractor)
+     * Pushes files to the named push target while they are still being produced by the source
      */
     public GitHubRepositoryResult pushFilesToGitHubRepository(
-            List<GitHubFile> files, String repositoryName, String description,
-            boolean isPrivate, String username, String token)
+            FileSource files, String repositoryName, String description,
+            boolean isPrivate, String username, String token, boolean pruneMissing,
+            String pushTarget)
             throws GitHubPushException {
 
         try {
-            String repositoryUrl = pushToGitHubRepository(
-                    files, repositoryName, description, isPrivate, username, token);
-
-            return new GitHubRepositoryResult(repositoryUrl, repositoryName, files.size());
+            return pushProject(files, pushTarget,
+                    new PushRequest(repositoryName, description, isPrivate, username, token, pruneMissing));
 
         } catch (IOException | InterruptedException e) {
             throw new GitHubPushException("Failed to push files to GitHub repository: " + e.getMessage(), e);
@@ -407,16 +432,52 @@ public class SpringBootProjectGitHubService {
         private final String repositoryUrl;
         private final String repositoryName;
         private final int filesCount;
+        private final int roundTrips;
+        private final long elapsedMillis;
+        private final String commitSha;
+        private final List<String> failures;
+        private final int filesSkipped;
+        private final int filesChanged;
+        private final int filesDeleted;
+        private final long readyWaitMillis;
+
+        public GitHubRepositoryResult(String repositoryUrl, String repositoryName, int filesCount,
+                                      int roundTrips, long elapsedMillis, String commitSha,
+                                      List<String> failures, int filesSkipped, int filesChanged,
+                                      int filesDeleted) {
+            this(repositoryUrl, repositoryName, filesCount, roundTrips, elapsedMillis, commitSha, failures,
+                    filesSkipped, filesChanged, filesDeleted, 0);
+        }
 
-        public GitHubRepositoryResult(String repositoryUrl, String repositoryName, int filesCount) {
+        public GitHubRepositoryResult(String repositoryUrl, String repositoryName, int filesCount,
+                                      int roundTrips, long elapsedMillis, String commitSha,
+                                      List<String> failures, int filesSkipped, int filesChanged,
+                                      int filesDeleted, long readyWaitMillis) {
             this.repositoryUrl = repositoryUrl;
             this.repositoryName = repositoryName;
             this.filesCount = filesCount;
+            this.roundTrips = roundTrips;
+            this.elapsedMillis = elapsedMillis;
+            this.commitSha = commitSha;
+            this.failures = failures;
+            this.filesSkipped = filesSkipped;
+            this.filesChanged = filesChanged;
+            this.filesDeleted = filesDeleted;
+            this.readyWaitMillis = readyWaitMillis;
         }
 
         public String getRepositoryUrl() { return repositoryUrl; }
         public String getRepositoryName() { return repositoryName; }
         public int getFilesCount() { return filesCount; }
+        public int getRoundTrips() { return roundTrips; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public String getCommitSha() { return commitSha; }
+        public List<String> getFailures() { return failures; }
+        public int getFilesSkipped() { return filesSkipped; }
+        public int getFilesChanged() { return filesChanged; }
+        public int getFilesDeleted() { return filesDeleted; }
+        /** Time spent waiting for a newly created repository to become ready; 0 if none was created */
+        public long getReadyWaitMillis() { return readyWaitMillis; }
     }
 
     public static class ProjectDownloadException extends Exception {
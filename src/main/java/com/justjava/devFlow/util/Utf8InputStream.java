@@ -0,0 +1,117 @@
+package com.justjava.devFlow.util;
+
+import java.io.InputStream;
+
+/**
+ * Reads text as UTF-8 bytes, encoding a few characters at a time, so file content kept as a
+ * String (or a view into one) is never copied into a whole byte array to be written. The bytes
+ * are exactly those of {@code String.getBytes(UTF_8)}: unpaired surrogates become '?'.
+ */
+final class Utf8InputStream extends InputStream {
+
+    private final CharSequence text;
+    private int index;
+    /** Encoded bytes of the current character not yet read */
+    private final byte[] pending = new byte[4];
+    private int pendingStart;
+    private int pendingEnd;
+
+    Utf8InputStream(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Number of bytes the text encodes to
+     */
+    static long length(CharSequence text) {
+        long length = 0;
+        int count = text.length();
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public int read() {
+        if (pendingStart == pendingEnd && !encodeNext()) {
+            return -1;
+        }
+        return pending[pendingStart++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int written = 0;
+        int count = text.length();
+        while (written < length) {
+            if (pendingStart < pendingEnd) {
+                buffer[offset + written++] = pending[pendingStart++];
+                continue;
+            }
+            // Fast path for ASCII runs
+            while (written < length && index < count) {
+                char c = text.charAt(index);
+                if (c >= 0x80) {
+                    break;
+                }
+                buffer[offset + written++] = (byte) c;
+                index++;
+            }
+            if (written < length && !encodeNext()) {
+                break;
+            }
+        }
+        return written == 0 ? -1 : written;
+    }
+
+    /**
+     * Encodes the next character into the pending bytes
+     */
+    private boolean encodeNext() {
+        if (index >= text.length()) {
+            return false;
+        }
+        char c = text.charAt(index++);
+        pendingStart = 0;
+        if (c < 0x80) {
+            pending[0] = (byte) c;
+            pendingEnd = 1;
+        } else if (c < 0x800) {
+            pending[0] = (byte) (0xC0 | c >> 6);
+            pending[1] = (byte) (0x80 | c & 0x3F);
+            pendingEnd = 2;
+        } else if (Character.isHighSurrogate(c) && index < text.length() && Character.isLowSurrogate(text.charAt(index))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(index++));
+            pending[0] = (byte) (0xF0 | codePoint >> 18);
+            pending[1] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            pending[2] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            pending[3] = (byte) (0x80 | codePoint & 0x3F);
+            pendingEnd = 4;
+        } else if (Character.isSurrogate(c)) {
+            pending[0] = '?';
+            pendingEnd = 1;
+        } else {
+            pending[0] = (byte) (0xE0 | c >> 12);
+            pending[1] = (byte) (0x80 | c >> 6 & 0x3F);
+            pending[2] = (byte) (0x80 | c & 0x3F);
+            pendingEnd = 3;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+package com.justjava.devFlow.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Lookups by kind and content, least recently used eviction under the 1 MB cap used here, and the
+ * size accounting the cap relies on
+ */
+class ExtractionCacheTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private final List<String> extracted = new ArrayList<>();
+
+    @Test
+    void unchangedDocumentIsExtractedOnce() {
+        ExtractionCache cache = new ExtractionCache(true, 1);
+
+        String first = get(cache, "files", new String("document"), 10);
+        String second = get(cache, "files", new String("document"), 10);
+
+        assertSame(first, second);
+        assertEquals(List.of("files:document"), extracted);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void kindsAreCachedApart() {
+        ExtractionCache cache = new ExtractionCache(true, 1);
+
+        get(cache, "files", "document", 10);
+        get(cache, "stories", "document", 10);
+        get(cache, "files", "other document", 10);
+
+        assertEquals(List.of("files:document", "stories:document", "files:other document"), extracted);
+        assertEquals(3, cache.getEntryCount());
+        assertEquals(30, cache.getSizeBytes());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedFirst() {
+        ExtractionCache cache = new ExtractionCache(true, 1);
+        long weight = 400 * 1024;
+
+        get(cache, "files", "a", weight);
+        get(cache, "files", "b", weight);
+        // Using a makes b the eldest
+        get(cache, "files", "a", weight);
+        get(cache, "files", "c", weight);
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(2 * weight, cache.getSizeBytes());
+        extracted.clear();
+        get(cache, "files", "a", weight);
+        get(cache, "files", "c", weight);
+        assertEquals(List.of(), extracted);
+        get(cache, "files", "b", weight);
+        assertEquals(List.of("files:b"), extracted);
+    }
+
+    @Test
+    void replacedEntryIsOnlyCountedOnce() {
+        ExtractionCache cache = new ExtractionCache(true, 1);
+
+        // The same document extracted while its extraction is running (as by two concurrent
+        // callers): the outer result replaces the inner one when it's put
+        cache.get("files", "document", document -> {
+            get(cache, "files", document, 300);
+            return "outer";
+        }, result -> 500);
+
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(500, cache.getSizeBytes());
+        assertEquals("outer", cache.get("files", "document", document -> "again", result -> 1));
+    }
+
+    @Test
+    void resultLargerThanTheCapIsNotCached() {
+        ExtractionCache cache = new ExtractionCache(true, 1);
+        get(cache, "files", "small", 100);
+
+        get(cache, "files", "huge", MB + 1);
+        get(cache, "files", "huge", MB + 1);
+
+        assertEquals(List.of("files:small", "files:huge", "files:huge"), extracted);
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(100, cache.getSizeBytes());
+    }
+
+    @Test
+    void disabledCacheAlwaysExtracts() {
+        ExtractionCache cache = ExtractionCache.disabled();
+
+        get(cache, "files", "document", 10);
+        get(cache, "files", "document", 10);
+
+        assertEquals(List.of("files:document", "files:document"), extracted);
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    void contentHashDependsOnEveryChar() {
+        String document = "x".repeat(10_000);
+
+        assertEquals(ExtractionCache.contentHash(document), ExtractionCache.contentHash(new StringBuilder(document)));
+        assertNotEquals(ExtractionCache.contentHash(document), ExtractionCache.contentHash(document + "x"));
+        // Both bytes of a char are digested
+        assertNotEquals(ExtractionCache.contentHash("\u0100"), ExtractionCache.contentHash("\u0000"));
+    }
+
+    /**
+     * Looks the document up, recording each extraction; the result weighs {@code weight} bytes
+     */
+    private String get(ExtractionCache cache, String kind, String document, long weight) {
+        return cache.get(kind, document, text -> {
+            extracted.add(kind + ":" + text);
+            return new String(text);
+        }, result -> weight);
+    }
+}
@@ -0,0 +1,158 @@
+package com.justjava.devFlow.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Merging the files of several formats, and failing the whole extraction (cancelling the other
+ * formats) when one of them fails
+ */
+class ExtractionEngineTest {
+
+    private static final long BUDGET_MILLIS = 60_000;
+
+    @Test
+    void filesAreMergedInFormatOrderWithoutDuplicatePaths() {
+        ExtractionEngine engine = engine(BUDGET_MILLIS,
+                new FixedFormat("first", "src/A.java", "src/B.java"), new FixedFormat("second", "src/B.java", "src/C.java"));
+
+        List<ExtractedFile> files = engine.extract("document", "first", "second").files();
+
+        assertEquals(List.of("src/A.java:first", "src/B.java:first", "src/C.java:second"),
+                files.stream().map(file -> file.getFilePath() + ":" + file.getContent()).toList());
+    }
+
+    @Test
+    void failingFormatCancelsTheRunningOnes() throws InterruptedException {
+        SpinningFormat spinning = new SpinningFormat("spinning");
+        ExtractionEngine engine = engine(BUDGET_MILLIS, new FailingFormat("failing", spinning.started), spinning);
+
+        ExtractionException failure = assertThrows(ExtractionException.class,
+                () -> engine.extract("document", "failing", "spinning"));
+
+        assertEquals("failing format broke", failure.getMessage());
+        // Well before its budget, the spinning format stopped at a budget check
+        assertTrue(spinning.stopped.await(10, TimeUnit.SECONDS));
+        assertTrue(spinning.stoppedBy.getMessage().startsWith("File extraction was cancelled"));
+    }
+
+    @Test
+    void failingPooledFormatCancelsTheOneOnTheCallingThread() {
+        SpinningFormat spinning = new SpinningFormat("spinning");
+        ExtractionEngine engine = engine(BUDGET_MILLIS, spinning, new FailingFormat("failing", spinning.started));
+
+        ExtractionException failure = assertThrows(ExtractionException.class,
+                () -> engine.extract("document", "spinning", "failing"));
+
+        assertEquals("File extraction was cancelled on a document of 8 characters: failing format broke",
+                failure.getMessage());
+        assertEquals("failing format broke", failure.getCause().getMessage());
+    }
+
+    @Test
+    void exceededTimeBudgetFailsTheExtraction() {
+        ExtractionEngine engine = engine(0, new SpinningFormat("spinning"));
+
+        ExtractionException failure = assertThrows(ExtractionException.class,
+                () -> engine.extract("document", "spinning"));
+
+        assertEquals("File extraction exceeded its time budget of 0 ms on a document of 8 characters",
+                failure.getMessage());
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        ExtractionEngine engine = engine(BUDGET_MILLIS, new FixedFormat("first", "src/A.java"));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.extract("document", "missing"));
+    }
+
+    private static ExtractionEngine engine(long budgetMillis, ExtractionFormat... formats) {
+        return new ExtractionEngine(List.of(formats), ExtractionCache.disabled(), budgetMillis, 2);
+    }
+
+    private static class FixedFormat implements ExtractionFormat {
+
+        private final String name;
+        private final List<String> paths;
+
+        FixedFormat(String name, String... paths) {
+            this.name = name;
+            this.paths = List.of(paths);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean appliesTo(String document) {
+            return true;
+        }
+
+        @Override
+        public List<ExtractedFile> extract(String document, ExtractionContext context) {
+            return paths.stream().map(path -> new ExtractedFile(path, name, context.classify(path))).toList();
+        }
+    }
+
+    /**
+     * Fails once the other format is running
+     */
+    private static final class FailingFormat extends FixedFormat {
+
+        private final CountDownLatch otherStarted;
+
+        FailingFormat(String name, CountDownLatch otherStarted) {
+            super(name);
+            this.otherStarted = otherStarted;
+        }
+
+        @Override
+        public List<ExtractedFile> extract(String document, ExtractionContext context) {
+            try {
+                otherStarted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new ExtractionException("failing format broke");
+        }
+    }
+
+    /**
+     * Checks its budget until the check fails
+     */
+    private static final class SpinningFormat extends FixedFormat {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        volatile ExtractionException stoppedBy;
+
+        SpinningFormat(String name) {
+            super(name);
+        }
+
+        @Override
+        public List<ExtractedFile> extract(String document, ExtractionContext context) {
+            started.countDown();
+            try {
+                while (true) {
+                    context.checkTimeBudget();
+                    Thread.onSpinWait();
+                }
+            } catch (ExtractionException e) {
+                stoppedBy = e;
+                stopped.countDown();
+                throw e;
+            }
+        }
+    }
+}
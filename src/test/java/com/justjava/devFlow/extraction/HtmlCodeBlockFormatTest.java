@@ -0,0 +1,200 @@
+package com.justjava.devFlow.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The single-pass scan must find exactly the files the former per-type regex scans found,
+ * including their quirks; {@link RegexExtractor} is that extractor, kept as the reference.
+ */
+class HtmlCodeBlockFormatTest {
+
+    private static final String JAVA = "<pre><code class=\"language-java\">";
+    private static final String SQL = "<pre><code class=\"language-sql\">";
+    private static final String YAML = "<pre><code class=\"language-yaml\">";
+    private static final String PRE_CLOSE = "</code></pre>";
+
+    private static final String[] PIECES = {
+            JAVA, SQL, YAML, "<pre><code class=\"language-html\">", PRE_CLOSE, "<code>", "</code>", "</pre>",
+            "package", " package ", "package com.a.b;", "com.x", ";", " ", "\n", "\t", "\u000B", "\f", "\r",
+            "class Foo ", "public class BarTest ", "interface Baz ", "enum E ", "@Test ", "import org.junit.X;",
+            "WebDriver", "&lt;!DOCTYPE html&gt;", "&lt;!--", "--&gt;", "-", "--", ">", "<", "&lt;div&gt;",
+            "frag.html", "x", "CREATE TABLE t;", "key: v", "&amp;", "class DocumentEditingE2ETest ", "By.",
+            "&quot;", "\u00a0", "&nbsp;", "&#39;", "&amp;quot;", "&amp;lt;",
+    };
+
+    @Test
+    void completeDocumentYieldsFilesInTypeOrder() {
+        String document = YAML + "openapi: 3.0.0\n" + PRE_CLOSE
+                + SQL + "-- schema\nCREATE TABLE doc (title VARCHAR(10) DEFAULT &#39;x&#39;);" + PRE_CLOSE
+                + "<code>&lt;!-- fragments/row.html --&gt;\n&lt;tr&gt;&lt;/tr&gt;</code>"
+                + "<code>&lt;!DOCTYPE html&gt;\n&lt;html&gt;&lt;/html&gt;</code>"
+                + JAVA + "package com.acme;\nimport org.junit.jupiter.api.Test;\nclass AppTest { @Test void t() {} }"
+                + PRE_CLOSE
+                + JAVA + "package com.acme;\npublic class App { List&lt;String&gt; names; }" + PRE_CLOSE;
+
+        assertEquals(List.of(
+                "src/main/java/com/acme/App.java (JAVA_MAIN):\n"
+                        + "package com.acme;\n\npublic class App { List<String> names; }",
+                "src/test/java/com/acme/AppTest.java (JAVA_TEST):\n"
+                        + "package com.acme;\nimport org.junit.jupiter.api.Test;\nclass AppTest { @Test void t() {} }",
+                "src/main/resources/templates/documents.html (HTML_TEMPLATE):\n<html></html>",
+                "src/main/resources/templates/fragments/row.html (HTML_TEMPLATE):\n<tr></tr>",
+                "src/main/resources/schema.sql (SQL_SCHEMA):\n"
+                        + "schema\nCREATE TABLE doc (title VARCHAR(10) DEFAULT 'x');",
+                "src/main/resources/api/openapi.yaml (YAML_CONFIG):\nopenapi: 3.0.0"), extract(document));
+    }
+
+    @Test
+    void packageNameWithoutSemicolonRunsIntoTheNextBlock() {
+        String document = JAVA + "package com.acme\nclass A {}" + PRE_CLOSE
+                + JAVA + "package com.b;\nclass B {}" + PRE_CLOSE;
+
+        String packageName = "com.acme\nclass A {}" + PRE_CLOSE + JAVA + "package com.b";
+        assertEquals(List.of("src/main/java/" + packageName.replace('.', '/') + "/B.java (JAVA_MAIN):\n"
+                + "package " + packageName + ";\n\nclass B {}"), extract(document));
+    }
+
+    @Test
+    void sqlContentStartsRightAfterTheDashes() {
+        String document = SQL + "\n  --   users table\nCREATE TABLE users (id INT);\n" + PRE_CLOSE
+                + SQL + "CREATE TABLE skipped (id INT);" + PRE_CLOSE;
+
+        assertEquals(List.of("src/main/resources/schema.sql (SQL_SCHEMA):\n"
+                + "users table\nCREATE TABLE users (id INT);"), extract(document));
+    }
+
+    @Test
+    void fragmentNameEndsAtTheLastCommentEndBeforeTheNextGreaterThan() {
+        String document = "<code>&lt;!-- a.html --&gt; b.html --&gt;&lt;div&gt;x&lt;/div&gt;</code>"
+                + "<code>&lt;!-- c.html --&gt;<b>bold</b></code>";
+
+        assertEquals(List.of(
+                "src/main/resources/templates/a.html --&gt; b.html (HTML_TEMPLATE):\n<div>x</div>",
+                "src/main/resources/templates/c.html (HTML_TEMPLATE):\n<b>bold</b>"), extract(document));
+    }
+
+    @Test
+    void generatedDocumentsMatchTheRegexExtractor() {
+        Random random = new Random(20261018);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder document = new StringBuilder();
+            for (int pieces = 1 + random.nextInt(60); pieces > 0; pieces--) {
+                document.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            String text = document.toString();
+            assertEquals(RegexExtractor.extract(text), extract(text), text);
+        }
+    }
+
+    private static List<String> extract(String document) {
+        ExtractionContext context = new ExtractionContext(PathClassifier.standard(), TimeUnit.MINUTES.toNanos(1),
+                document.length());
+        List<String> files = new ArrayList<>();
+        for (ExtractedFile file : new HtmlCodeBlockFormat().extract(document, context)) {
+            files.add(describe(file.getFilePath(), file.getFileType(), file.getContent()));
+        }
+        return files;
+    }
+
+    private static String describe(String path, FileType type, String content) {
+        return path + " (" + type + "):\n" + content;
+    }
+
+    /**
+     * The five regex scans the format replaced. Entities are decoded with {@link HtmlEntityDecoder}
+     * rather than the former chained replaces, which decoded {@code &amp;quot;} twice.
+     */
+    private static final class RegexExtractor {
+
+        private static final Pattern JAVA_MAIN = Pattern.compile(
+                "<pre><code class=\"language-java\">\\s*package\\s+([^;]+);\\s*([\\s\\S]*?)</code></pre>");
+        private static final Pattern JAVA_TEST = Pattern.compile(
+                "<pre><code class=\"language-java\">\\s*([\\s\\S]*?)</code></pre>");
+        private static final Pattern HTML_PAGE = Pattern.compile("<code>\\s*&lt;!DOCTYPE html&gt;\\s*([\\s\\S]*?)</code>");
+        private static final Pattern HTML_FRAGMENT = Pattern.compile(
+                "<code>\\s*&lt;!--\\s*([^>]+)\\s*--&gt;\\s*([\\s\\S]*?)</code>");
+        private static final Pattern SQL = Pattern.compile(
+                "<pre><code class=\"language-sql\">\\s*--[\\s\\S]*?([\\s\\S]*?)</code></pre>");
+        private static final Pattern YAML = Pattern.compile(
+                "<pre><code class=\"language-yaml\">\\s*([\\s\\S]*?)</code></pre>");
+        private static final Pattern PACKAGE = Pattern.compile("package\\s+([^;]+);");
+        private static final Pattern CLASS = Pattern.compile("(?:public\\s+)?(?:class|interface|@?interface|enum)\\s+(\\w+)");
+
+        private static final HtmlEntityDecoder DECODER = new HtmlEntityDecoder();
+
+        static List<String> extract(String document) {
+            List<String> files = new ArrayList<>();
+            for (Matcher matcher = JAVA_MAIN.matcher(document); matcher.find(); ) {
+                String packageName = matcher.group(1).trim();
+                String content = matcher.group(2).trim();
+                String className = find(CLASS, content);
+                if (className != null && !isTestClass(content, className)) {
+                    files.add(describe(javaPath(packageName, className, false), FileType.JAVA_MAIN,
+                            javaContent(packageName, content)));
+                }
+            }
+            for (Matcher matcher = JAVA_TEST.matcher(document); matcher.find(); ) {
+                String content = matcher.group(1).trim();
+                String packageName = find(PACKAGE, content);
+                String className = find(CLASS, content);
+                if (isTestClass(content, className)) {
+                    packageName = packageName == null ? "tech.justjava.dms.selenium" : packageName.trim();
+                    files.add(describe(javaPath(packageName, className, true), FileType.JAVA_TEST,
+                            javaContent(packageName, content)));
+                }
+            }
+            Matcher page = HTML_PAGE.matcher(document);
+            if (page.find()) {
+                files.add(describe("src/main/resources/templates/documents.html", FileType.HTML_TEMPLATE,
+                        DECODER.decode(page.group(1).trim())));
+            }
+            for (Matcher matcher = HTML_FRAGMENT.matcher(document); matcher.find(); ) {
+                files.add(describe("src/main/resources/templates/" + matcher.group(1).trim(), FileType.HTML_TEMPLATE,
+                        DECODER.decode(matcher.group(2).trim())));
+            }
+            for (Matcher matcher = SQL.matcher(document); matcher.find(); ) {
+                files.add(describe("src/main/resources/schema.sql", FileType.SQL_SCHEMA,
+                        DECODER.decode(matcher.group(1).trim())));
+            }
+            for (Matcher matcher = YAML.matcher(document); matcher.find(); ) {
+                files.add(describe("src/main/resources/api/openapi.yaml", FileType.YAML_CONFIG,
+                        DECODER.decode(matcher.group(1).trim())));
+            }
+            return files;
+        }
+
+        private static String find(Pattern pattern, String content) {
+            Matcher matcher = pattern.matcher(content);
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        private static String javaPath(String packageName, String className, boolean test) {
+            return (test ? "src/test/java/" : "src/main/java/") + packageName.replace('.', '/') + "/" + className + ".java";
+        }
+
+        private static String javaContent(String packageName, String content) {
+            content = DECODER.decode(content).trim();
+            return content.startsWith("package ") ? content : "package " + packageName + ";\n\n" + content;
+        }
+
+        private static boolean isTestClass(String content, String className) {
+            boolean annotations = content.contains("@Test") || content.contains("@BeforeAll")
+                    || content.contains("@AfterAll") || content.contains("@BeforeEach") || content.contains("@AfterEach");
+            boolean imports = content.contains("import org.junit") || content.contains("import org.testng")
+                    || content.contains("import org.openqa.selenium") || content.contains("import org.selenium");
+            boolean selenium = content.contains("WebDriver") || content.contains("ChromeDriver")
+                    || content.contains("findElement") || content.contains("By.") || content.contains(".get(")
+                    || content.contains(".click()");
+            return annotations || imports || selenium || "DocumentEditingE2ETest".equals(className);
+        }
+    }
+}
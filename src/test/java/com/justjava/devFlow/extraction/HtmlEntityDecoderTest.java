@@ -0,0 +1,88 @@
+package com.justjava.devFlow.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HtmlEntityDecoderTest {
+
+    private final HtmlEntityDecoder decoder = new HtmlEntityDecoder();
+
+    @Test
+    void decodesNamedEntities() {
+        assertEquals("<div class=\"x\" title='y'>a & b</div>",
+                decoder.decode("&lt;div class=&quot;x&quot; title=&apos;y&apos;&gt;a &amp; b&lt;/div&gt;"));
+        // A non-breaking space in code is a plain space
+        assertEquals("a b", decoder.decode("a&nbsp;b"));
+        assertEquals("© — … → ≤ €", decoder.decode("&copy; &mdash; &hellip; &rarr; &le; &euro;"));
+        // Names are case-sensitive
+        assertEquals("⇒ →", decoder.decode("&rArr; &rarr;"));
+    }
+
+    @Test
+    void decodesDecimalReferences() {
+        assertEquals("it's", decoder.decode("it&#39;s"));
+        assertEquals("-", decoder.decode("&#45;"));
+        assertEquals("😀", decoder.decode("&#128512;"));
+        assertEquals("'", decoder.decode("&#0000039;"));
+    }
+
+    @Test
+    void decodesHexReferences() {
+        assertEquals("don't — stop", decoder.decode("don&#x27;t &#x2014; stop"));
+        assertEquals("'", decoder.decode("&#X27;"));
+        assertEquals("😀", decoder.decode("&#x1F600;"));
+        assertEquals("\uDBFF\uDFFF", decoder.decode("&#x10FFFF;"));
+    }
+
+    @Test
+    void keepsUnknownEntities() {
+        assertEquals("&foo; &Lt; &LT; &l; &ltx;", decoder.decode("&foo; &Lt; &LT; &l; &ltx;"));
+        assertEquals("& &; &&lt", decoder.decode("& &; &&lt"));
+        assertEquals("&#; &#x; &#a; &#xG;", decoder.decode("&#; &#x; &#a; &#xG;"));
+        // NUL, surrogates, beyond Unicode
+        assertEquals("&#0; &#xD800; &#xDFFF; &#x110000; &#1114112;",
+                decoder.decode("&#0; &#xD800; &#xDFFF; &#x110000; &#1114112;"));
+        // More digits than any code point needs
+        assertEquals("&#000000039;", decoder.decode("&#000000039;"));
+    }
+
+    @Test
+    void keepsTruncatedEntities() {
+        assertEquals("a &lt b", decoder.decode("a &lt b"));
+        assertEquals("&amp", decoder.decode("&amp"));
+        assertEquals("&#39", decoder.decode("&#39"));
+        assertEquals("&#x27", decoder.decode("&#x27"));
+        assertEquals("x &", decoder.decode("x &"));
+        // The end of the range cuts the entity before its ';'
+        assertEquals("x&lt", decoder.decode("x&lt;y", 0, 4));
+        assertEquals("&#3", decoder.decode("&#39;", 0, 3));
+    }
+
+    @Test
+    void decodesEachEntityOnce() {
+        // The former replace chain decoded &amp; before &quot;, turning &amp;quot; into a quote
+        assertEquals("&quot;", decoder.decode("&amp;quot;"));
+        assertEquals("&lt;b&gt;", decoder.decode("&amp;lt;b&amp;gt;"));
+        assertEquals("&amp;", decoder.decode("&amp;amp;"));
+        assertEquals("&#39;", decoder.decode("&amp;#39;"));
+    }
+
+    @Test
+    void decodesOnlyTheRange() {
+        String text = "&lt;[&lt;a&amp;b&gt;]&gt;";
+
+        assertEquals("<a&b>", decoder.decode(text, 5, 20));
+        assertEquals("[<a&b>]", decoder.decode(text, 4, 21));
+        assertEquals("plain", decoder.decode("xplainx", 1, 6));
+    }
+
+    @Test
+    void reusedDecoderStartsEachCallFresh() {
+        String large = decoder.decode("&lt;".repeat(100_000));
+        assertEquals("<".repeat(100_000), large);
+
+        assertEquals(">", decoder.decode("&gt;"));
+        assertEquals("a<b", decoder.decode("a&lt;b"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.justjava.devFlow.extraction;
+
+import com.justjava.devFlow.util.ArtifactFileExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A streamed artifact must yield the files {@link ArtifactFileExtractor} finds in the whole
+ * artifact, however the stream is split into chunks
+ */
+class IncrementalArtifactExtractorTest {
+
+    private static final ArtifactFileExtractor BATCH = new ArtifactFileExtractor(null,
+            ExtractionEngine.withStandardFormats(ExtractionCache.disabled(), 60_000));
+
+    private static final String[] DOCUMENTS = {
+            "**File Path:** `src/main/java/com/acme/App.java`\n```java\nclass App {}\n```\n",
+            "<!-- src/main/resources/templates/index.html -->\n```html\n<div>x</div>\n```\n"
+                    + "# src/main/resources/application.yml\n```yaml\nkey: value\n```\n"
+                    + "// src/main/java/Plain.java\nclass Plain {}\n",
+            // The fence is never closed: the file runs to the next marker
+            "**File Path:** `src/A.java`\n```java\nclass A {\n# src/B.java\nclass B {}\n",
+            // A plain path at a line start is consumed but not a marker
+            "# src/A.java\nclass A {}\nsrc/main/java/Plain.java\nclass Plain {}\n",
+            // Markers inside a fence still start a new file
+            "**File Path:** `src/A.java`\n```\n// src/B.java\nclass B {}\n```\n",
+            "<!-- src/page.html",
+            "**File Path:** `no-extension`\ntext\n**File Path:** `src/C.java`",
+            "# src/Empty.java\n```\n```\n# src/Blank.java\n   \n",
+            "\r\n# src/crlf.txt\r\n```\r\nline\r\n```\r\n",
+            "text before\n# src/utf.txt\n```\nhéllo 😀 wörld\n```\nafter",
+            // A fence naming its file ends the file before it
+            "# src/A.java\nclass A {}\n```java src/B.java\nclass B {}\n```\n",
+            "**File Path:** `src/A.java`\n```java src/A.java\nclass A {}\n```\nNotes\n```java:src/C.java\nclass C {}",
+            "```java title=\"src/main/java/D.java\"\n```\n```yaml src/e.yml\n# src/F.java\nclass F {}\n```",
+    };
+
+    private static final String[] PIECES = {
+            "**File Path:** `src/main/java/A.java`\n", "**File Path:**  `src/B.java`", "**File Path:** `README`\n",
+            "**File Path:**", "<!-- src/main/resources/templates/index.html -->\n", "<!-- src/x.html", " -->",
+            "<!--", "-->", "# src/main/resources/application.yml\n", "# Heading\n", "#", "// src/main/java/C.java\n",
+            "// comment\n", "//", "/", "src/main/java/Plain.java\n", "a/b.c", "```java\n", "```\n", "```", "``",
+            "`", "```java src/main/java/E.java\n", "```java:src/F.java", "```yaml config/g.yml ",
+            "class A {}\n", "\n", "\r\n", " ", "text ", "*", "**", "<", "é😀",
+    };
+
+    @Test
+    void fixedDocumentsMatchBatchExtractionInEveryChunking() {
+        for (String document : DOCUMENTS) {
+            List<String> expected = batch(document);
+            for (int chunkSize : new int[]{1, 2, 3, 7, 64, document.length() + 1}) {
+                assertEquals(expected, streamed(document, chunkSize), "chunks of " + chunkSize + " in " + document);
+            }
+            Random random = new Random(document.hashCode());
+            for (int i = 0; i < 20; i++) {
+                assertEquals(expected, streamedRandomly(document, random), document);
+            }
+        }
+    }
+
+    @Test
+    void generatedDocumentsMatchBatchExtraction() {
+        Random random = new Random(20261018);
+        for (int i = 0; i < 5_000; i++) {
+            StringBuilder document = new StringBuilder();
+            for (int pieces = 1 + random.nextInt(40); pieces > 0; pieces--) {
+                document.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            String text = document.toString();
+            assertEquals(batch(text), streamedRandomly(text, random), text);
+        }
+    }
+
+    @Test
+    void fileIsEmittedWhenItsFenceCloses() {
+        List<String> files = new ArrayList<>();
+        IncrementalArtifactExtractor extractor = new IncrementalArtifactExtractor(file -> files.add(file.getFilePath()));
+
+        extractor.append("**File Path:** `src/A.java`\n```java\nclass A {}\n");
+        assertEquals(List.of(), files);
+        extractor.append("```\n\nSome text\n");
+        assertEquals(List.of("src/A.java"), files);
+
+        extractor.append("# src/B.java\nclass B {}\n");
+        extractor.finish();
+        assertEquals(List.of("src/A.java", "src/B.java"), files);
+        assertEquals(2, extractor.getFilesExtracted());
+    }
+
+    @Test
+    void fencedFileInsideAMarkerSectionIsEmittedOnce() {
+        List<String> files = new ArrayList<>();
+        IncrementalArtifactExtractor extractor = new IncrementalArtifactExtractor(file -> files.add(describe(file)));
+
+        extractor.append("# src/A.java\nclass A {}\n```java src/B.java\n");
+        // The fence's info string ends A
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}"), files);
+        extractor.append("class B {}\n```\n");
+        extractor.finish();
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}", "src/B.java (JAVA_MAIN):\nclass B {}"), files);
+    }
+
+    private static List<String> batch(String document) {
+        List<String> files = new ArrayList<>();
+        for (ExtractedFile file : BATCH.extractFilesFromUnifiedFormat(document)) {
+            files.add(describe(file));
+        }
+        return files;
+    }
+
+    private static List<String> streamed(String document, int chunkSize) {
+        List<String> files = new ArrayList<>();
+        IncrementalArtifactExtractor extractor = new IncrementalArtifactExtractor(file -> files.add(describe(file)));
+        for (int start = 0; start < document.length(); start += chunkSize) {
+            extractor.append(document, start, Math.min(document.length(), start + chunkSize));
+        }
+        extractor.finish();
+        assertEquals(document, extractor.getText());
+        return files;
+    }
+
+    private static List<String> streamedRandomly(String document, Random random) {
+        List<String> files = new ArrayList<>();
+        IncrementalArtifactExtractor extractor = new IncrementalArtifactExtractor(file -> files.add(describe(file)));
+        int start = 0;
+        while (start < document.length()) {
+            int end = Math.min(document.length(), start + random.nextInt(12));
+            extractor.append(document, start, end);
+            start = end;
+        }
+        extractor.finish();
+        return files;
+    }
+
+    private static String describe(ExtractedFile file) {
+        return file.getFilePath() + " (" + file.getFileType() + "):\n" + file.getContent();
+    }
+}
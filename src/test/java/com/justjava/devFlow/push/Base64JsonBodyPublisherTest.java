@@ -0,0 +1,126 @@
+package com.justjava.devFlow.push;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The published body must be exactly the advertised Content-Length, valid JSON, and decode to
+ * the original content; the base64 value is spliced together from 48 KB chunks.
+ */
+class Base64JsonBodyPublisherTest {
+
+    private static final int CHUNK_SIZE = 48 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void bytesRoundTripForLengthsAroundChunkAndPaddingBoundaries() throws Exception {
+        int[] lengths = {0, 1, 2, 3, 4, 5, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, CHUNK_SIZE + 2,
+                2 * CHUNK_SIZE, 3 * CHUNK_SIZE + 1};
+        Random random = new Random(9);
+        for (int length : lengths) {
+            byte[] content = new byte[length];
+            random.nextBytes(content);
+
+            HttpRequest.BodyPublisher publisher = Base64JsonBodyPublisher.of(objectMapper,
+                    objectMapper.createObjectNode().put("encoding", "base64"), "content", content);
+            JsonNode body = roundTrip(publisher);
+
+            assertArrayEquals(content, Base64.getDecoder().decode(body.path("content").asText()));
+            assertEquals("base64", body.path("encoding").asText());
+        }
+    }
+
+    @Test
+    void textFileIsEncodedAsUtf8() throws Exception {
+        String text = "package com.acme;\n// café ☃ 😀\n".repeat(5_000);
+        GitHubFile file = new GitHubFile("src/main/java/App.java", text);
+
+        HttpRequest.BodyPublisher publisher = Base64JsonBodyPublisher.of(objectMapper,
+                objectMapper.createObjectNode(), "content", file);
+        JsonNode body = roundTrip(publisher);
+
+        assertEquals(text, new String(Base64.getDecoder().decode(body.path("content").asText()), StandardCharsets.UTF_8));
+        assertEquals(1, body.size());
+    }
+
+    @Test
+    void fieldsWithQuotesAndControlCharactersStayValidJson() throws Exception {
+        String path = "src/\"quoted\"/back\\slash/new\nline\t\u0001/A.java";
+        String message = "Add \"A\" — ünïcode";
+        ObjectNode fields = objectMapper.createObjectNode().put("path", path).put("message", message);
+
+        HttpRequest.BodyPublisher publisher = Base64JsonBodyPublisher.of(objectMapper, fields, "content",
+                new GitHubFile(path, "class A {}\n"));
+        JsonNode body = roundTrip(publisher);
+
+        assertEquals(path, body.path("path").asText());
+        assertEquals(message, body.path("message").asText());
+        assertEquals("class A {}\n", new String(Base64.getDecoder().decode(body.path("content").asText()),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void bodyCanBeSentAgainOnRetry() throws Exception {
+        byte[] content = "retry me".getBytes(StandardCharsets.UTF_8);
+        HttpRequest.BodyPublisher publisher = Base64JsonBodyPublisher.of(objectMapper,
+                objectMapper.createObjectNode(), "content", content);
+
+        assertArrayEquals(publish(publisher), publish(publisher));
+    }
+
+    /**
+     * Publishes the body, checks it against the advertised length and parses it
+     */
+    private JsonNode roundTrip(HttpRequest.BodyPublisher publisher) throws Exception {
+        byte[] body = publish(publisher);
+        assertEquals(publisher.contentLength(), body.length);
+        return objectMapper.readTree(body);
+    }
+
+    private static byte[] publish(HttpRequest.BodyPublisher publisher) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.write(bytes, 0, bytes.length);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(10, TimeUnit.SECONDS);
+        return out.toByteArray();
+    }
+}
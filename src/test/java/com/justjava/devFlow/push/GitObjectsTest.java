@@ -0,0 +1,102 @@
+package com.justjava.devFlow.push;
+
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Blob SHAs must match git exactly, or changed files are skipped as unchanged. The expected
+ * values come from {@code git hash-object --stdin}.
+ */
+class GitObjectsTest {
+
+    private static final String UNICODE = "héllo wörld — ✓ 😀\n";
+
+    @Test
+    void blobShaOfBytesMatchesGitHashObject() {
+        assertEquals("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", GitObjects.blobSha(new byte[0]));
+        assertEquals("3b18e512dba79e4c8300dd08aeb37f8e728b8dad",
+                GitObjects.blobSha("hello world\n".getBytes(StandardCharsets.UTF_8)));
+
+        byte[] allBytes = new byte[256];
+        for (int i = 0; i < allBytes.length; i++) {
+            allBytes[i] = (byte) i;
+        }
+        assertEquals("c86626638e0bc8cf47ca49bb1525b40e9737ee64", GitObjects.blobSha(allBytes));
+        assertEquals("c86626638e0bc8cf47ca49bb1525b40e9737ee64",
+                GitObjects.blobSha(new GitHubFile("bin/all.dat", allBytes)));
+    }
+
+    @Test
+    void blobShaOfTextMatchesGitHashObject() {
+        assertEquals("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", GitObjects.blobSha(new GitHubFile("Empty.java", "")));
+        assertEquals("3b18e512dba79e4c8300dd08aeb37f8e728b8dad",
+                GitObjects.blobSha(new GitHubFile("hello.txt", "hello world\n")));
+        // Two-, three- and four-byte UTF-8 sequences
+        assertEquals("798d577416445fb5bde1a0c2c7388c29da35f29d", GitObjects.blobSha(new GitHubFile("u.txt", UNICODE)));
+        // An unpaired surrogate is written as '?', like String.getBytes(UTF_8)
+        assertEquals("ef4aae665041ac649ba4ba298cbad5ef3256e4a5",
+                GitObjects.blobSha(new GitHubFile("s.txt", "a\uD800b")));
+        // Larger than the transfer buffer, so multi-byte characters straddle reads
+        assertEquals("f9fa3e005cd6cd7daf41f36450d4e1bf53bd9e4a",
+                GitObjects.blobSha(new GitHubFile("Big.java", "package com.acme;\n// café ☃\n".repeat(2000))));
+    }
+
+    @Test
+    void blobShaOfTextViewMatchesGitHashObject() {
+        // Extracted files keep their content as a view into the artifact
+        String artifact = "// A.java\nclass A {}\n```\n" + UNICODE + "```";
+        CharBuffer classA = CharBuffer.wrap(artifact, 10, 21);
+        assertEquals("a869c28495266ce277963307009946887ad25470", GitObjects.blobSha(new GitHubFile("A.java", classA)));
+
+        int start = artifact.indexOf(UNICODE);
+        CharBuffer unicode = CharBuffer.wrap(artifact, start, start + UNICODE.length());
+        assertEquals("798d577416445fb5bde1a0c2c7388c29da35f29d", GitObjects.blobSha(new GitHubFile("u.txt", unicode)));
+    }
+
+    @Test
+    void textContentIsEncodedLikeGetBytes() throws IOException {
+        String[] texts = {"", "ascii", UNICODE, "a\uD800b", "\uDC00x", "end\uD83D", "😀".repeat(3000)};
+        for (String text : texts) {
+            GitHubFile file = new GitHubFile("f.txt", text);
+            byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length, (int) file.getContentLength());
+
+            // One byte at a time, then in odd-sized chunks
+            try (InputStream content = file.openContent()) {
+                byte[] read = new byte[expected.length];
+                for (int i = 0; i < read.length; i++) {
+                    read[i] = (byte) content.read();
+                }
+                assertEquals(-1, content.read());
+                assertArrayEquals(expected, read);
+            }
+            try (InputStream content = file.openContent()) {
+                byte[] buffer = new byte[7];
+                ByteArrayOutputStream read = new ByteArrayOutputStream();
+                int n;
+                while ((n = content.read(buffer, 0, buffer.length)) > 0) {
+                    read.write(buffer, 0, n);
+                }
+                assertArrayEquals(expected, read.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    void wrapperScriptsStayExecutable() {
+        assertEquals("100755", GitObjects.fileMode("mvnw"));
+        assertEquals("100755", GitObjects.fileMode("sub/gradlew"));
+        assertEquals("100755", GitObjects.fileMode("scripts/run.sh"));
+        assertEquals("100644", GitObjects.fileMode("mvnw.cmd"));
+        assertEquals("100644", GitObjects.fileMode("src/main/java/A.java"));
+    }
+}
@@ -0,0 +1,287 @@
+package com.justjava.devFlow.push;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.flowable.engine.RuntimeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Claiming, retries, final failure and the trigger of the waiting execution. The repository is a
+ * mock standing in for the locked rows; each test runs one poll and waits for its jobs.
+ */
+class PushOutboxWorkerTest {
+
+    private static final long LEASE_MILLIS = 60_000;
+    private static final long INITIAL_BACKOFF_MILLIS = 1_000;
+
+    private final PushJobRepository repository = mock(PushJobRepository.class);
+    private final RuntimeService runtimeService = mock(RuntimeService.class);
+    private final TestHandler handler = new TestHandler();
+
+    @Test
+    void claimQueriesSkipLockedRows() throws NoSuchMethodException {
+        Method findClaimable = PushJobRepository.class.getMethod("findClaimable",
+                PushJob.Status.class, PushJob.Status.class, Instant.class, Pageable.class);
+        assertEquals(LockModeType.PESSIMISTIC_WRITE, findClaimable.getAnnotation(Lock.class).value());
+        QueryHint[] hints = findClaimable.getAnnotation(QueryHints.class).value();
+        // -2 is Hibernate's SKIP LOCKED timeout
+        assertEquals(1, hints.length);
+        assertEquals("jakarta.persistence.lock.timeout", hints[0].name());
+        assertEquals("-2", hints[0].value());
+
+        Method findForUpdate = PushJobRepository.class.getMethod("findForUpdate", Long.class);
+        assertEquals(LockModeType.PESSIMISTIC_WRITE, findForUpdate.getAnnotation(Lock.class).value());
+    }
+
+    @Test
+    void claimedJobRunsUnderLeaseAndTriggersTheExecution() throws InterruptedException {
+        PushJob job = job(1, 0);
+        claimOnce(job);
+        handler.variables = Map.of("extractionStatus", "SUCCESS", "filesPushed", 3);
+        when(runtimeService.getVariable("execution-1", "githubToken")).thenReturn("token");
+
+        Instant before = Instant.now();
+        pollAndWait(worker(5));
+
+        // Claimed up to the number of idle workers
+        verify(repository).findClaimable(eq(PushJob.Status.PENDING), eq(PushJob.Status.RUNNING), any(),
+                eq(PageRequest.of(0, 2)));
+        assertEquals(PushJob.Status.RUNNING, handler.statusWhileRunning);
+        assertTrue(!handler.leaseWhileRunning.isBefore(before.plusMillis(LEASE_MILLIS)));
+        assertEquals("token", handler.githubToken);
+
+        verify(runtimeService).trigger("execution-1", Map.of("extractionStatus", "SUCCESS", "filesPushed", 3));
+        assertEquals(PushJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertNull(job.getLockedUntil());
+        assertNull(job.getLastError());
+    }
+
+    @Test
+    void failedAttemptIsRetriedWithExponentialBackoff() throws InterruptedException {
+        handler.failure = new IOException("GitHub is down");
+
+        PushJob first = job(1, 0);
+        claimOnce(first);
+        Instant before = Instant.now();
+        pollAndWait(worker(5));
+        Instant after = Instant.now();
+
+        assertEquals(PushJob.Status.PENDING, first.getStatus());
+        assertEquals("GitHub is down", first.getLastError());
+        assertNull(first.getLockedUntil());
+        // First retry: the initial backoff, jittered down to at most half of it
+        assertBetween(first.getNextAttemptAt(), before.plusMillis(INITIAL_BACKOFF_MILLIS / 2),
+                after.plusMillis(INITIAL_BACKOFF_MILLIS));
+
+        PushJob third = job(2, 2);
+        claimOnce(third);
+        before = Instant.now();
+        pollAndWait(worker(5));
+        after = Instant.now();
+
+        assertEquals(PushJob.Status.PENDING, third.getStatus());
+        assertEquals(3, third.getAttempts());
+        // Third attempt failed: four times the initial backoff
+        assertBetween(third.getNextAttemptAt(), before.plusMillis(2 * INITIAL_BACKOFF_MILLIS),
+                after.plusMillis(4 * INITIAL_BACKOFF_MILLIS));
+
+        verify(runtimeService, never()).trigger(anyString(), anyMap());
+    }
+
+    @Test
+    void lastAttemptFailureTriggersWithFailureVariables() throws InterruptedException {
+        handler.failure = new IOException("GitHub is down");
+        PushJob job = job(1, 2);
+        claimOnce(job);
+
+        pollAndWait(worker(3));
+
+        assertEquals(PushJob.Status.FAILED, job.getStatus());
+        assertEquals(3, job.getAttempts());
+        assertEquals("GitHub is down", job.getLastError());
+        verify(runtimeService).trigger("execution-1",
+                Map.of("extractionStatus", "FAILED", "errorMessage", "GitHub is down"));
+    }
+
+    @Test
+    void unknownJobKindFailsWithoutRetry() throws InterruptedException {
+        PushJob job = job(1, 0);
+        job.setKind("unknown");
+        claimOnce(job);
+
+        pollAndWait(worker(5));
+
+        assertEquals(PushJob.Status.FAILED, job.getStatus());
+        verify(runtimeService).trigger("execution-1", Map.of("errorMessage", "No handler for push job kind unknown"));
+    }
+
+    @Test
+    void jobFailsWithoutRetryWhenTheTriggerFails() throws InterruptedException {
+        PushJob job = job(1, 0);
+        claimOnce(job);
+        handler.variables = Map.of("extractionStatus", "SUCCESS");
+        doThrow(new IllegalStateException("execution gone")).when(runtimeService).trigger(anyString(), anyMap());
+
+        pollAndWait(worker(5));
+
+        assertEquals(PushJob.Status.FAILED, job.getStatus());
+        assertTrue(job.getLastError().startsWith("Push succeeded but triggering execution execution-1 failed"));
+        assertEquals(1, handler.runs);
+    }
+
+    @Test
+    void attemptThatLostItsJobRecordsNothing() throws InterruptedException {
+        PushJob job = job(1, 0);
+        claimOnce(job);
+        handler.variables = Map.of("extractionStatus", "SUCCESS");
+        // The lease ran out and a newer attempt claimed the job in the meantime
+        PushJob reclaimed = job(1, 2);
+        reclaimed.setStatus(PushJob.Status.RUNNING);
+        when(repository.findForUpdate(1L)).thenReturn(Optional.of(reclaimed));
+
+        pollAndWait(worker(5));
+
+        verify(runtimeService, never()).trigger(anyString(), anyMap());
+        verify(repository, never()).save(any());
+        assertEquals(PushJob.Status.RUNNING, reclaimed.getStatus());
+    }
+
+    @Test
+    void leaseIsRenewedWhileThePushRuns() throws InterruptedException {
+        PushJob job = job(1, 0);
+        claimOnce(job);
+        when(repository.renewLease(eq(1L), eq(1), eq(PushJob.Status.RUNNING), any())).thenReturn(1);
+        handler.variables = Map.of("extractionStatus", "SUCCESS");
+        handler.release = new CountDownLatch(1);
+
+        long leaseMillis = 300;
+        PushOutboxWorker worker = new PushOutboxWorker(repository, runtimeService,
+                mock(PlatformTransactionManager.class), List.of(handler), 2, 5, leaseMillis, INITIAL_BACKOFF_MILLIS,
+                60_000);
+        worker.poll();
+        handler.started.await();
+        // Longer than a third of the lease: the next poll renews it
+        Thread.sleep(leaseMillis / 2);
+        worker.poll();
+
+        verify(repository, atLeastOnce()).renewLease(eq(1L), eq(1), eq(PushJob.Status.RUNNING),
+                any(Instant.class));
+        assertFalse(job.getStatus() == PushJob.Status.SUCCEEDED);
+
+        handler.release.countDown();
+        worker.shutdown();
+        assertEquals(PushJob.Status.SUCCEEDED, job.getStatus());
+    }
+
+    private PushOutboxWorker worker(int maxAttempts) {
+        return new PushOutboxWorker(repository, runtimeService, mock(PlatformTransactionManager.class),
+                List.of(handler), 2, maxAttempts, LEASE_MILLIS, INITIAL_BACKOFF_MILLIS, 60_000);
+    }
+
+    /**
+     * Runs one poll and waits until the claimed jobs are done
+     */
+    private static void pollAndWait(PushOutboxWorker worker) throws InterruptedException {
+        worker.poll();
+        worker.shutdown();
+    }
+
+    /**
+     * The next claim returns the jobs (the rows locked for this worker), later claims nothing
+     */
+    private void claimOnce(PushJob... jobs) {
+        when(repository.findClaimable(any(), any(), any(), any())).thenReturn(List.of(jobs), List.of());
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        for (PushJob job : jobs) {
+            when(repository.findForUpdate(job.getId())).thenReturn(Optional.of(job));
+        }
+    }
+
+    private static PushJob job(long id, int attempts) {
+        PushJob job = new PushJob();
+        job.setId(id);
+        job.setKind(TestHandler.KIND);
+        job.setStatus(PushJob.Status.PENDING);
+        job.setExecutionId("execution-" + id);
+        job.setPayload("artifact");
+        job.setRepositoryName("repo");
+        job.setOwner("owner");
+        job.setAttempts(attempts);
+        job.setNextAttemptAt(Instant.now());
+        return job;
+    }
+
+    private static void assertBetween(Instant actual, Instant from, Instant to) {
+        assertTrue(!actual.isBefore(from) && !actual.isAfter(to), actual + " not in [" + from + ", " + to + "]");
+    }
+
+    private static final class TestHandler implements PushJobHandler {
+
+        static final String KIND = "test";
+
+        volatile Map<String, Object> variables = Map.of();
+        volatile Exception failure;
+        volatile CountDownLatch release;
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile int runs;
+        volatile PushJob.Status statusWhileRunning;
+        volatile Instant leaseWhileRunning;
+        volatile String githubToken;
+
+        @Override
+        public String getJobKind() {
+            return KIND;
+        }
+
+        @Override
+        public Map<String, Object> process(PushJob job, String githubToken) throws Exception {
+            runs++;
+            this.statusWhileRunning = job.getStatus();
+            this.leaseWhileRunning = job.getLockedUntil();
+            this.githubToken = githubToken;
+            started.countDown();
+            if (release != null) {
+                release.await();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return variables;
+        }
+
+        @Override
+        public Map<String, Object> failureVariables(String errorMessage) {
+            return Map.of("extractionStatus", "FAILED", "errorMessage", errorMessage);
+        }
+    }
+}
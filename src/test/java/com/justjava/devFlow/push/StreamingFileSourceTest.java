@@ -0,0 +1,71 @@
+package com.justjava.devFlow.push;
+
+import com.justjava.devFlow.util.SpringBootProjectGitHubService.GitHubFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingFileSourceTest {
+
+    @Test
+    void producerWaitsWhileTheSourceIsFull() throws Exception {
+        StreamingFileSource source = new StreamingFileSource(2);
+        CountDownLatch thirdAdded = new CountDownLatch(1);
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                source.add(file("a"));
+                source.add(file("b"));
+                source.add(file("c"));
+                thirdAdded.countDown();
+                source.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertFalse(thirdAdded.await(300, TimeUnit.MILLISECONDS), "a third file went into a full source");
+
+        List<String> read = Collections.synchronizedList(new ArrayList<>());
+        source.forEach(file -> read.add(file.getFilePath()));
+        producer.join();
+        assertEquals(List.of("a", "b", "c"), read);
+    }
+
+    @Test
+    void producerStopsWaitingOnceThePushIsDone() throws Exception {
+        StreamingFileSource source = new StreamingFileSource(1);
+        assertTrue(source.add(file("a")));
+
+        // The push failed before reading; the producer must not block on the full source
+        source.abandon();
+        assertFalse(source.add(file("b")));
+        source.close();
+    }
+
+    @Test
+    void producerFailureFailsTheReader() throws Exception {
+        StreamingFileSource source = new StreamingFileSource(4);
+        source.add(file("a"));
+        source.fail(new IOException("stream broke"));
+
+        List<String> read = new ArrayList<>();
+        IOException failure = assertThrows(IOException.class, () -> source.forEach(file -> read.add(file.getFilePath())));
+        assertEquals(List.of("a"), read);
+        assertEquals("File source failed: stream broke", failure.getMessage());
+        assertFalse(source.add(file("b")));
+    }
+
+    private static GitHubFile file(String path) {
+        return new GitHubFile(path, path);
+    }
+}
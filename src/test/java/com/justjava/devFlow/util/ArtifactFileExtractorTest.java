@@ -0,0 +1,131 @@
+package com.justjava.devFlow.util;
+
+import com.justjava.devFlow.extraction.ExtractedFile;
+import com.justjava.devFlow.extraction.ExtractionCache;
+import com.justjava.devFlow.extraction.ExtractionEngine;
+import com.justjava.devFlow.extraction.ExtractionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Files found by the marker scanner in the unified artifact format, including artifacts built to
+ * trigger regex backtracking. How long they take is measured by the JMH benchmarks
+ * (ArtifactFileExtractorBenchmark and BacktrackingArtifactBenchmark), not here.
+ */
+class ArtifactFileExtractorTest {
+
+    private final ArtifactFileExtractor extractor = new ArtifactFileExtractor(null,
+            ExtractionEngine.withStandardFormats(ExtractionCache.disabled(), 60_000));
+
+    @Test
+    void extractsEveryMarkerForm() {
+        StringBuilder artifact = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            switch (i % 4) {
+                case 0 -> {
+                    artifact.append("**File Path:** `src/main/java/com/acme/Service").append(i).append(".java`\n")
+                            .append("```java\npackage com.acme;\n\npublic class Service").append(i).append(" {\n}\n```\n\n");
+                    expected.add("src/main/java/com/acme/Service" + i + ".java (JAVA_MAIN):\n"
+                            + "package com.acme;\n\npublic class Service" + i + " {\n}");
+                }
+                case 1 -> {
+                    artifact.append("<!-- src/main/resources/templates/page").append(i).append(".html -->\n")
+                            .append("```html\n<div>page ").append(i).append("</div>\n```\n\n");
+                    expected.add("src/main/resources/templates/page" + i + ".html (HTML_TEMPLATE):\n"
+                            + "<div>page " + i + "</div>");
+                }
+                case 2 -> {
+                    artifact.append("# src/main/resources/config").append(i).append(".yml\n")
+                            .append("```yaml\nkey: value").append(i).append("\n```\n\n");
+                    expected.add("src/main/resources/config" + i + ".yml (YAML_CONFIG):\nkey: value" + i);
+                }
+                default -> {
+                    artifact.append("// src/main/java/com/acme/Plain").append(i).append(".java\n")
+                            .append("class Plain").append(i).append(" {}\n\n");
+                    expected.add("src/main/java/com/acme/Plain" + i + ".java (JAVA_MAIN):\nclass Plain" + i + " {}");
+                }
+            }
+        }
+
+        assertEquals(expected, extract(artifact.toString()));
+    }
+
+    @Test
+    void plainPathAtLineStartIsConsumedButNotAMarker() {
+        // The plain path stays in the previous file; a marker after it on the same line still counts
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}\nsrc/main/java/Plain.java\nclass Plain {}"),
+                extract("# src/A.java\nclass A {}\nsrc/main/java/Plain.java\nclass Plain {}\n"));
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}\nsrc/main/java/Plain.java",
+                        "src/C.java (JAVA_MAIN):\nclass C {}"),
+                extract("# src/A.java\nclass A {}\nsrc/main/java/Plain.java// src/C.java\nclass C {}\n"));
+    }
+
+    @Test
+    void fenceNamingItsFileIsAMarker() {
+        assertEquals(List.of("src/main/java/A.java (JAVA_MAIN):\nclass A {}", "src/main/java/B.java (JAVA_MAIN):\nclass B {}",
+                        "src/main/java/C.java (JAVA_MAIN):\nclass C {}"),
+                extract("```java src/main/java/A.java\nclass A {}\n```\n"
+                        + "```java:src/main/java/B.java\nclass B {}\n```\n"
+                        + "```java title=\"src/main/java/C.java\"\nclass C {}\n```\n"));
+        // A fence without a path in its info string is the content of the file before it
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}"),
+                extract("# src/A.java\n```java\nclass A {}\n```\n"));
+        // Not closed: everything after the info string
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}"), extract("```java src/A.java\nclass A {}\n"));
+    }
+
+    @Test
+    void fencedFileInsideAMarkerSectionIsTakenOnce() {
+        // The fence ends A's section: B is not also part of A
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}", "src/B.java (JAVA_MAIN):\nclass B {}"),
+                extract("# src/A.java\nclass A {}\n```java src/B.java\nclass B {}\n```\n"));
+        // A's section is only its own fence; text after B's fence stays out of both
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}", "src/B.java (JAVA_MAIN):\nclass B {}"),
+                extract("**File Path:** `src/A.java`\n```java\nclass A {}\n```\n"
+                        + "```java src/B.java\nclass B {}\n```\nNotes on B\n"));
+        // A label and a fence naming the same file: one file
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\nclass A {}"),
+                extract("**File Path:** `src/A.java`\n```java src/A.java\nclass A {}\n```\n"));
+    }
+
+    @Test
+    void backtrackingProneArtifactsYieldTheirFiles() {
+        // Long paths whose file names have many extension candidates but no closing "-->"
+        assertEquals(List.of(), extract("<!-- src/" + "a.b-".repeat(1_000) + "\n"));
+        // Lines of deep directories without a file name
+        assertEquals(List.of(), extract(("# " + "dir/".repeat(100) + "\n").repeat(100)));
+        // Many code fences that are never closed within their section: the first pair is the content
+        assertEquals(List.of("src/A.java (JAVA_MAIN):\n```lang"),
+                extract("**File Path:** `src/A.java`\n" + "```lang ".repeat(1_001)));
+        // Backticks without a file extension after the label
+        assertEquals(List.of(), extract("**File Path:** `no extension here".repeat(100)));
+        // Line-start paths and comment markers packed together: each line's plain path ends up in
+        // the previous line's last file, the other markers have no content
+        assertEquals(List.of("j/k.l (UNKNOWN):\na/b.c", "j/k.l (UNKNOWN):\na/b.c"),
+                extract("a/b.c//d/e.f#g/h.i<!--j/k.l-->\n".repeat(3)));
+    }
+
+    @Test
+    void failsWhenTimeBudgetIsExceeded() {
+        ArtifactFileExtractor noBudget = new ArtifactFileExtractor(null,
+                ExtractionEngine.withStandardFormats(ExtractionCache.disabled(), 0));
+        String artifact = "# src/A.java\n```java\nclass A {}\n```\n".repeat(10_000);
+
+        assertThrows(ExtractionException.class,
+                () -> noBudget.extractAndPushToGitHub(artifact, "repo", "owner", "token", null, true));
+    }
+
+    private List<String> extract(String artifact) {
+        List<String> files = new ArrayList<>();
+        for (ExtractedFile file : extractor.extractFilesFromUnifiedFormat(artifact)) {
+            files.add(file.getFilePath() + " (" + file.getFileType() + "):\n" + file.getContent());
+        }
+        return files;
+    }
+}
@@ -0,0 +1,140 @@
+package com.justjava.devFlow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Rendering once per key, least recently used eviction under the 1 MB cap used here, the size
+ * accounting the cap relies on, and failed renders
+ */
+class DiagramRenderCacheTest {
+
+    private static final int KB = 1024;
+
+    private final List<String> rendered = new ArrayList<>();
+
+    @Test
+    void unchangedDiagramIsRenderedOnce() throws IOException {
+        DiagramRenderCache cache = cache(1);
+
+        byte[] first = get(cache, "png-a", 10);
+        byte[] second = get(cache, "png-a", 10);
+
+        assertSame(first, second);
+        assertEquals(List.of("png-a"), rendered);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio(), 0);
+    }
+
+    @Test
+    void leastRecentlyUsedImageIsEvictedFirst() throws IOException {
+        DiagramRenderCache cache = cache(1);
+
+        get(cache, "png-a", 400 * KB);
+        get(cache, "png-b", 400 * KB);
+        // Using a makes b the eldest
+        get(cache, "png-a", 400 * KB);
+        get(cache, "png-c", 400 * KB);
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(800 * KB, cache.getSizeBytes());
+        assertNull(cache.getIfPresent("png-b"));
+        assertEquals(400 * KB, cache.getIfPresent("png-a").length);
+        assertEquals(400 * KB, cache.getIfPresent("png-c").length);
+    }
+
+    @Test
+    void replacedImageIsOnlyCountedOnce() {
+        DiagramRenderCache cache = cache(1);
+
+        cache.put("svg-a", new byte[300]);
+        cache.put("svg-b", new byte[100]);
+        cache.put("svg-a", new byte[500]);
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(600, cache.getSizeBytes());
+        cache.put("svg-a", new byte[50]);
+        assertEquals(150, cache.getSizeBytes());
+    }
+
+    @Test
+    void failedRenderIsNotCached() throws IOException {
+        DiagramRenderCache cache = cache(1);
+
+        IOException failure = assertThrows(IOException.class, () -> cache.get("png-a", () -> {
+            rendered.add("png-a");
+            throw new IOException("PlantUML failed");
+        }));
+
+        assertEquals("PlantUML failed", failure.getMessage());
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSizeBytes());
+        // The next request renders again
+        assertArrayEquals(new byte[10], get(cache, "png-a", 10));
+        assertEquals(List.of("png-a", "png-a"), rendered);
+    }
+
+    @Test
+    void imageLargerThanTheCapIsNotCached() throws IOException {
+        DiagramRenderCache cache = cache(1);
+        get(cache, "png-small", 100);
+
+        get(cache, "png-huge", KB * KB + 1);
+        get(cache, "png-huge", KB * KB + 1);
+
+        assertEquals(List.of("png-small", "png-huge", "png-huge"), rendered);
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(100, cache.getSizeBytes());
+    }
+
+    @Test
+    void disabledCacheAlwaysRenders() throws IOException {
+        DiagramRenderCache cache = new DiagramRenderCache(false, 1, 16, 16);
+
+        get(cache, "png-a", 10);
+        get(cache, "png-a", 10);
+        cache.put("png-b", new byte[10]);
+
+        assertEquals(List.of("png-a", "png-a"), rendered);
+        assertNull(cache.getIfPresent("png-b"));
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    void sourcesAreEvictedByCount() {
+        DiagramRenderCache cache = new DiagramRenderCache(true, 1, 2, 16);
+
+        cache.putSource("a", "@startuml\nA\n@enduml");
+        cache.putSource("b", "@startuml\nB\n@enduml");
+        cache.getSource("a");
+        cache.putSource("c", "@startuml\nC\n@enduml");
+
+        assertNull(cache.getSource("b"));
+        assertEquals("@startuml\nA\n@enduml", cache.getSource("a"));
+        assertEquals("@startuml\nC\n@enduml", cache.getSource("c"));
+    }
+
+    private DiagramRenderCache cache(long maxSizeMb) {
+        return new DiagramRenderCache(true, maxSizeMb, 16, 16);
+    }
+
+    /**
+     * Looks the image up, recording each render; the image is {@code size} bytes
+     */
+    private byte[] get(DiagramRenderCache cache, String key, int size) throws IOException {
+        return cache.get(key, () -> {
+            rendered.add(key);
+            return new byte[size];
+        });
+    }
+}
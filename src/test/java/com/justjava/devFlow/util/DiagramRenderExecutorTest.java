@@ -0,0 +1,84 @@
+package com.justjava.devFlow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renders within the limits, and what happens to renders that outlive their timeout: like
+ * PlantUML, the stuck render here ignores the interrupt and keeps its thread until it returns
+ */
+class DiagramRenderExecutorTest {
+
+    private static final long TIMEOUT_MILLIS = 50;
+
+    private final DiagramRenderExecutor executor = new DiagramRenderExecutor(1, 4, TIMEOUT_MILLIS, 100);
+    private final AtomicBoolean release = new AtomicBoolean();
+
+    @Test
+    void renderReturnsItsResultOrFailure() throws IOException {
+        assertEquals("png", executor.render(() -> "png"));
+
+        IOException failure = assertThrows(IOException.class, () -> executor.render(() -> {
+            throw new IOException("PlantUML failed");
+        }));
+        assertEquals("PlantUML failed", failure.getMessage());
+    }
+
+    @Test
+    void timedOutRenderHoldsItsThreadUntilItReturns() throws Exception {
+        try {
+            DiagramRenderExecutor.RenderUnavailableException timedOut = assertThrows(
+                    DiagramRenderExecutor.RenderUnavailableException.class, () -> executor.render(this::stuck));
+
+            assertEquals(DiagramRenderExecutor.RenderUnavailableException.Reason.TIMED_OUT, timedOut.getReason());
+            assertEquals(1, executor.getTimedOutCount());
+            assertEquals(1, executor.getOverrunningCount());
+
+            // The only thread is held: refused at once instead of queued behind it
+            DiagramRenderExecutor.RenderUnavailableException stalled = assertThrows(
+                    DiagramRenderExecutor.RenderUnavailableException.class, () -> executor.render(() -> "png"));
+            assertEquals(DiagramRenderExecutor.RenderUnavailableException.Reason.STALLED, stalled.getReason());
+
+            // Still running, so still counted
+            Thread.sleep(2 * TIMEOUT_MILLIS);
+            assertEquals(1, executor.getOverrunningCount());
+        } finally {
+            release.set(true);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.getOverrunningCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, executor.getOverrunningCount());
+        assertEquals("png", executor.render(() -> "png"));
+    }
+
+    @Test
+    void tooLongSourceIsRefused() {
+        executor.checkSourceLength("x".repeat(100));
+
+        DiagramRenderExecutor.RenderUnavailableException tooLarge = assertThrows(
+                DiagramRenderExecutor.RenderUnavailableException.class, () -> executor.checkSourceLength("x".repeat(101)));
+
+        assertEquals(DiagramRenderExecutor.RenderUnavailableException.Reason.TOO_LARGE, tooLarge.getReason());
+        assertTrue(tooLarge.getMessage().contains("101 characters"), tooLarge.getMessage());
+    }
+
+    /**
+     * Spins until released, whatever the interrupt says
+     */
+    private String stuck() {
+        while (!release.get()) {
+            Thread.onSpinWait();
+        }
+        return "png";
+    }
+}
@@ -0,0 +1,303 @@
+package com.justjava.devFlow.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rate-limit backoff, transient retries and the adaptive concurrency limit, against a stub
+ * sender that answers with queued responses. Waits are kept at zero (Retry-After: 0, a reset in
+ * the past, a 1 ms secondary backoff) so the tests don't sleep on throttles.
+ */
+class GitHubUploadSchedulerTest {
+
+    private static final int MAX_CONCURRENCY = 8;
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long SECONDARY_BACKOFF_MILLIS = 1;
+
+    private final GitHubUploadScheduler scheduler =
+            new GitHubUploadScheduler(MAX_CONCURRENCY, MAX_ATTEMPTS, 100, SECONDARY_BACKOFF_MILLIS);
+    private final StubSender sender = new StubSender();
+
+    @Test
+    void throttleWaitPrefersRetryAfterThenRateLimitResetThenSecondaryBackoff() {
+        long resetSeconds = System.currentTimeMillis() / 1000 + 30;
+
+        assertEquals(120_000, scheduler.throttleWaitMillis(response(429, "",
+                "Retry-After", "120", "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(resetSeconds)), 1));
+
+        long untilReset = scheduler.throttleWaitMillis(response(403, "",
+                "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(resetSeconds)), 1);
+        assertTrue(untilReset > 28_000 && untilReset <= 30_000, "waited " + untilReset);
+        // A reset in the past means no wait at all
+        assertEquals(0, scheduler.throttleWaitMillis(response(403, "",
+                "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "1"), 1));
+
+        // Secondary limit: no hints, doubling per attempt up to 16 times the backoff
+        HttpResponse<String> secondary = response(403, "You have exceeded a secondary rate limit");
+        assertEquals(SECONDARY_BACKOFF_MILLIS, scheduler.throttleWaitMillis(secondary, 1));
+        assertEquals(4 * SECONDARY_BACKOFF_MILLIS, scheduler.throttleWaitMillis(secondary, 3));
+        assertEquals(16 * SECONDARY_BACKOFF_MILLIS, scheduler.throttleWaitMillis(secondary, 9));
+        assertEquals(SECONDARY_BACKOFF_MILLIS, scheduler.throttleWaitMillis(response(429, ""), 1));
+    }
+
+    @Test
+    void plainErrorsAreNotThrottles() {
+        assertEquals(-1, scheduler.throttleWaitMillis(response(403, "Resource not accessible by integration"), 1));
+        assertEquals(-1, scheduler.throttleWaitMillis(response(404, ""), 1));
+        assertEquals(-1, scheduler.throttleWaitMillis(response(201, "", "X-RateLimit-Remaining", "0"), 1));
+    }
+
+    @Test
+    void tooManyRequestsIsRetriedAndHalvesTheLimitUntilResponsesSucceed() throws Exception {
+        sender.enqueue(response(429, "", "Retry-After", "0"), response(201, "{}"));
+
+        HttpResponse<String> response = scheduler.execute(post(), sender);
+
+        assertEquals(201, response.statusCode());
+        assertEquals(2, sender.calls.get());
+        // Halved on the throttle, then one more slot for the success
+        assertEquals(MAX_CONCURRENCY / 2 + 1, scheduler.getLimit());
+
+        for (int i = 0; i < MAX_CONCURRENCY; i++) {
+            sender.enqueue(response(200, "{}"));
+            scheduler.execute(get(), sender);
+        }
+        assertEquals(MAX_CONCURRENCY, scheduler.getLimit());
+    }
+
+    @Test
+    void primaryRateLimitForbiddenIsRetriedAfterTheReset() throws Exception {
+        sender.enqueue(response(403, "API rate limit exceeded", "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "1"),
+                response(403, "API rate limit exceeded", "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "1"),
+                response(201, "{}"));
+
+        HttpResponse<String> response = scheduler.execute(post(), sender);
+
+        assertEquals(201, response.statusCode());
+        assertEquals(3, sender.calls.get());
+        assertEquals(MAX_CONCURRENCY / 4 + 1, scheduler.getLimit());
+    }
+
+    @Test
+    void secondaryRateLimitIsRetried() throws Exception {
+        sender.enqueue(response(403, "You have exceeded a secondary rate limit"), response(200, "{}"));
+
+        assertEquals(200, scheduler.execute(get(), sender).statusCode());
+        assertEquals(2, sender.calls.get());
+    }
+
+    @Test
+    void throttledRequestGivesUpAfterTheLastAttempt() throws Exception {
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            sender.enqueue(response(429, "", "Retry-After", "0"));
+        }
+
+        HttpResponse<String> response = scheduler.execute(post(), sender);
+
+        assertEquals(429, response.statusCode());
+        assertEquals(MAX_ATTEMPTS, sender.calls.get());
+        // Throttled on every attempt but the last, which is returned as is
+        assertEquals(MAX_CONCURRENCY >> (MAX_ATTEMPTS - 1), scheduler.getLimit());
+    }
+
+    @Test
+    void forbiddenWithoutRateLimitIsReturnedAtOnce() throws Exception {
+        sender.enqueue(response(403, "Resource not accessible by integration"));
+
+        assertEquals(403, scheduler.execute(get(), sender).statusCode());
+        assertEquals(1, sender.calls.get());
+        assertEquals(MAX_CONCURRENCY, scheduler.getLimit());
+    }
+
+    @Test
+    void serverErrorOnPostIsNotRetried() throws Exception {
+        sender.enqueue(response(502, "Bad Gateway"), response(201, "{}"));
+
+        HttpResponse<String> response = scheduler.execute(post(), sender);
+
+        // GitHub may have created the commit before failing: a retry could leave an orphan
+        assertEquals(502, response.statusCode());
+        assertEquals(1, sender.calls.get());
+    }
+
+    @Test
+    void ioFailureOnPostIsNotRetried() {
+        sender.failure = new IOException("connection reset");
+
+        IOException failure = assertThrows(IOException.class, () -> scheduler.execute(post(), sender));
+
+        assertEquals("connection reset", failure.getMessage());
+        assertEquals(1, sender.calls.get());
+    }
+
+    @Test
+    void serverErrorOnIdempotentRequestIsRetried() throws Exception {
+        sender.enqueue(response(503, "Service Unavailable"), response(200, "{}"));
+
+        assertEquals(200, scheduler.execute(get(), sender).statusCode());
+        assertEquals(2, sender.calls.get());
+    }
+
+    @Test
+    void postCanOptIntoTransientRetries() throws Exception {
+        sender.enqueue(response(500, ""), response(201, "{}"));
+
+        // Blob and tree uploads are content-addressed, so retrying them is harmless
+        assertEquals(201, scheduler.execute(post(), true, sender).statusCode());
+        assertEquals(2, sender.calls.get());
+    }
+
+    @Test
+    void lowRemainingRateLimitDropsTheLimitToOne() throws Exception {
+        sender.enqueue(response(200, "{}", "X-RateLimit-Remaining", "99"));
+
+        scheduler.execute(get(), sender);
+
+        assertEquals(1, scheduler.getLimit());
+    }
+
+    @Test
+    void batchReturnsResultsInSubmissionOrder() throws Exception {
+        List<Integer> items = List.of(50, 0, 30, -1, 10, 20, -1, 0);
+
+        GitHubUploadScheduler.BatchResult<Integer, String> result = scheduler.runAll(items, 4, item -> {
+            if (item < 0) {
+                throw new IOException("upload failed");
+            }
+            // Later items finish first
+            Thread.sleep(item);
+            return "sha-" + item;
+        });
+
+        List<String> expected = new ArrayList<>();
+        for (int item : items) {
+            expected.add(item < 0 ? null : "sha-" + item);
+        }
+        assertEquals(expected, result.results());
+        assertEquals(2, result.failures().size());
+        assertEquals(Integer.valueOf(-1), result.failures().get(0).item());
+        assertEquals("upload failed", result.failures().get(0).message());
+    }
+
+    @Test
+    void requestsStayWithinTheLimit() throws Exception {
+        GitHubUploadScheduler twoAtATime = new GitHubUploadScheduler(2, MAX_ATTEMPTS, 100, SECONDARY_BACKOFF_MILLIS);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        GitHubUploadScheduler.Sender slow = request -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                return response(200, "{}");
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+
+        // The batch would run eight at a time; the scheduler lets two through
+        twoAtATime.runAll(List.of(1, 2, 3, 4, 5, 6, 7, 8), 8, item -> twoAtATime.execute(get(), slow));
+
+        assertEquals(2, maxRunning.get());
+    }
+
+    private static HttpRequest get() {
+        return HttpRequest.newBuilder(URI.create("https://api.github.com/repos/acme/demo/git/ref/heads/main")).GET().build();
+    }
+
+    private static HttpRequest post() {
+        return HttpRequest.newBuilder(URI.create("https://api.github.com/repos/acme/demo/git/commits"))
+                .POST(HttpRequest.BodyPublishers.ofString("{}")).build();
+    }
+
+    /**
+     * A response with the status, body and header name/value pairs
+     */
+    private static HttpResponse<String> response(int status, String body, String... headers) {
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            values.put(headers[i], List.of(headers[i + 1]));
+        }
+        return new StubResponse(status, body, HttpHeaders.of(values, (name, value) -> true));
+    }
+
+    /**
+     * Answers each request with the next queued response, or fails with the set failure
+     */
+    private static final class StubSender implements GitHubUploadScheduler.Sender {
+
+        private final Deque<Optional<HttpResponse<String>>> responses = new ArrayDeque<>();
+        final AtomicInteger calls = new AtomicInteger();
+        volatile IOException failure;
+
+        @SafeVarargs
+        final void enqueue(HttpResponse<String>... queued) {
+            synchronized (responses) {
+                for (HttpResponse<String> response : queued) {
+                    responses.add(Optional.ofNullable(response));
+                }
+            }
+        }
+
+        @Override
+        public HttpResponse<String> send(HttpRequest request) throws IOException {
+            calls.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+            synchronized (responses) {
+                Optional<HttpResponse<String>> next = responses.poll();
+                if (next == null || next.isEmpty()) {
+                    throw new IllegalStateException("No response queued for " + request.uri());
+                }
+                return next.get();
+            }
+        }
+    }
+
+    private record StubResponse(int statusCode, String body, HttpHeaders headers) implements HttpResponse<String> {
+
+        @Override
+        public HttpRequest request() {
+            return get();
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request().uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}